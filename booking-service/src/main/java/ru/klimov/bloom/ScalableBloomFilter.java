@@ -0,0 +1,156 @@
+package ru.klimov.bloom;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Масштабируемый фильтр Блума по UUID: при заполнении текущего слоя добавляется новый, вдвое большей ёмкости
+ * и с вдвое меньшей вероятностью ложного срабатывания, так что суммарная вероятность не превышает заданной.
+ * Ложноотрицательных ответов не бывает. Если следующий слой не помещается в maxBytes, фильтр перестаёт расти
+ * и продолжает заполнять последний слой ценой роста вероятности ложных срабатываний.
+ */
+public class ScalableBloomFilter {
+
+    private static final int GROWTH_FACTOR = 2;
+    private static final double TIGHTENING_RATIO = 0.5;
+
+    private final double falsePositiveRate;
+    private final long maxBytes;
+    private final List<Slice> slices = new CopyOnWriteArrayList<>();
+    private final AtomicLong size = new AtomicLong();
+
+    public ScalableBloomFilter(long initialCapacity, double falsePositiveRate, long maxBytes) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("Initial capacity must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxBytes = maxBytes;
+        slices.add(new Slice(initialCapacity, falsePositiveRate * (1 - TIGHTENING_RATIO)));
+    }
+
+    public boolean mightContain(UUID value) {
+        long h1 = hash(value.getMostSignificantBits(), value.getLeastSignificantBits());
+        long h2 = hash(value.getLeastSignificantBits(), value.getMostSignificantBits()) | 1;
+        for (Slice slice : slices) {
+            if (slice.mightContain(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void put(UUID value) {
+        long h1 = hash(value.getMostSignificantBits(), value.getLeastSignificantBits());
+        long h2 = hash(value.getLeastSignificantBits(), value.getMostSignificantBits()) | 1;
+        currentSlice().put(h1, h2);
+        size.incrementAndGet();
+    }
+
+    public long size() {
+        return size.get();
+    }
+
+    public int sliceCount() {
+        return slices.size();
+    }
+
+    public long memoryBytes() {
+        return slices.stream().mapToLong(Slice::memoryBytes).sum();
+    }
+
+    public double falsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    /**
+     * Оценка текущей вероятности ложного срабатывания по числу элементов в каждом слое.
+     */
+    public double estimatedFalsePositiveRate() {
+        double noFalsePositive = 1;
+        for (Slice slice : slices) {
+            noFalsePositive *= 1 - slice.estimatedFalsePositiveRate();
+        }
+        return 1 - noFalsePositive;
+    }
+
+    private Slice currentSlice() {
+        Slice current = slices.get(slices.size() - 1);
+        if (current.count.get() < current.capacity) {
+            return current;
+        }
+        synchronized (slices) {
+            current = slices.get(slices.size() - 1);
+            if (current.count.get() >= current.capacity) {
+                Slice next = new Slice(current.capacity * GROWTH_FACTOR, current.falsePositiveRate * TIGHTENING_RATIO);
+                if (memoryBytes() + next.memoryBytes() <= maxBytes) {
+                    slices.add(next);
+                    return next;
+                }
+            }
+            return current;
+        }
+    }
+
+    private static long hash(long first, long second) {
+        long h = first * 0x9E3779B97F4A7C15L + Long.rotateLeft(second, 31);
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    private static final class Slice {
+
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final long bitCount;
+        private final int hashCount;
+        private final AtomicLongArray words;
+        private final AtomicLong count = new AtomicLong();
+
+        private Slice(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            long bits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) ((bits + 63) / 64));
+            this.bitCount = words.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+        }
+
+        private boolean mightContain(long h1, long h2) {
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void put(long h1, long h2) {
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                int index = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long word;
+                do {
+                    word = words.get(index);
+                } while ((word & mask) == 0 && !words.compareAndSet(index, word, word | mask));
+            }
+            count.incrementAndGet();
+        }
+
+        private long memoryBytes() {
+            return words.length() * 8L;
+        }
+
+        private double estimatedFalsePositiveRate() {
+            return Math.pow(1 - Math.exp(-hashCount * (double) count.get() / bitCount), hashCount);
+        }
+    }
+}
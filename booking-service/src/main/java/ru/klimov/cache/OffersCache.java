@@ -0,0 +1,84 @@
+package ru.klimov.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import ru.klimov.dto.RoomDto;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Кэш рекомендаций hotel-service, общий для всех пользователей. Одновременные промахи ждут одну загрузку,
+ * а после refresh-after запись обновляется в фоне, пока отдаётся текущее значение. Если hotel-service
+ * недоступен и запись истекла, отдаётся последний успешно полученный список.
+ * Статистика публикуется в метриках cache.* с тегом cache=offers.
+ */
+@Slf4j
+@Component
+public class OffersCache {
+
+    private static final String KEY = "recommend";
+
+    private final RestTemplate restTemplate;
+    private final LoadingCache<String, List<RoomDto>> cache;
+    private final AtomicReference<List<RoomDto>> lastOffers = new AtomicReference<>();
+
+    @Autowired
+    public OffersCache(RestTemplate restTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.offers-cache.ttl:60s}") Duration ttl,
+                       @Value("${app.offers-cache.refresh-after:30s}") Duration refreshAfter) {
+        this(restTemplate, meterRegistry, ttl, refreshAfter, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
+    OffersCache(RestTemplate restTemplate, MeterRegistry meterRegistry, Duration ttl, Duration refreshAfter,
+                Ticker ticker, Executor executor) {
+        if (!refreshAfter.minus(ttl).isNegative()) {
+            throw new IllegalArgumentException("Offers cache refresh-after must be shorter than ttl");
+        }
+        this.restTemplate = restTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(ttl)
+                .refreshAfterWrite(refreshAfter)
+                .ticker(ticker)
+                .executor(executor)
+                .recordStats()
+                .build(key -> fetch());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "offers");
+    }
+
+    public List<RoomDto> get() {
+        try {
+            return cache.get(KEY);
+        } catch (RestClientException ex) {
+            List<RoomDto> snapshot = lastOffers.get();
+            if (snapshot == null) {
+                throw ex;
+            }
+            log.warn("Serving last known room recommendations: {}", ex.getMessage());
+            return snapshot;
+        }
+    }
+
+    private List<RoomDto> fetch() {
+        log.info("Fetching room recommendations from hotel-service");
+        RoomDto[] rooms = restTemplate.getForObject("http://hotel-service/rooms/recommend", RoomDto[].class);
+        List<RoomDto> offers = rooms != null ? List.copyOf(Arrays.asList(rooms)) : List.of();
+        lastOffers.set(offers);
+        return offers;
+    }
+}
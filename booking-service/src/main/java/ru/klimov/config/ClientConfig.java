@@ -1,21 +1,77 @@
 package ru.klimov.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
+import ru.klimov.resilience.HotelServiceResilienceInterceptor;
 import ru.klimov.security.JwtRestTemplateInterceptor;
 
-import java.util.Collections;
+import java.util.List;
 
 @Configuration
+@EnableConfigurationProperties({HttpClientProperties.class, ResilienceProperties.class})
 public class ClientConfig {
 
+    private static final String HOTEL_SERVICE_POOL = "hotel-service";
+
+    @Bean
+    public PoolingHttpClientConnectionManager hotelServiceConnectionManager(HttpClientProperties properties,
+                                                                            MeterRegistry meterRegistry) {
+        TimedConnectionManager connectionManager = new TimedConnectionManager(meterRegistry, HOTEL_SERVICE_POOL);
+        connectionManager.setMaxTotal(properties.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxPerRoute());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                .setSocketTimeout(Timeout.of(properties.getReadTimeout()))
+                .setTimeToLive(TimeValue.of(properties.getTimeToLive()))
+                .build());
+        // leased, pending, available и max публикуются в метриках httpcomponents.httpclient.pool.*
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, HOTEL_SERVICE_POOL).bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean
+    public CloseableHttpClient hotelServiceHttpClient(PoolingHttpClientConnectionManager hotelServiceConnectionManager,
+                                                      HttpClientProperties properties) {
+        return HttpClients.custom()
+                .setConnectionManager(hotelServiceConnectionManager)
+                .setDefaultRequestConfig(requestConfig(properties))
+                .evictIdleConnections(TimeValue.of(properties.getIdleTimeout()))
+                .evictExpiredConnections()
+                .build();
+    }
+
     @Bean
     @LoadBalanced
-    public RestTemplate restTemplate(JwtRestTemplateInterceptor interceptor) {
-        RestTemplate restTemplate = new RestTemplate();
-        restTemplate.setInterceptors(Collections.singletonList(interceptor));
+    public RestTemplate restTemplate(JwtRestTemplateInterceptor interceptor,
+                                     HotelServiceResilienceInterceptor resilienceInterceptor,
+                                     CloseableHttpClient hotelServiceHttpClient,
+                                     HttpClientProperties properties) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(hotelServiceHttpClient);
+        requestFactory.setHttpContextFactory(
+                new EndpointTimeouts(requestConfig(properties), properties.getEndpointReadTimeouts()));
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.setInterceptors(List.of(resilienceInterceptor, interceptor));
         return restTemplate;
     }
+
+    private static RequestConfig requestConfig(HttpClientProperties properties) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(properties.getConnectionRequestTimeout()))
+                .setResponseTimeout(Timeout.of(properties.getReadTimeout()))
+                .setConnectionKeepAlive(TimeValue.of(properties.getKeepAlive()))
+                .build();
+    }
 }
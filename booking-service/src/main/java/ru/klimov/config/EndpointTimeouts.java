@@ -0,0 +1,55 @@
+package ru.klimov.config;
+
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.HttpMethod;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Подставляет таймаут чтения для эндпоинтов, у которых он переопределён. Эндпоинт определяется
+ * по сегменту пути, например /rooms/{id}/release/{requestId} — release.
+ * Для остальных запросов возвращает null, и используется конфигурация клиента по умолчанию.
+ */
+public class EndpointTimeouts implements BiFunction<HttpMethod, URI, HttpContext> {
+
+    private final Map<String, RequestConfig> configs;
+
+    public EndpointTimeouts(RequestConfig defaults, Map<String, Duration> readTimeouts) {
+        this.configs = readTimeouts.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> RequestConfig.copy(defaults)
+                        .setResponseTimeout(Timeout.of(entry.getValue()))
+                        .build()));
+    }
+
+    @Override
+    public HttpContext apply(HttpMethod method, URI uri) {
+        RequestConfig config = resolve(uri);
+        if (config == null) {
+            return null;
+        }
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(config);
+        return context;
+    }
+
+    RequestConfig resolve(URI uri) {
+        String path = uri.getPath();
+        if (path == null || configs.isEmpty()) {
+            return null;
+        }
+        for (String segment : path.split("/")) {
+            RequestConfig config = configs.get(segment);
+            if (config != null) {
+                return config;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,52 @@
+package ru.klimov.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки пула HTTP-соединений к hotel-service.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.http-client")
+public class HttpClientProperties {
+
+    /**
+     * Максимум соединений в пуле.
+     */
+    private int maxTotal = 200;
+
+    /**
+     * Максимум соединений к одному экземпляру сервиса.
+     */
+    private int maxPerRoute = 50;
+
+    private Duration connectTimeout = Duration.ofSeconds(1);
+
+    /**
+     * Сколько ждать свободного соединения из пула.
+     */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+
+    private Duration readTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Время жизни простаивающего соединения, если сервер не прислал Keep-Alive.
+     */
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    /**
+     * Простаивающие дольше соединения закрываются фоновым потоком.
+     */
+    private Duration idleTimeout = Duration.ofSeconds(30);
+
+    private Duration timeToLive = Duration.ofMinutes(5);
+
+    /**
+     * Таймауты чтения по эндпоинтам: ключ — сегмент пути (confirm-availability, release, recommend).
+     */
+    private Map<String, Duration> endpointReadTimeouts = new HashMap<>();
+}
@@ -0,0 +1,76 @@
+package ru.klimov.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки circuit breaker и bulkhead для вызовов hotel-service.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.resilience")
+public class ResilienceProperties {
+
+    private CircuitBreakerProperties circuitBreaker = new CircuitBreakerProperties();
+
+    private BulkheadProperties bulkhead = new BulkheadProperties();
+
+    @Data
+    public static class CircuitBreakerProperties {
+
+        /**
+         * Число последних вызовов, по которым считаются доли ошибок и медленных вызовов.
+         */
+        private int slidingWindowSize = 50;
+
+        /**
+         * Минимум вызовов в окне, после которого breaker может открыться.
+         */
+        private int minimumCalls = 20;
+
+        /**
+         * Доля ошибок (ввод-вывод и ответы 5xx) в процентах, при которой breaker открывается.
+         */
+        private float failureRateThreshold = 50;
+
+        /**
+         * Доля медленных вызовов в процентах, при которой breaker открывается.
+         */
+        private float slowCallRateThreshold = 80;
+
+        private Duration slowCallDuration = Duration.ofSeconds(2);
+
+        /**
+         * Сколько breaker остаётся открытым до пробных вызовов.
+         */
+        private Duration openDuration = Duration.ofSeconds(10);
+
+        /**
+         * Число пробных вызовов в полуоткрытом состоянии.
+         */
+        private int halfOpenCalls = 5;
+    }
+
+    @Data
+    public static class BulkheadProperties {
+
+        /**
+         * Максимум одновременных вызовов одной операции.
+         */
+        private int maxConcurrent = 25;
+
+        /**
+         * Сколько ждать свободного места, прежде чем отклонить вызов.
+         */
+        private Duration maxWait = Duration.ZERO;
+
+        /**
+         * Лимиты по операциям: ключ — последний сегмент пути, не являющийся идентификатором
+         * (confirm-availability, release, recommend, search, status).
+         */
+        private Map<String, Integer> operations = new HashMap<>();
+    }
+}
@@ -2,19 +2,31 @@ package ru.klimov.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.klimov.controller.payload.RefreshTokenPayload;
 import ru.klimov.controller.payload.UserPayload;
 import ru.klimov.controller.payload.UserShortPayload;
+import ru.klimov.dto.ResponseDto;
+import ru.klimov.dto.RevokedTokenDto;
 import ru.klimov.dto.TokenResponseDto;
 import ru.klimov.dto.UserResponseDto;
+import ru.klimov.exception.InvalidRefreshTokenException;
 import ru.klimov.service.AuthService;
 
+import java.time.Instant;
+import java.util.List;
+
 @RestController
 @RequestMapping("/auth")
 @RequiredArgsConstructor
@@ -35,4 +47,39 @@ public class AuthController {
     public ResponseEntity<TokenResponseDto> login(@RequestBody UserShortPayload userShortPayload) {
         return ResponseEntity.ok(authService.login(userShortPayload));
     }
+
+    @Operation(summary = "Обновить токен доступа по refresh-токену (refresh-токен заменяется новым)")
+    @PreAuthorize("permitAll()")
+    @PostMapping("/refresh")
+    public ResponseEntity<TokenResponseDto> refresh(@RequestBody RefreshTokenPayload refreshTokenPayload) {
+        return ResponseEntity.ok(authService.refresh(refreshTokenPayload));
+    }
+
+    @Operation(summary = "Выход: отзыв текущего токена доступа и, если передан, refresh-токена")
+    @PreAuthorize("isAuthenticated()")
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+                                       @RequestBody(required = false) RefreshTokenPayload refreshTokenPayload) {
+        authService.logout(authorization.substring("Bearer ".length()), refreshTokenPayload);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Записи списка отзыва токенов после курсора (since, afterId) для синхронизации hotel-service")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'SERVICE')")
+    @GetMapping("/revocations")
+    public ResponseEntity<List<RevokedTokenDto>> getRevocations(
+            @RequestParam(value = "since", required = false) Instant since,
+            @RequestParam(value = "afterId", defaultValue = "0") long afterId,
+            @RequestParam(value = "limit", defaultValue = "1000") int limit) {
+        return ResponseEntity.ok(authService.getRevocations(since, afterId, limit));
+    }
+
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<ResponseDto> handleInvalidRefreshToken(InvalidRefreshTokenException ex) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(ResponseDto.builder()
+                        .message(ex.getMessage())
+                        .result(false)
+                        .build());
+    }
 }
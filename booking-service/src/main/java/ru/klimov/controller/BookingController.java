@@ -1,13 +1,27 @@
 package ru.klimov.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.klimov.controller.payload.BookingPayload;
 import ru.klimov.dto.BookingDto;
+import ru.klimov.dto.BookingPageDto;
 import ru.klimov.dto.BookingResult;
+import ru.klimov.dto.ResponseDto;
 import ru.klimov.dto.RoomDto;
+import ru.klimov.exception.BookingPipelineSaturatedException;
+import ru.klimov.service.BookingExportFormat;
+import ru.klimov.service.BookingExportService;
+import ru.klimov.service.BookingPipeline;
 import ru.klimov.service.BookingService;
 
 import java.util.List;
@@ -19,26 +33,62 @@ import java.util.UUID;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final BookingPipeline bookingPipeline;
+    private final BookingExportService bookingExportService;
 
-    @Operation(summary = "Получить список всех бронирований")
+    @Operation(summary = "Получить все бронирования постранично (от новых к старым)")
     @GetMapping
     @PreAuthorize("hasAuthority('ADMIN')")
-    public Iterable<BookingDto> findAll() {
-        return bookingService.findAll();
+    public BookingPageDto findAll(@RequestParam(value = "cursor", required = false) String cursor,
+                                  @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        return bookingService.findAll(cursor, limit);
     }
 
-    @Operation(summary = "Получить список бронирований по имени пользователя")
+    @Operation(summary = "Выгрузить все бронирования потоком в NDJSON или CSV")
+    @GetMapping("/export")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            HttpServletRequest request) {
+        BookingExportFormat exportFormat = BookingExportFormat.of(format);
+        // таймаут только для этого запроса, остальные асинхронные запросы живут с общим
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest()
+                .setTimeout(bookingExportService.getTimeout().toMillis());
+        StreamingResponseBody body = output -> bookingExportService.export(exportFormat, output);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("bookings." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    @Operation(summary = "Получить бронирования пользователя постранично (от новых к старым)")
     @GetMapping("/by-username/{username}")
     @PreAuthorize("hasAnyAuthority('ADMIN', 'USER')")
-    public Iterable<BookingDto> findAllByUsername(@PathVariable("username") String username) {
-        return bookingService.findAllByUsername(username);
+    public BookingPageDto findAllByUsername(@PathVariable("username") String username,
+                                            @RequestParam(value = "cursor", required = false) String cursor,
+                                            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        return bookingService.findAllByUsername(username, cursor, limit);
     }
 
-    @Operation(summary = "Создать новое бронирование")
+    @Operation(summary = "Создать новое бронирование (async=true — принять в обработку и вернуть 202)")
     @PostMapping
     @PreAuthorize("hasAnyAuthority('ADMIN', 'USER')")
-    public BookingResult create(@RequestBody BookingPayload payload) {
-        return bookingService.create(payload);
+    public ResponseEntity<BookingResult> create(@RequestBody BookingPayload payload,
+                                                @RequestParam(value = "async", defaultValue = "false") boolean async) {
+        if (async) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(bookingPipeline.submit(payload));
+        }
+        return ResponseEntity.ok(bookingService.create(payload));
+    }
+
+    @Operation(summary = "Создать несколько бронирований одним пакетом (всё или ничего)")
+    @PostMapping("/batch")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'USER')")
+    public List<BookingResult> createBatch(@RequestBody List<BookingPayload> payloads) {
+        return bookingService.createBatch(payloads);
     }
 
     @Operation(summary = "Получить доступные предложения номеров")
@@ -61,4 +111,14 @@ public class BookingController {
     public BookingDto cancelBooking(@PathVariable("requestId") UUID requestId) {
         return bookingService.cancelBooking(requestId);
     }
+
+    @ExceptionHandler(BookingPipelineSaturatedException.class)
+    public ResponseEntity<ResponseDto> handleSaturated(BookingPipelineSaturatedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(ResponseDto.builder()
+                        .message(ex.getMessage())
+                        .result(false)
+                        .build());
+    }
 }
@@ -0,0 +1,27 @@
+package ru.klimov.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.klimov.dto.ResponseDto;
+import ru.klimov.exception.PasswordHashingSaturatedException;
+
+/**
+ * Пароли хешируются при входе, регистрации и изменении пользователя, поэтому отказ из-за переполненной
+ * очереди хеширования обрабатывается для AuthController и UserController одинаково.
+ */
+@RestControllerAdvice(assignableTypes = {AuthController.class, UserController.class})
+public class PasswordHashingExceptionHandler {
+
+    @ExceptionHandler(PasswordHashingSaturatedException.class)
+    public ResponseEntity<ResponseDto> handleSaturated(PasswordHashingSaturatedException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(ResponseDto.builder()
+                        .message(ex.getMessage())
+                        .result(false)
+                        .build());
+    }
+}
@@ -0,0 +1,11 @@
+package ru.klimov.controller.payload;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class RefreshTokenPayload {
+
+    @Schema(description = "Refresh-токен, полученный при входе или предыдущем обновлении")
+    private String refreshToken;
+}
@@ -0,0 +1,39 @@
+package ru.klimov.dto;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.UUID;
+
+/**
+ * Позиция в истории бронирований: последняя выданная пара (createdAt, id).
+ * В запросе передаётся строкой вида {@code 2026-01-01T10:15:30.123_<id>}.
+ */
+public record BookingCursor(LocalDateTime createdAt, UUID id) {
+
+    private static final char SEPARATOR = '_';
+
+    public static BookingCursor of(BookingDto booking) {
+        return new BookingCursor(booking.getCreatedAt(), booking.getId());
+    }
+
+    /**
+     * Возвращает null для пустого курсора.
+     */
+    public static BookingCursor parse(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        int separator = cursor.lastIndexOf(SEPARATOR);
+        try {
+            return new BookingCursor(LocalDateTime.parse(cursor.substring(0, separator)),
+                    UUID.fromString(cursor.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException | IndexOutOfBoundsException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return createdAt.toString() + SEPARATOR + id;
+    }
+}
@@ -0,0 +1,19 @@
+package ru.klimov.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingPageDto {
+
+    private List<BookingDto> items;
+
+    private String nextCursor;
+}
@@ -0,0 +1,32 @@
+package ru.klimov.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Состояние бронирования номера в hotel-service.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotelReservationDto {
+
+    public static final String CONFIRMED = "CONFIRMED";
+
+    private UUID requestId;
+    private UUID roomId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String status;
+    private Boolean archived;
+
+    public boolean isConfirmed() {
+        return CONFIRMED.equals(status);
+    }
+}
@@ -0,0 +1,24 @@
+package ru.klimov.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedTokenDto {
+
+    private Long id;
+
+    private UUID tokenKey;
+
+    private Instant revokedAt;
+
+    private Instant expiresAt;
+}
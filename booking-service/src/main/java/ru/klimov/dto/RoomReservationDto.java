@@ -6,12 +6,14 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
+import java.util.UUID;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class RoomReservationDto {
+    private UUID roomId;
     private LocalDate startDate;
     private LocalDate endDate;
     private String requestId;
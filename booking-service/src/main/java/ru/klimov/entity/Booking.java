@@ -11,6 +11,11 @@ import java.util.UUID;
 
 @Entity
 @Data
+@Table(indexes = {
+        @Index(columnList = "createdAt, id"),
+        @Index(columnList = "user_id, createdAt, id"),
+        @Index(columnList = "batchId")
+})
 public class Booking {
 
     @Id
@@ -33,4 +38,7 @@ public class Booking {
     private BookingStatus status;
 
     private LocalDateTime createdAt;
+
+    // общий для бронирований одного пакета POST /booking/batch, подтверждаются и отменяются они только вместе
+    private UUID batchId;
 }
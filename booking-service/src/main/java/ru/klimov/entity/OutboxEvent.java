@@ -0,0 +1,37 @@
+package ru.klimov.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Незавершённое обращение к hotel-service по бронированию. Пишется в одной транзакции с изменением бронирования
+ * и удаляется, когда hotel-service подтвердил результат.
+ */
+@Entity
+@Data
+@Table(indexes = {
+        @Index(columnList = "nextAttemptAt"),
+        @Index(columnList = "requestId")
+})
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    private UUID requestId;
+
+    @Enumerated(EnumType.STRING)
+    private OutboxEventType type;
+
+    private int attempts;
+
+    private LocalDateTime nextAttemptAt;
+
+    private LocalDateTime createdAt;
+
+    private String lastError;
+}
@@ -0,0 +1,5 @@
+package ru.klimov.entity;
+
+public enum OutboxEventType {
+    CONFIRM, RELEASE
+}
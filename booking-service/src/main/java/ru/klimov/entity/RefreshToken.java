@@ -0,0 +1,31 @@
+package ru.klimov.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Выданный refresh-токен. Хранится только SHA-256 его секретной части.
+ */
+@Entity
+@Data
+@Table(indexes = {
+        @Index(columnList = "userId"),
+        @Index(columnList = "expiresAt")
+})
+public class RefreshToken {
+
+    @Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID userId;
+
+    @Column(nullable = false, length = 43)
+    private String tokenHash;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
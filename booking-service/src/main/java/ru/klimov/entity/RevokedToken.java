@@ -0,0 +1,33 @@
+package ru.klimov.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Запись списка отзыва JWT: jti отозванного токена или ключ логина, все токены которого выданы до revokedAt.
+ * Нужна до истечения последнего из отозванных токенов (expiresAt).
+ */
+@Entity
+@Data
+@Table(indexes = {
+        @Index(columnList = "expiresAt"),
+        @Index(columnList = "revokedAt, id")
+})
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private UUID tokenKey;
+
+    @Column(nullable = false)
+    private Instant revokedAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,16 @@
+package ru.klimov.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class BookingPipelineSaturatedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public BookingPipelineSaturatedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,16 @@
+package ru.klimov.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class PasswordHashingSaturatedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public PasswordHashingSaturatedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,57 @@
+package ru.klimov.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.klimov.entity.Booking;
+import ru.klimov.entity.OutboxEvent;
+import ru.klimov.entity.OutboxEventType;
+import ru.klimov.repository.OutboxEventRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Запись и завершение событий outbox. Событие пишется в транзакции вызывающего кода и первые gracePeriod
+ * не видно {@link OutboxRelay}: за это время вызов hotel-service обычно успевает выполниться напрямую.
+ */
+@Component
+public class Outbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final Duration gracePeriod;
+
+    public Outbox(OutboxEventRepository outboxEventRepository,
+                  @Value("${app.outbox.grace-period:30s}") Duration gracePeriod) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.gracePeriod = gracePeriod;
+    }
+
+    public void record(OutboxEventType type, Booking booking) {
+        outboxEventRepository.save(newEvent(type, booking.getRequestId(), LocalDateTime.now()));
+    }
+
+    public void recordAll(OutboxEventType type, List<Booking> bookings) {
+        LocalDateTime now = LocalDateTime.now();
+        outboxEventRepository.saveAll(bookings.stream()
+                .map(booking -> newEvent(type, booking.getRequestId(), now))
+                .toList());
+    }
+
+    public void complete(OutboxEventType type, Collection<UUID> requestIds) {
+        if (!requestIds.isEmpty()) {
+            outboxEventRepository.deleteByTypeAndRequestIds(type, requestIds);
+        }
+    }
+
+    private OutboxEvent newEvent(OutboxEventType type, UUID requestId, LocalDateTime now) {
+        OutboxEvent event = new OutboxEvent();
+        event.setRequestId(requestId);
+        event.setType(type);
+        event.setCreatedAt(now);
+        event.setNextAttemptAt(now.plus(gracePeriod));
+        return event;
+    }
+}
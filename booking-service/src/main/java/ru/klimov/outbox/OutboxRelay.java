@@ -0,0 +1,104 @@
+package ru.klimov.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import ru.klimov.entity.OutboxEvent;
+import ru.klimov.entity.OutboxEventType;
+import ru.klimov.repository.OutboxEventRepository;
+import ru.klimov.service.BookingService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Доставляет в hotel-service события outbox, для которых не удался прямой вызов. События обрабатываются пачками
+ * по типу; при ошибке вся пачка откладывается с экспоненциально растущей паузой от backoff до maxBackoff.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final BookingService bookingService;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration backoff;
+    private final Duration maxBackoff;
+    private final Counter delivered;
+    private final Counter deferred;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       BookingService bookingService,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.outbox.batch-size:100}") int batchSize,
+                       @Value("${app.outbox.max-batches-per-run:10}") int maxBatchesPerRun,
+                       @Value("${app.outbox.backoff:5s}") Duration backoff,
+                       @Value("${app.outbox.max-backoff:10m}") Duration maxBackoff) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.bookingService = bookingService;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.backoff = backoff;
+        this.maxBackoff = maxBackoff;
+        this.delivered = meterRegistry.counter("outbox.events.delivered");
+        this.deferred = meterRegistry.counter("outbox.events.deferred");
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:5s}", initialDelayString = "${app.outbox.poll-interval:5s}")
+    public void relay() {
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            if (relayBatch(LocalDateTime.now()) < batchSize) {
+                break;
+            }
+        }
+    }
+
+    int relayBatch(LocalDateTime now) {
+        List<OutboxEvent> events = outboxEventRepository.findDue(now, Limit.of(batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        Map<OutboxEventType, List<OutboxEvent>> byType = events.stream()
+                .collect(Collectors.groupingBy(OutboxEvent::getType, () -> new EnumMap<>(OutboxEventType.class),
+                        Collectors.toList()));
+        byType.forEach((type, group) -> deliver(type, group, now));
+        return events.size();
+    }
+
+    private void deliver(OutboxEventType type, List<OutboxEvent> events, LocalDateTime now) {
+        List<UUID> requestIds = events.stream().map(OutboxEvent::getRequestId).toList();
+        try {
+            switch (type) {
+                case CONFIRM -> bookingService.reconcilePending(requestIds);
+                case RELEASE -> bookingService.releaseCancelled(requestIds);
+            }
+            outboxEventRepository.deleteAllInBatch(events);
+            delivered.increment(events.size());
+        } catch (RuntimeException ex) {
+            log.warn("Failed to deliver {} {} outbox events: {}", events.size(), type, ex.getMessage());
+            events.forEach(event -> {
+                event.setAttempts(event.getAttempts() + 1);
+                event.setNextAttemptAt(now.plus(delay(event.getAttempts())));
+                event.setLastError(StringUtils.truncate(ex.getMessage(), 200));
+            });
+            outboxEventRepository.saveAll(events);
+            deferred.increment(events.size());
+        }
+    }
+
+    Duration delay(int attempts) {
+        Duration delay = backoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
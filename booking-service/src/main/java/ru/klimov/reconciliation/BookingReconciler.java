@@ -0,0 +1,86 @@
+package ru.klimov.reconciliation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.klimov.entity.BookingStatus;
+import ru.klimov.repository.BookingRepository;
+import ru.klimov.service.BookingService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Периодически сверяет с hotel-service бронирования, которые не сопровождаются событиями outbox: зависшие дольше
+ * pendingTimeout в PENDING и отменённые за последние window. Страницы по batchSize requestId проверяются одним
+ * пакетным запросом состояния.
+ */
+@Slf4j
+@Component
+public class BookingReconciler {
+
+    private final BookingRepository bookingRepository;
+    private final BookingService bookingService;
+    private final int batchSize;
+    private final Duration pendingTimeout;
+    private final Duration window;
+    private final MeterRegistry meterRegistry;
+    private final Counter released;
+
+    public BookingReconciler(BookingRepository bookingRepository,
+                             BookingService bookingService,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.reconciliation.batch-size:200}") int batchSize,
+                             @Value("${app.reconciliation.pending-timeout:10m}") Duration pendingTimeout,
+                             @Value("${app.reconciliation.window:2d}") Duration window) {
+        this.bookingRepository = bookingRepository;
+        this.bookingService = bookingService;
+        this.batchSize = batchSize;
+        this.pendingTimeout = pendingTimeout;
+        this.window = window;
+        this.meterRegistry = meterRegistry;
+        this.released = meterRegistry.counter("booking.reconciliation.released");
+    }
+
+    @Scheduled(fixedDelayString = "${app.reconciliation.interval:10m}",
+            initialDelayString = "${app.reconciliation.initial-delay:1m}")
+    public void reconcile() {
+        LocalDateTime now = LocalDateTime.now();
+        int pending = reconcile(BookingStatus.PENDING, now.minus(window), now.minus(pendingTimeout),
+                bookingService::reconcilePending);
+        int cancelled = reconcile(BookingStatus.CANCELLED, now.minus(window), now,
+                requestIds -> released.increment(bookingService.releaseCancelled(requestIds)));
+        if (pending > 0 || cancelled > 0) {
+            log.info("Reconciled {} pending and {} cancelled bookings with hotel-service", pending, cancelled);
+        }
+    }
+
+    int reconcile(BookingStatus status, LocalDateTime from, LocalDateTime to, Consumer<List<UUID>> action) {
+        Counter checked = meterRegistry.counter("booking.reconciliation.checked", "status", status.name());
+        List<UUID> page = bookingRepository.findUnsyncedRequestIds(status, from, to, Limit.of(batchSize));
+        int total = 0;
+        while (!page.isEmpty()) {
+            try {
+                action.accept(page);
+            } catch (RuntimeException ex) {
+                log.warn("Reconciliation of {} bookings stopped: {}", status, ex.getMessage());
+                break;
+            }
+            total += page.size();
+            checked.increment(page.size());
+            if (page.size() < batchSize) {
+                break;
+            }
+            page = bookingRepository.findUnsyncedRequestIdsAfter(status, from, to, page.get(page.size() - 1),
+                    Limit.of(batchSize));
+        }
+        return total;
+    }
+}
@@ -1,9 +1,18 @@
 package ru.klimov.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.klimov.dto.BookingDto;
 import ru.klimov.entity.Booking;
+import ru.klimov.entity.BookingStatus;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -11,6 +20,73 @@ import java.util.UUID;
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, UUID> {
 
-    List<Booking> findAllByUserUsername(String username);
     Optional<Booking> findByRequestId(UUID requestId);
+
+    @Query("select new ru.klimov.dto.BookingDto(b.id, b.roomId, b.startDate, b.endDate, b.status, b.createdAt) " +
+            "from Booking b order by b.createdAt desc, b.id desc")
+    List<BookingDto> findBookingDtos(Limit limit);
+
+    @Query("select new ru.klimov.dto.BookingDto(b.id, b.roomId, b.startDate, b.endDate, b.status, b.createdAt) " +
+            "from Booking b where b.createdAt < :createdAt or (b.createdAt = :createdAt and b.id < :id) " +
+            "order by b.createdAt desc, b.id desc")
+    List<BookingDto> findBookingDtosBefore(@Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") UUID id,
+                                           Limit limit);
+
+    @Query("select new ru.klimov.dto.BookingDto(b.id, b.roomId, b.startDate, b.endDate, b.status, b.createdAt) " +
+            "from Booking b join b.user u where u.username = :username order by b.createdAt desc, b.id desc")
+    List<BookingDto> findBookingDtosByUsername(@Param("username") String username, Limit limit);
+
+    @Query("select new ru.klimov.dto.BookingDto(b.id, b.roomId, b.startDate, b.endDate, b.status, b.createdAt) " +
+            "from Booking b join b.user u where u.username = :username " +
+            "and (b.createdAt < :createdAt or (b.createdAt = :createdAt and b.id < :id)) " +
+            "order by b.createdAt desc, b.id desc")
+    List<BookingDto> findBookingDtosByUsernameBefore(@Param("username") String username,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") UUID id,
+                                                     Limit limit);
+
+    List<Booking> findAllByRequestIdInAndStatus(Collection<UUID> requestIds, BookingStatus status);
+
+    List<Booking> findAllByBatchIdIn(Collection<UUID> batchIds);
+
+    @Query("select b.requestId from Booking b where b.requestId is not null order by b.requestId")
+    List<UUID> findRequestIds(Limit limit);
+
+    @Query("select b.requestId from Booking b where b.requestId > :after order by b.requestId")
+    List<UUID> findRequestIdsAfter(@Param("after") UUID after, Limit limit);
+
+    @Query("select b.requestId from Booking b where b.status = :status and b.createdAt between :from and :to " +
+            "and not exists (select e.id from OutboxEvent e where e.requestId = b.requestId) order by b.requestId")
+    List<UUID> findUnsyncedRequestIds(@Param("status") BookingStatus status,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to,
+                                      Limit limit);
+
+    @Query("select b.requestId from Booking b where b.status = :status and b.createdAt between :from and :to " +
+            "and b.requestId > :after " +
+            "and not exists (select e.id from OutboxEvent e where e.requestId = b.requestId) order by b.requestId")
+    List<UUID> findUnsyncedRequestIdsAfter(@Param("status") BookingStatus status,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to,
+                                           @Param("after") UUID after,
+                                           Limit limit);
+
+    /**
+     * Меняет статус только у бронирований, которые всё ещё в статусе expected, поэтому не перезаписывает
+     * отмену, сделанную пользователем после загрузки бронирований. Возвращает число изменённых строк.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Booking b set b.status = :status where b.requestId in :requestIds and b.status = :expected")
+    int updateStatusByRequestIds(@Param("requestIds") Collection<UUID> requestIds,
+                                 @Param("expected") BookingStatus expected,
+                                 @Param("status") BookingStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("update Booking b set b.roomId = :roomId where b.requestId = :requestId and b.status = :expected")
+    int updateRoomIdByRequestId(@Param("requestId") UUID requestId,
+                                @Param("roomId") UUID roomId,
+                                @Param("expected") BookingStatus expected);
 }
@@ -0,0 +1,28 @@
+package ru.klimov.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.klimov.entity.OutboxEvent;
+import ru.klimov.entity.OutboxEventType;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+
+    @Query("select e from OutboxEvent e where e.nextAttemptAt <= :now order by e.nextAttemptAt")
+    List<OutboxEvent> findDue(@Param("now") LocalDateTime now, Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("delete from OutboxEvent e where e.type = :type and e.requestId in :requestIds")
+    int deleteByTypeAndRequestIds(@Param("type") OutboxEventType type, @Param("requestIds") Collection<UUID> requestIds);
+}
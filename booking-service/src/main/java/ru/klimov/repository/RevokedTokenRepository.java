@@ -0,0 +1,31 @@
+package ru.klimov.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.klimov.dto.RevokedTokenDto;
+import ru.klimov.entity.RevokedToken;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    @Query("select new ru.klimov.dto.RevokedTokenDto(t.id, t.tokenKey, t.revokedAt, t.expiresAt) " +
+            "from RevokedToken t where t.expiresAt > :now " +
+            "and (t.revokedAt > :revokedAt or (t.revokedAt = :revokedAt and t.id > :id)) order by t.revokedAt, t.id")
+    List<RevokedTokenDto> findActiveAfter(@Param("revokedAt") Instant revokedAt,
+                                          @Param("id") long id,
+                                          @Param("now") Instant now,
+                                          Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RevokedToken t where t.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
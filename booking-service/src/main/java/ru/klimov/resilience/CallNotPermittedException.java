@@ -0,0 +1,14 @@
+package ru.klimov.resilience;
+
+import java.io.IOException;
+
+/**
+ * Вызов отклонён без обращения к удалённому сервису. Наследует IOException, чтобы RestTemplate
+ * сообщал о нём как об обычной ошибке ввода-вывода (ResourceAccessException).
+ */
+public class CallNotPermittedException extends IOException {
+
+    public CallNotPermittedException(String message) {
+        super(message);
+    }
+}
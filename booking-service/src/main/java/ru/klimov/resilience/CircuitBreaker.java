@@ -0,0 +1,115 @@
+package ru.klimov.resilience;
+
+import ru.klimov.config.ResilienceProperties.CircuitBreakerProperties;
+
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker со скользящим окном по числу вызовов. Открывается, когда в окне набралось не меньше
+ * minimumCalls вызовов и доля ошибок или медленных вызовов достигла порога. Через openDuration пропускает
+ * halfOpenCalls пробных вызовов и по их итогам закрывается или открывается снова.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final CircuitBreakerProperties properties;
+    private final LongSupplier nanoClock;
+    private final BiConsumer<State, State> transitionListener;
+    private final long slowCallNanos;
+    private final long openNanos;
+
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int recorded;
+    private int next;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+
+    public CircuitBreaker(CircuitBreakerProperties properties, LongSupplier nanoClock,
+                          BiConsumer<State, State> transitionListener) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        this.transitionListener = transitionListener;
+        this.slowCallNanos = properties.getSlowCallDuration().toNanos();
+        this.openNanos = properties.getOpenDuration().toNanos();
+        this.failed = new boolean[properties.getSlidingWindowSize()];
+        this.slow = new boolean[properties.getSlidingWindowSize()];
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openNanos) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    public synchronized void onResult(long durationNanos, boolean error) {
+        if (state == State.OPEN) {
+            // ответ на вызов, начатый до открытия
+            return;
+        }
+        record(error, durationNanos >= slowCallNanos);
+        if (state == State.HALF_OPEN) {
+            if (recorded >= properties.getHalfOpenCalls()) {
+                transitionTo(exceedsThresholds() ? State.OPEN : State.CLOSED);
+            }
+        } else if (recorded >= properties.getMinimumCalls() && exceedsThresholds()) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void record(boolean error, boolean slowCall) {
+        if (recorded == failed.length) {
+            failures -= failed[next] ? 1 : 0;
+            slowCalls -= slow[next] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        failed[next] = error;
+        slow[next] = slowCall;
+        failures += error ? 1 : 0;
+        slowCalls += slowCall ? 1 : 0;
+        next = (next + 1) % failed.length;
+    }
+
+    private boolean exceedsThresholds() {
+        return failures * 100f / recorded >= properties.getFailureRateThreshold()
+                || slowCalls * 100f / recorded >= properties.getSlowCallRateThreshold();
+    }
+
+    private void transitionTo(State target) {
+        State source = state;
+        state = target;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+        slowCalls = 0;
+        if (target == State.OPEN) {
+            openedAt = nanoClock.getAsLong();
+        } else if (target == State.HALF_OPEN) {
+            halfOpenPermits = properties.getHalfOpenCalls();
+        }
+        transitionListener.accept(source, target);
+    }
+}
@@ -0,0 +1,108 @@
+package ru.klimov.resilience;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import ru.klimov.config.ResilienceProperties;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Изолирует вызовы hotel-service: общий circuit breaker на сервис и bulkhead на каждую операцию.
+ * Ошибками для breaker считаются ошибки ввода-вывода и ответы 5xx. Отклонённые вызовы завершаются
+ * {@link CallNotPermittedException} без обращения к hotel-service.
+ */
+@Slf4j
+@Component
+public class HotelServiceResilienceInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final String SERVICE = "hotel-service";
+    private static final Pattern ID = Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+    private final ResilienceProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreaker circuitBreaker;
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public HotelServiceResilienceInterceptor(ResilienceProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.circuitBreaker = new CircuitBreaker(properties.getCircuitBreaker(), System::nanoTime, this::onTransition);
+        Gauge.builder("hotel.client.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("0 - closed, 1 - open, 2 - half-open")
+                .tag("service", SERVICE)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String operation = operation(request.getURI());
+        Bulkhead bulkhead = bulkheads.computeIfAbsent(operation, this::newBulkhead);
+        if (!bulkhead.tryAcquire()) {
+            throw rejected(operation, "bulkhead", "Too many concurrent " + operation + " calls to " + SERVICE);
+        }
+        try {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                throw rejected(operation, "circuit-breaker", "Circuit breaker for " + SERVICE + " is open");
+            }
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                failed = response.getStatusCode().is5xxServerError();
+                return response;
+            } finally {
+                circuitBreaker.onResult(System.nanoTime() - start, failed);
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    static String operation(URI uri) {
+        String path = uri.getPath();
+        if (path != null) {
+            String[] segments = path.split("/");
+            for (int i = segments.length - 1; i >= 0; i--) {
+                if (!segments[i].isEmpty() && !ID.matcher(segments[i]).matches()) {
+                    return segments[i];
+                }
+            }
+        }
+        return "root";
+    }
+
+    private Bulkhead newBulkhead(String operation) {
+        ResilienceProperties.BulkheadProperties settings = properties.getBulkhead();
+        Bulkhead bulkhead = new Bulkhead(settings.getOperations().getOrDefault(operation, settings.getMaxConcurrent()),
+                settings.getMaxWait());
+        Gauge.builder("hotel.client.bulkhead.available", bulkhead, Bulkhead::availablePermits)
+                .tag("operation", operation)
+                .register(meterRegistry);
+        return bulkhead;
+    }
+
+    private CallNotPermittedException rejected(String operation, String reason, String message) {
+        meterRegistry.counter("hotel.client.calls.rejected", "operation", operation, "reason", reason).increment();
+        return new CallNotPermittedException(message);
+    }
+
+    private void onTransition(CircuitBreaker.State from, CircuitBreaker.State to) {
+        log.warn("Circuit breaker for {} changed state from {} to {}", SERVICE, from, to);
+        meterRegistry.counter("hotel.client.circuit.transitions", "from", from.name(), "to", to.name()).increment();
+    }
+}
@@ -1,11 +1,10 @@
 package ru.klimov.security;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpRequest;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
@@ -13,19 +12,23 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 import java.io.IOException;
 
 @Component
+@RequiredArgsConstructor
 public class JwtRestTemplateInterceptor implements ClientHttpRequestInterceptor {
 
+    private final JwtUtil jwtUtil;
+
     @Override
     public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
             throws IOException {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-
         ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
         if (attributes != null) {
             String token = attributes.getRequest().getHeader("Authorization");
             if (token != null && token.startsWith("Bearer ")) {
                 request.getHeaders().add("Authorization", token);
             }
+        } else {
+            // вызов из фонового потока, входящего запроса нет
+            request.getHeaders().add("Authorization", "Bearer " + jwtUtil.serviceToken());
         }
 
         return execution.execute(request, body);
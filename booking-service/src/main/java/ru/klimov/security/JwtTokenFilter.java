@@ -1,5 +1,6 @@
 package ru.klimov.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,14 +9,16 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 
 @Component
 @Slf4j
@@ -23,7 +26,8 @@ import java.io.IOException;
 public class JwtTokenFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final TokenRevocations tokenRevocations;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -31,14 +35,17 @@ public class JwtTokenFilter extends OncePerRequestFilter {
 
         try {
             String token = getTokenFromRequest(request);
-            if (token != null && jwtUtil.isValidToken(token)) {
-                String userLogin = jwtUtil.getUserLogin(token);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(userLogin);
-
-                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities()
-                );
-                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+            Claims claims = token != null ? jwtUtil.verify(token) : null;
+            if (claims != null && !tokenRevocations.isRevoked(claims)) {
+                if (JwtUtil.SERVICE_ROLE.equals(claims.get("role"))) {
+                    // токен другого сервиса: пользователя за ним нет, доступны только эндпоинты с полномочием SERVICE
+                    authenticate(claims.getSubject(), List.of(new SimpleGrantedAuthority(JwtUtil.SERVICE_ROLE)));
+                } else {
+                    AuthUser authUser = principalCache.get(claims.getSubject());
+                    if (authUser != null) {
+                        authenticate(authUser, authUser.getAuthorities());
+                    }
+                }
             }
         } catch (Exception ex) {
             log.error(ex.getMessage());
@@ -47,6 +54,12 @@ public class JwtTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private static void authenticate(Object principal, Collection<? extends GrantedAuthority> authorities) {
+        UsernamePasswordAuthenticationToken authenticationToken =
+                new UsernamePasswordAuthenticationToken(principal, null, authorities);
+        SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+    }
+
     private String getTokenFromRequest(HttpServletRequest request) {
         String headerAuth = request.getHeader(HttpHeaders.AUTHORIZATION);
         if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
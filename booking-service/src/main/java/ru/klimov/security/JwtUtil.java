@@ -1,49 +1,107 @@
 package ru.klimov.security;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import ru.klimov.entity.Role;
 import ru.klimov.entity.User;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 @Slf4j
 public class JwtUtil {
 
+    /**
+     * Роль в токенах, которые сервисы выпускают для вызовов друг друга. Пользователю её назначить нельзя.
+     */
+    public static final String SERVICE_ROLE = "SERVICE";
+
+    private static final String SERVICE_SUBJECT = "booking-service";
+
     @Value("${app.jwt.secret}")
     private String secret;
 
     @Value("${app.jwt.expiration}")
     private Long tokenExpirationMills;
 
+    private Key signingKey;
+
+    private volatile String serviceToken;
+    private volatile long serviceTokenRefreshAt;
+
+    @PostConstruct
+    public void init() {
+        // ключ строится один раз так же, как jjwt строит его из строки секрета
+        signingKey = new SecretKeySpec(TextCodec.BASE64.decode(secret), SignatureAlgorithm.HS512.getJcaName());
+    }
+
     public String generateTokenForUser(User user) {
         long currentSeconds = System.currentTimeMillis();
 
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(user.getUsername())
                 .claim("role", user.getRole())
                 .setIssuedAt(new Date(currentSeconds))
                 .setExpiration(new Date(currentSeconds + tokenExpirationMills))
-                .signWith(SignatureAlgorithm.HS512, secret)
+                .signWith(SignatureAlgorithm.HS512, signingKey)
                 .compact();
     }
 
+    /**
+     * Токен самого booking-service для вызовов hotel-service вне входящего запроса (фоновые воркеры).
+     * Перевыпускается, когда прошла половина срока его действия.
+     */
+    public String serviceToken() {
+        long now = System.currentTimeMillis();
+        String token = serviceToken;
+        if (token == null || now >= serviceTokenRefreshAt) {
+            token = Jwts.builder()
+                    .setId(UUID.randomUUID().toString())
+                    .setSubject(SERVICE_SUBJECT)
+                    .claim("role", Role.USER)
+                    .setIssuedAt(new Date(now))
+                    .setExpiration(new Date(now + tokenExpirationMills))
+                    .signWith(SignatureAlgorithm.HS512, signingKey)
+                    .compact();
+            serviceToken = token;
+            serviceTokenRefreshAt = now + tokenExpirationMills / 2;
+        }
+        return token;
+    }
+
     public String getUserLogin(String token) {
-        return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody().getSubject();
+        return parseClaims(token).getSubject();
     }
 
     public boolean isValidToken(String token) {
+        return verify(token) != null;
+    }
+
+    /**
+     * Проверяет подпись и срок действия токена за один разбор. Возвращает null для невалидного токена.
+     */
+    public Claims verify(String token) {
         try {
-            Jwts.parser().setSigningKey(secret).parseClaimsJws(token);
-            return true;
+            return parseClaims(token);
         } catch (Exception ex) {
             log.error("An error occurred while checking the token for validity: {}", ex.getMessage());
         }
 
-        return false;
+        return null;
+    }
+
+    private Claims parseClaims(String token) {
+        return Jwts.parser().setSigningKey(signingKey).parseClaimsJws(token).getBody();
     }
 }
 
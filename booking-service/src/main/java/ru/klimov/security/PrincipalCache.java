@@ -0,0 +1,67 @@
+package ru.klimov.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.klimov.entity.User;
+import ru.klimov.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Кэш аутентифицированных пользователей по логину из JWT. Хранит только id, логин и роль,
+ * поэтому фильтр не обращается к БД на каждый запрос. Записи сбрасываются при изменении
+ * и удалении пользователя. Статистика публикуется в метриках cache.* с тегом cache=principal.
+ */
+@Slf4j
+@Component
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, AuthUser> cache;
+
+    public PrincipalCache(UserRepository userRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${app.principal-cache.ttl:5m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principal");
+    }
+
+    /**
+     * Возвращает пользователя по логину или null, если пользователь не найден.
+     */
+    public AuthUser get(String username) {
+        return cache.get(username, key -> userRepository.findByUsername(key)
+                .map(PrincipalCache::principalOf)
+                .orElse(null));
+    }
+
+    public void evict(String username) {
+        cache.invalidate(username);
+        log.debug("Principal {} evicted", username);
+    }
+
+    public void evict(UUID userId) {
+        cache.asMap().values().removeIf(principal -> userId.equals(principal.getUser().getId()));
+        log.debug("Principal with id {} evicted", userId);
+    }
+
+    private static AuthUser principalOf(User user) {
+        User principal = new User();
+        principal.setId(user.getId());
+        principal.setUsername(user.getUsername());
+        principal.setRole(user.getRole());
+        return new AuthUser(principal);
+    }
+}
@@ -0,0 +1,136 @@
+package ru.klimov.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.klimov.entity.RefreshToken;
+import ru.klimov.exception.InvalidRefreshTokenException;
+import ru.klimov.repository.RefreshTokenRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ротируемые refresh-токены. Токен имеет вид {@code <id>.<секрет>}; в таблице refresh_token и в индексе
+ * в памяти хранится только SHA-256 секрета, поэтому проверка не требует BCrypt. Каждый токен
+ * используется один раз: при обновлении он удаляется, и выдаётся новый. Индекс — только кэш экземпляра:
+ * токен, выданный другим экземпляром booking-service, ищется в таблице, а погашенным токен считается,
+ * только если удалена его строка в таблице.
+ */
+@Slf4j
+@Component
+public class RefreshTokenStore {
+
+    private static final int SECRET_BYTES = 32;
+    private static final String INVALID_TOKEN = "Refresh token is invalid or expired";
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration ttl;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<UUID, Entry> index = new ConcurrentHashMap<>();
+
+    public RefreshTokenStore(RefreshTokenRepository refreshTokenRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.refresh-token.ttl:30d}") Duration ttl) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.ttl = ttl;
+        Gauge.builder("auth.refresh.tokens", index, Map::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        refreshTokenRepository.findAllByExpiresAtAfter(LocalDateTime.now())
+                .forEach(token -> index.put(token.getId(), entry(token)));
+        log.info("Loaded {} refresh tokens", index.size());
+    }
+
+    public String issue(UUID userId) {
+        byte[] secret = new byte[SECRET_BYTES];
+        random.nextBytes(secret);
+        String encodedSecret = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+        byte[] hash = sha256(encodedSecret);
+
+        RefreshToken token = new RefreshToken();
+        token.setId(UUID.randomUUID());
+        token.setUserId(userId);
+        token.setTokenHash(Base64.getUrlEncoder().withoutPadding().encodeToString(hash));
+        token.setExpiresAt(LocalDateTime.now().plus(ttl));
+        refreshTokenRepository.save(token);
+        index.put(token.getId(), new Entry(userId, hash, token.getExpiresAt()));
+        return token.getId() + "." + encodedSecret;
+    }
+
+    /**
+     * Проверяет и погашает токен. Возвращает id пользователя, которому токен был выдан.
+     */
+    public UUID consume(String refreshToken) {
+        int separator = refreshToken != null ? refreshToken.indexOf('.') : -1;
+        if (separator < 0) {
+            throw new InvalidRefreshTokenException(INVALID_TOKEN);
+        }
+        UUID id;
+        try {
+            id = UUID.fromString(refreshToken.substring(0, separator));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRefreshTokenException(INVALID_TOKEN);
+        }
+        Entry entry = index.get(id);
+        if (entry == null) {
+            entry = refreshTokenRepository.findById(id).map(RefreshTokenStore::entry).orElse(null);
+        }
+        if (entry == null || !MessageDigest.isEqual(entry.hash(), sha256(refreshToken.substring(separator + 1)))) {
+            throw new InvalidRefreshTokenException(INVALID_TOKEN);
+        }
+        // при одновременном обновлении одним токеном, в том числе на разных экземплярах, строку удаляет только один
+        index.remove(id);
+        boolean consumed = refreshTokenRepository.removeById(id) > 0;
+        if (!consumed || !entry.expiresAt().isAfter(LocalDateTime.now())) {
+            throw new InvalidRefreshTokenException(INVALID_TOKEN);
+        }
+        return entry.userId();
+    }
+
+    public void revokeAll(UUID userId) {
+        index.values().removeIf(entry -> entry.userId().equals(userId));
+        int deleted = refreshTokenRepository.deleteByUserId(userId);
+        log.info("Revoked {} refresh tokens of user {}", deleted, userId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.refresh-token.purge-interval:1h}",
+            initialDelayString = "${app.refresh-token.purge-interval:1h}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        index.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+        int deleted = refreshTokenRepository.deleteExpired(now);
+        if (deleted > 0) {
+            log.info("Purged {} expired refresh tokens", deleted);
+        }
+    }
+
+    private static Entry entry(RefreshToken token) {
+        return new Entry(token.getUserId(), Base64.getUrlDecoder().decode(token.getTokenHash()), token.getExpiresAt());
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private record Entry(UUID userId, byte[] hash, LocalDateTime expiresAt) {
+    }
+}
@@ -0,0 +1,83 @@
+package ru.klimov.security;
+
+import ru.klimov.bloom.ScalableBloomFilter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Отозванные JWT в памяти: фильтр Блума по ключам отзыва и точная карта за ним. Ключ — jti токена или
+ * ключ логина ({@link #subjectKey(String)}); токен отозван, если есть запись по его jti или запись по логину,
+ * сделанная позже его iat. Для большинства токенов проверка заканчивается отрицательным ответом фильтра.
+ * Записи живут до expiresAt; фильтр Блума не умеет удалять, поэтому при очистке он перестраивается.
+ */
+public class RevocationIndex {
+
+    private static final long INITIAL_CAPACITY = 1024;
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+    private static final long MAX_FILTER_BYTES = 16L * 1024 * 1024;
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private volatile ScalableBloomFilter filter = newFilter();
+
+    public static UUID subjectKey(String subject) {
+        return UUID.nameUUIDFromBytes(("sub:" + subject).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public synchronized void add(UUID key, Instant revokedAt, Instant expiresAt) {
+        // iat хранится в токене с точностью до секунды, момент отзыва сравнивается с ним в тех же единицах
+        Entry entry = new Entry(revokedAt.truncatedTo(ChronoUnit.SECONDS), expiresAt);
+        entries.merge(key, entry, (current, added) -> new Entry(
+                current.revokedAt().isAfter(added.revokedAt()) ? current.revokedAt() : added.revokedAt(),
+                current.expiresAt().isAfter(added.expiresAt()) ? current.expiresAt() : added.expiresAt()));
+        filter.put(key);
+    }
+
+    /**
+     * @param jti      идентификатор токена или null для токенов без jti
+     * @param issuedAt iat токена или null, если его нет
+     */
+    public boolean isRevoked(String subject, UUID jti, Instant issuedAt) {
+        return (jti != null && find(jti) != null) || (subject != null && revokedBefore(subjectKey(subject), issuedAt));
+    }
+
+    /**
+     * Удаляет записи с истёкшим сроком и перестраивает фильтр Блума. Возвращает число удалённых записей.
+     */
+    public synchronized int purgeExpired(Instant now) {
+        int before = entries.size();
+        entries.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+        ScalableBloomFilter rebuilt = newFilter();
+        entries.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+        return before - entries.size();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Отзыв по логину действует на токены, выданные в секунды до отзыва. Токен, выданный в ту же секунду,
+     * остаётся действительным: иначе повторный вход сразу после смены пароля давал бы отозванный токен.
+     */
+    private boolean revokedBefore(UUID key, Instant issuedAt) {
+        Entry entry = find(key);
+        return entry != null && (issuedAt == null || issuedAt.isBefore(entry.revokedAt()));
+    }
+
+    private Entry find(UUID key) {
+        return filter.mightContain(key) ? entries.get(key) : null;
+    }
+
+    private static ScalableBloomFilter newFilter() {
+        return new ScalableBloomFilter(INITIAL_CAPACITY, FALSE_POSITIVE_RATE, MAX_FILTER_BYTES);
+    }
+
+    private record Entry(Instant revokedAt, Instant expiresAt) {
+    }
+}
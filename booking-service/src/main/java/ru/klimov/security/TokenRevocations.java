@@ -0,0 +1,143 @@
+package ru.klimov.security;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.klimov.dto.RevokedTokenDto;
+import ru.klimov.entity.RevokedToken;
+import ru.klimov.repository.RevokedTokenRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Список отзыва JWT. Записи хранятся в таблице revoked_token, проверка выполняется только по
+ * {@link RevocationIndex} в памяти. Индекс догружает новые строки таблицы по (revokedAt, id) раз в
+ * sync-interval (записи других экземпляров booking-service); hotel-service получает их через
+ * {@code GET /auth/revocations}. Строка может зафиксироваться позже строк, отозванных после неё, поэтому каждая
+ * синхронизация заново читает последние sync-overlap; повторное добавление записи в индекс ничего не меняет.
+ */
+@Slf4j
+@Component
+public class TokenRevocations {
+
+    private static final int MAX_FEED_SIZE = 1000;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final Duration tokenLifetime;
+    private final RevocationIndex index = new RevocationIndex();
+    private final Duration syncOverlap;
+    private final Counter denied;
+    private volatile Instant syncedUntil = Instant.EPOCH;
+
+    public TokenRevocations(RevokedTokenRepository revokedTokenRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.jwt.expiration}") long tokenExpirationMillis,
+                            @Value("${app.revocation.sync-overlap:1m}") Duration syncOverlap) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.tokenLifetime = Duration.ofMillis(tokenExpirationMillis);
+        this.syncOverlap = syncOverlap;
+        this.denied = meterRegistry.counter("auth.revocations.denied");
+        Gauge.builder("auth.revocations", index, RevocationIndex::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${app.revocation.sync-interval:10s}",
+            initialDelayString = "${app.revocation.sync-interval:10s}")
+    public synchronized void sync() {
+        Instant revokedAt = syncedUntil.minus(syncOverlap);
+        long id = 0;
+        List<RevokedTokenDto> page;
+        do {
+            page = findAfter(revokedAt, id, MAX_FEED_SIZE);
+            for (RevokedTokenDto revoked : page) {
+                index.add(revoked.getTokenKey(), revoked.getRevokedAt(), revoked.getExpiresAt());
+                revokedAt = revoked.getRevokedAt();
+                id = revoked.getId();
+            }
+        } while (page.size() == MAX_FEED_SIZE);
+        if (revokedAt.isAfter(syncedUntil)) {
+            syncedUntil = revokedAt;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.revocation.purge-interval:10m}",
+            initialDelayString = "${app.revocation.purge-interval:10m}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        int removed = index.purgeExpired(now);
+        int deleted = revokedTokenRepository.deleteExpired(now);
+        log.info("Purged {} expired revocations from memory and {} from database", removed, deleted);
+    }
+
+    public boolean isRevoked(Claims claims) {
+        boolean revoked = index.isRevoked(claims.getSubject(), parseId(claims.getId()),
+                claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant());
+        if (revoked) {
+            denied.increment();
+        }
+        return revoked;
+    }
+
+    /**
+     * Отзывает один токен до истечения его срока.
+     */
+    public void revokeToken(Claims claims) {
+        UUID jti = parseId(claims.getId());
+        if (jti == null) {
+            log.warn("Token of {} has no jti and cannot be revoked individually", claims.getSubject());
+            return;
+        }
+        Instant expiresAt = claims.getExpiration() != null
+                ? claims.getExpiration().toInstant()
+                : Instant.now().plus(tokenLifetime);
+        save(jti, expiresAt);
+        log.info("Token {} of {} revoked", jti, claims.getSubject());
+    }
+
+    /**
+     * Отзывает все выданные пользователю токены. Запись нужна, пока не истечёт последний из них.
+     */
+    public void revokeSubject(String subject) {
+        save(RevocationIndex.subjectKey(subject), Instant.now().plus(tokenLifetime));
+        log.info("All tokens of {} revoked", subject);
+    }
+
+    /**
+     * Действующие записи после курсора (revokedAt, id) в порядке отзыва, не более 1000.
+     */
+    public List<RevokedTokenDto> findAfter(Instant revokedAt, long id, int limit) {
+        return revokedTokenRepository.findActiveAfter(revokedAt, id, Instant.now(),
+                Limit.of(Math.max(1, Math.min(limit, MAX_FEED_SIZE))));
+    }
+
+    private void save(UUID key, Instant expiresAt) {
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setTokenKey(key);
+        revokedToken.setRevokedAt(Instant.now());
+        revokedToken.setExpiresAt(expiresAt);
+        revokedTokenRepository.save(revokedToken);
+        // в индекс сразу, не дожидаясь синхронизации
+        index.add(key, revokedToken.getRevokedAt(), expiresAt);
+    }
+
+    private static UUID parseId(String id) {
+        if (id == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
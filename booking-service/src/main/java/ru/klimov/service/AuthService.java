@@ -1,23 +1,32 @@
 package ru.klimov.service;
 
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.klimov.controller.payload.RefreshTokenPayload;
 import ru.klimov.controller.payload.UserPayload;
 import ru.klimov.controller.payload.UserShortPayload;
+import ru.klimov.dto.RevokedTokenDto;
 import ru.klimov.dto.TokenResponseDto;
 import ru.klimov.dto.UserResponseDto;
 import ru.klimov.entity.Role;
 import ru.klimov.entity.User;
+import ru.klimov.exception.InvalidRefreshTokenException;
 import ru.klimov.exception.RegistrationException;
 import ru.klimov.exception.UserNotFoundException;
 import ru.klimov.mapper.UserMapper;
 import ru.klimov.repository.UserRepository;
 import ru.klimov.security.JwtUtil;
+import ru.klimov.security.RefreshTokenStore;
+import ru.klimov.security.TokenRevocations;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Slf4j
 @Service
@@ -28,6 +37,8 @@ public class AuthService {
     private final UserMapper userMapper;
     private final JwtUtil jwtUtil;
     private final PasswordEncoder passwordEncoder;
+    private final RefreshTokenStore refreshTokenStore;
+    private final TokenRevocations tokenRevocations;
 
     @Transactional
     public UserResponseDto register(UserPayload userRequestDto) {
@@ -59,8 +70,49 @@ public class AuthService {
         }
 
         log.info("User {} successfully logged in", userShortPayload.getUsername());
+        return issueTokens(optionalUser.get());
+    }
+
+    /**
+     * Выдаёт новую пару токенов по refresh-токену без проверки пароля. Использованный refresh-токен гасится.
+     */
+    public TokenResponseDto refresh(RefreshTokenPayload refreshTokenPayload) {
+        UUID userId = refreshTokenStore.consume(refreshTokenPayload.getRefreshToken());
+        User user = userRepository.findById(userId).orElseThrow(() -> {
+            log.warn("Token refresh failed: user {} not found", userId);
+            return new InvalidRefreshTokenException("Refresh token is invalid or expired");
+        });
+        log.info("Tokens refreshed for user {}", user.getUsername());
+        return issueTokens(user);
+    }
+
+    /**
+     * Отзывает предъявленный токен доступа и гасит refresh-токен, если он передан.
+     */
+    public void logout(String accessToken, RefreshTokenPayload refreshTokenPayload) {
+        Claims claims = jwtUtil.verify(accessToken);
+        if (claims == null) {
+            throw new InvalidRefreshTokenException("Access token is invalid or expired");
+        }
+        tokenRevocations.revokeToken(claims);
+        if (refreshTokenPayload != null && refreshTokenPayload.getRefreshToken() != null) {
+            try {
+                refreshTokenStore.consume(refreshTokenPayload.getRefreshToken());
+            } catch (InvalidRefreshTokenException ex) {
+                log.debug("Refresh token presented on logout of {} is already invalid", claims.getSubject());
+            }
+        }
+        log.info("User {} logged out", claims.getSubject());
+    }
+
+    public List<RevokedTokenDto> getRevocations(Instant since, long afterId, int limit) {
+        return tokenRevocations.findAfter(since != null ? since : Instant.EPOCH, afterId, limit);
+    }
+
+    private TokenResponseDto issueTokens(User user) {
         return TokenResponseDto.builder()
-                .token(jwtUtil.generateTokenForUser(optionalUser.get()))
+                .token(jwtUtil.generateTokenForUser(user))
+                .refreshToken(refreshTokenStore.issue(user.getId()))
                 .build();
     }
 }
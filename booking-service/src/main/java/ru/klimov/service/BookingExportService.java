@@ -0,0 +1,127 @@
+package ru.klimov.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.klimov.dto.BookingExportRow;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Потоковая выгрузка всех бронирований в NDJSON или CSV. Строки читаются однонаправленным курсором
+ * порциями по fetch-size в read-only транзакции и сразу пишутся в ответ, поэтому память не зависит от
+ * размера таблицы. Запрос — проекция в {@link BookingExportRow}, сущности в контекст персистентности не попадают.
+ * Выгрузка может идти дольше общего таймаута асинхронных запросов, поэтому у неё свой — timeout.
+ */
+@Slf4j
+@Service
+public class BookingExportService {
+
+    private static final String QUERY = "select new ru.klimov.dto.BookingExportRow(b.id, b.requestId, u.username, " +
+            "b.roomId, b.startDate, b.endDate, b.status, b.createdAt) " +
+            "from Booking b left join b.user u order by b.createdAt, b.id";
+    private static final String CSV_HEADER = "id,requestId,username,roomId,startDate,endDate,status,createdAt";
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+    @Getter
+    private final Duration timeout;
+
+    public BookingExportService(EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                @Value("${app.booking-export.fetch-size:1000}") int fetchSize,
+                                @Value("${app.booking-export.timeout:1h}") Duration timeout) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Export fetch-size must be positive");
+        }
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+        this.timeout = timeout;
+    }
+
+    public void export(BookingExportFormat format, OutputStream output) {
+        log.info("Exporting bookings as {}", format);
+        long exported = transactionTemplate.execute(status -> {
+            try (Stream<BookingExportRow> rows = entityManager.createQuery(QUERY, BookingExportRow.class)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .getResultStream()) {
+                return format == BookingExportFormat.CSV
+                        ? writeCsv(rows.iterator(), output)
+                        : writeNdjson(rows.iterator(), output);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        log.info("Exported {} bookings", exported);
+    }
+
+    private long writeNdjson(Iterator<BookingExportRow> rows, OutputStream output) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            // объекты разделяются только переводом строки
+            generator.setRootValueSeparator(null);
+            while (rows.hasNext()) {
+                generator.writeObject(rows.next());
+                generator.writeRaw('\n');
+                if (++count % fetchSize == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return count;
+    }
+
+    private long writeCsv(Iterator<BookingExportRow> rows, OutputStream output) throws IOException {
+        long count = 0;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            writer.flush();
+            while (rows.hasNext()) {
+                BookingExportRow row = rows.next();
+                writer.write(String.join(",",
+                        csv(row.getId()), csv(row.getRequestId()), csv(row.getUsername()), csv(row.getRoomId()),
+                        csv(row.getStartDate()), csv(row.getEndDate()), csv(row.getStatus()), csv(row.getCreatedAt())));
+                writer.write('\n');
+                if (++count % fetchSize == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        return count;
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,123 @@
+package ru.klimov.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.klimov.controller.payload.BookingPayload;
+import ru.klimov.dto.BookingResult;
+import ru.klimov.entity.Booking;
+import ru.klimov.exception.BookingPipelineSaturatedException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Асинхронное подтверждение бронирований. Запрос сохраняет бронирование в PENDING и сразу получает ответ,
+ * а фиксированное число воркеров забирает requestId из очереди пачками и подтверждает их в hotel-service.
+ * Ёмкость (очередь плюс обрабатываемые бронирования) ограничена: при её исчерпании запрос отклоняется
+ * до сохранения бронирования.
+ */
+@Slf4j
+@Component
+public class BookingPipeline {
+
+    private final BookingService bookingService;
+    private final int workerCount;
+    private final int batchSize;
+    private final Duration retryAfter;
+    private final Semaphore capacity;
+    private final BlockingQueue<UUID> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService workers;
+    private final Counter rejected;
+
+    public BookingPipeline(BookingService bookingService,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.booking-pipeline.workers:4}") int workerCount,
+                           @Value("${app.booking-pipeline.queue-capacity:1000}") int queueCapacity,
+                           @Value("${app.booking-pipeline.batch-size:50}") int batchSize,
+                           @Value("${app.booking-pipeline.retry-after:2s}") Duration retryAfter) {
+        this.bookingService = bookingService;
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.retryAfter = retryAfter;
+        this.capacity = new Semaphore(queueCapacity);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount,
+                runnable -> new Thread(runnable, "booking-pipeline-" + threadNumber.incrementAndGet()));
+        this.rejected = meterRegistry.counter("booking.pipeline.rejected");
+        Gauge.builder("booking.pipeline.queue", queue, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("booking.pipeline.in-flight", capacity, permits -> queueCapacity - permits.availablePermits())
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::runWorker);
+        }
+        log.info("Booking pipeline started with {} workers", workerCount);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        workers.shutdownNow();
+        if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("Booking pipeline workers did not stop in time");
+        }
+        log.info("Booking pipeline stopped, {} bookings left in PENDING", queue.size());
+    }
+
+    public BookingResult submit(BookingPayload payload) {
+        if (!capacity.tryAcquire()) {
+            rejected.increment();
+            log.warn("Booking pipeline is saturated, rejecting booking for roomId {}", payload.getRoomId());
+            throw new BookingPipelineSaturatedException("Booking pipeline is saturated", retryAfter);
+        }
+        try {
+            Booking booking = bookingService.createPending(payload);
+            queue.add(booking.getRequestId());
+            return BookingResult.builder()
+                    .success(true)
+                    .message("Booking accepted")
+                    .requestId(booking.getRequestId())
+                    .roomId(booking.getRoomId())
+                    .startDate(booking.getStartDate())
+                    .endDate(booking.getEndDate())
+                    .build();
+        } catch (RuntimeException ex) {
+            capacity.release();
+            throw ex;
+        }
+    }
+
+    private void runWorker() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<UUID> batch = new ArrayList<>(batchSize);
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                bookingService.confirmPending(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException ex) {
+                log.error("Failed to confirm {} pending bookings: {}", batch.size(), ex.getMessage());
+            } finally {
+                capacity.release(batch.size());
+            }
+        }
+    }
+}
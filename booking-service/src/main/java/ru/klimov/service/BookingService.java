@@ -3,28 +3,54 @@ package ru.klimov.service;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import ru.klimov.bloom.RequestIdBloomFilter;
+import ru.klimov.cache.OffersCache;
 import ru.klimov.controller.payload.BookingPayload;
+import ru.klimov.dto.BookingCursor;
 import ru.klimov.dto.BookingDto;
+import ru.klimov.dto.BookingPageDto;
 import ru.klimov.dto.BookingResult;
+import ru.klimov.dto.HotelReservationDto;
 import ru.klimov.dto.RoomDto;
 import ru.klimov.dto.RoomReservationDto;
+import ru.klimov.dto.RoomReservationResultDto;
 import ru.klimov.entity.Booking;
 import ru.klimov.entity.BookingStatus;
+import ru.klimov.entity.OutboxEventType;
 import ru.klimov.entity.User;
 import ru.klimov.mapper.BookingMapper;
+import ru.klimov.outbox.Outbox;
 import ru.klimov.repository.BookingRepository;
 import ru.klimov.repository.UserRepository;
+import ru.klimov.security.AuthUser;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static java.util.Optional.ofNullable;
 
@@ -33,24 +59,59 @@ import static java.util.Optional.ofNullable;
 @RequiredArgsConstructor
 public class BookingService {
 
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final String BATCH_REJECTED = "Batch rejected";
+    private static final String DUPLICATE_REQUEST_ID = "Reservation with this requestId already exists";
+
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final RestTemplate restTemplate;
     private final BookingMapper bookingMapper;
+    private final RequestIdBloomFilter requestIdBloomFilter;
+    private final Outbox outbox;
+    private final TransactionTemplate transactionTemplate;
+    private final OffersCache offersCache;
 
-    public Iterable<BookingDto> findAll() {
-        log.info("Fetching all bookings");
-        return bookingRepository.findAll().stream()
-                .map(bookingMapper::toDto)
-                .toList();
+    /**
+     * Страница всех бронирований от новых к старым. Курсор — {@code nextCursor} предыдущей страницы.
+     */
+    public BookingPageDto findAll(String cursor, int limit) {
+        log.info("Fetching bookings before {} with limit {}", cursor, limit);
+        Limit pageLimit = pageLimit(limit);
+        BookingCursor after = BookingCursor.parse(cursor);
+        List<BookingDto> bookings = after == null
+                ? bookingRepository.findBookingDtos(pageLimit)
+                : bookingRepository.findBookingDtosBefore(after.createdAt(), after.id(), pageLimit);
+        return page(bookings, pageLimit);
     }
 
-    public Iterable<BookingDto> findAllByUsername(String username) {
-        log.info("Fetching bookings for user: {}", username);
+    public BookingPageDto findAllByUsername(String username, String cursor, int limit) {
+        log.info("Fetching bookings for user {} before {} with limit {}", username, cursor, limit);
         validateAccess(username);
-        return bookingRepository.findAllByUserUsername(username).stream()
-                .map(bookingMapper::toDto)
-                .toList();
+        Limit pageLimit = pageLimit(limit);
+        BookingCursor after = BookingCursor.parse(cursor);
+        List<BookingDto> bookings = after == null
+                ? bookingRepository.findBookingDtosByUsername(username, pageLimit)
+                : bookingRepository.findBookingDtosByUsernameBefore(username, after.createdAt(), after.id(), pageLimit);
+        return page(bookings, pageLimit);
+    }
+
+    private static Limit pageLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return Limit.of(Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private static BookingPageDto page(List<BookingDto> bookings, Limit pageLimit) {
+        String nextCursor = bookings.size() == pageLimit.max()
+                ? BookingCursor.of(bookings.get(bookings.size() - 1)).toString()
+                : null;
+        return BookingPageDto.builder()
+                .items(bookings)
+                .nextCursor(nextCursor)
+                .build();
     }
 
     private static void validateAccess(String username) {
@@ -67,7 +128,7 @@ public class BookingService {
 
     public BookingDto cancelBooking(UUID requestId) {
         log.info("Cancelling booking with requestId: {}", requestId);
-        Booking booking = bookingRepository.findByRequestId(requestId)
+        Booking booking = findBooking(requestId)
                 .orElseThrow(() -> {
                     log.error("Booking not found with requestId: {}", requestId);
                     return new IllegalArgumentException("Booking not found with id " + requestId);
@@ -76,17 +137,22 @@ public class BookingService {
         String username = booking.getUser().getUsername();
         validateAccess(username);
 
-        UUID roomId = booking.getRoomId();
-        restTemplate.postForObject(
-                "http://hotel-service/rooms/{id}/release/{requestId}",
-                null,
-                Void.class,
-                roomId,
-                requestId
-        );
-
         booking.setStatus(BookingStatus.CANCELLED);
-        Booking savedBooking = bookingRepository.save(booking);
+        Booking savedBooking = transactionTemplate.execute(status -> {
+            Booking saved = bookingRepository.save(booking);
+            outbox.record(OutboxEventType.RELEASE, saved);
+            return saved;
+        });
+
+        UUID roomId = booking.getRoomId();
+        if (roomId != null) {
+            try {
+                releaseRoom(roomId, requestId);
+                outbox.complete(OutboxEventType.RELEASE, List.of(requestId));
+            } catch (RestClientException ex) {
+                log.warn("Release of room {} for booking {} deferred: {}", roomId, requestId, ex.getMessage());
+            }
+        }
         log.info("Booking {} successfully cancelled", requestId);
         return bookingMapper.toDto(savedBooking);
     }
@@ -99,21 +165,35 @@ public class BookingService {
 
         RoomReservationDto roomReservationDto = bookingMapper.toRoomReservationDto(booking);
 
-        Boolean isConfirmed = restTemplate.postForObject(
-                "http://hotel-service/rooms/{id}/confirm-availability",
-                roomReservationDto,
-                Boolean.class,
-                booking.getRoomId()
-        );
+        Boolean isConfirmed;
+        try {
+            isConfirmed = restTemplate.postForObject(
+                    "http://hotel-service/rooms/{id}/confirm-availability",
+                    roomReservationDto,
+                    Boolean.class,
+                    booking.getRoomId()
+            );
+        } catch (RestClientException ex) {
+            // бронирование остаётся в PENDING, подтверждение завершит OutboxRelay
+            log.warn("Confirmation of booking {} deferred: {}", booking.getRequestId(), ex.getMessage());
+            return BookingResult.builder()
+                    .success(false)
+                    .message("Booking is pending confirmation")
+                    .requestId(booking.getRequestId())
+                    .roomId(booking.getRoomId())
+                    .startDate(booking.getStartDate())
+                    .endDate(booking.getEndDate())
+                    .build();
+        }
 
         if (Boolean.TRUE.equals(isConfirmed)) {
             booking.setStatus(BookingStatus.CONFIRMED);
-            bookingRepository.save(booking);
+            saveStatuses(List.of(booking), List.of());
             log.info("Booking {} confirmed for room {}", booking.getRequestId(), booking.getRoomId());
             return bookingMapper.toBookingResultDto(booking);
         } else {
             booking.setStatus(BookingStatus.CANCELLED);
-            bookingRepository.save(booking);
+            saveStatuses(List.of(), List.of(booking));
             log.warn("Booking {} cancelled: room {} not available", booking.getRequestId(), booking.getRoomId());
             return BookingResult.builder()
                     .success(false)
@@ -129,47 +209,504 @@ public class BookingService {
         }
     }
 
-    private Booking createBooking(BookingPayload payload) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> {
-                    log.error("User not found: {}", username);
-                    return new EntityNotFoundException("User not found with username " + username);
-                });
+    public List<BookingResult> createBatch(List<BookingPayload> payloads) {
+        if (payloads == null || payloads.isEmpty() || payloads.size() > MAX_BATCH_SIZE) {
+            log.error("Invalid booking batch size: {}", payloads == null ? 0 : payloads.size());
+            throw new IllegalArgumentException("Batch must contain from 1 to " + MAX_BATCH_SIZE + " bookings");
+        }
+        log.info("Creating batch of {} bookings", payloads.size());
+        payloads.forEach(this::validateDates);
+
+        User user = currentUser();
+        List<Stay> stays = payloads.stream()
+                .map(payload -> new Stay(
+                        ofNullable(payload.getStartDate())
+                                .orElseThrow(() -> new IllegalArgumentException("StartDate is required")),
+                        ofNullable(payload.getEndDate())
+                                .orElseThrow(() -> new IllegalArgumentException("EndDate is required"))))
+                .toList();
+        Set<UUID> selectedRoomIds = payloads.stream()
+                .filter(payload -> !Boolean.TRUE.equals(payload.getAutoSelect()))
+                .map(payload -> ofNullable(payload.getRoomId())
+                        .orElseThrow(() -> new IllegalArgumentException("RoomId is required")))
+                .collect(Collectors.toCollection(HashSet::new));
+        // номера для autoSelect подбираются одним запросом /rooms/search на каждую пару дат, а не на каждое бронирование
+        Iterator<UUID> freeRoomIds = selectFreeRooms(IntStream.range(0, payloads.size())
+                .filter(i -> Boolean.TRUE.equals(payloads.get(i).getAutoSelect()))
+                .mapToObj(stays::get)
+                .toList(), selectedRoomIds).iterator();
+        UUID batchId = UUID.randomUUID();
+        List<Booking> bookings = new ArrayList<>(payloads.size());
+        for (int i = 0; i < payloads.size(); i++) {
+            BookingPayload payload = payloads.get(i);
+            UUID roomId = Boolean.TRUE.equals(payload.getAutoSelect())
+                    ? ofNullable(freeRoomIds.next()).orElseThrow(() -> {
+                        log.error("No rooms available for auto-selection");
+                        return new EntityNotFoundException("No rooms available");
+                    })
+                    : payload.getRoomId();
+            Booking booking = newBooking(user, roomId, stays.get(i).startDate(), stays.get(i).endDate());
+            booking.setBatchId(batchId);
+            bookings.add(booking);
+        }
+        List<Booking> savedBookings = transactionTemplate.execute(status -> {
+            List<Booking> saved = bookingRepository.saveAll(bookings);
+            outbox.recordAll(OutboxEventType.CONFIRM, saved);
+            return saved;
+        });
+        savedBookings.forEach(booking -> requestIdBloomFilter.add(booking.getRequestId()));
+        log.info("Batch of {} bookings created in PENDING status", savedBookings.size());
+
+        List<RoomReservationDto> reservations = savedBookings.stream()
+                .map(bookingMapper::toRoomReservationDto)
+                .toList();
+        RoomReservationResultDto[] results;
+        try {
+            results = restTemplate.postForObject(
+                    "http://hotel-service/rooms/confirm-availability",
+                    reservations,
+                    RoomReservationResultDto[].class
+            );
+        } catch (RestClientException ex) {
+            // пакет остаётся в PENDING, OutboxRelay подтвердит или отменит его целиком
+            log.warn("Confirmation of batch {} deferred: {}", batchId, ex.getMessage());
+            return savedBookings.stream()
+                    .map(booking -> BookingResult.builder()
+                            .success(false)
+                            .message("Booking is pending confirmation")
+                            .requestId(booking.getRequestId())
+                            .roomId(booking.getRoomId())
+                            .startDate(booking.getStartDate())
+                            .endDate(booking.getEndDate())
+                            .build())
+                    .toList();
+        }
+        Map<String, RoomReservationResultDto> resultsByRequestId = results == null ? Map.of() : Arrays.stream(results)
+                .collect(Collectors.toMap(RoomReservationResultDto::getRequestId, Function.identity()));
+        boolean confirmed = resultsByRequestId.size() == savedBookings.size()
+                && resultsByRequestId.values().stream().allMatch(result -> Boolean.TRUE.equals(result.getConfirmed()));
+
+        BookingStatus status = confirmed ? BookingStatus.CONFIRMED : BookingStatus.CANCELLED;
+        saveStatuses(confirmed ? savedBookings : List.of(), confirmed ? List.of() : savedBookings);
+        savedBookings.forEach(booking -> booking.setStatus(status));
+        if (confirmed) {
+            log.info("Batch of {} bookings confirmed", savedBookings.size());
+            return savedBookings.stream().map(bookingMapper::toBookingResultDto).toList();
+        }
+
+        log.warn("Batch of {} bookings cancelled: not all rooms available", savedBookings.size());
+        return savedBookings.stream()
+                .map(booking -> BookingResult.builder()
+                        .success(false)
+                        .message(ofNullable(resultsByRequestId.get(booking.getRequestId().toString()))
+                                .map(RoomReservationResultDto::getMessage)
+                                .orElse("Room is not available"))
+                        .requestId(booking.getRequestId())
+                        .roomId(booking.getRoomId())
+                        .startDate(booking.getStartDate())
+                        .endDate(booking.getEndDate())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Сохраняет бронирование в статусе PENDING без обращения к hotel-service. Номер для autoSelect
+     * подбирается позже, в {@link #confirmPending(List)}.
+     */
+    public Booking createPending(BookingPayload payload) {
+        log.info("Accepting booking for roomId: {}", payload.getRoomId());
+        validateDates(payload);
+        LocalDate startDate = ofNullable(payload.getStartDate())
+                .orElseThrow(() -> new IllegalArgumentException("StartDate is required"));
+        LocalDate endDate = ofNullable(payload.getEndDate())
+                .orElseThrow(() -> new IllegalArgumentException("EndDate is required"));
+        boolean autoSelect = Boolean.TRUE.equals(payload.getAutoSelect());
+        if (!autoSelect && payload.getRoomId() == null) {
+            throw new IllegalArgumentException("RoomId is required");
+        }
+
+        Booking savedBooking = saveWithConfirmEvent(
+                newBooking(currentUser(), autoSelect ? null : payload.getRoomId(), startDate, endDate));
+        requestIdBloomFilter.add(savedBooking.getRequestId());
+        log.info("Booking accepted in PENDING status: {}", savedBooking.getRequestId());
+        return savedBooking;
+    }
+
+    /**
+     * Подтверждает PENDING-бронирования пакетными вызовами hotel-service. Пакет в hotel-service
+     * подтверждается целиком, поэтому одиночные бронирования, отклонённые только из-за соседей по пакету,
+     * отправляются повторно без них. Бронирования из POST /booking/batch так не делятся: пакет догружается
+     * целиком и подтверждается или отменяется только вместе. Если hotel-service уже знает requestId
+     * (повтор после потерянного ответа), итог берётся из состояния его бронирования.
+     */
+    public void confirmPending(List<UUID> requestIds) {
+        List<Booking> bookings = bookingRepository.findAllByRequestIdInAndStatus(requestIds, BookingStatus.PENDING);
+        if (bookings.isEmpty()) {
+            return;
+        }
+        log.info("Confirming {} pending bookings", bookings.size());
+        List<Booking> confirmed = new ArrayList<>();
+        List<Booking> cancelled = new ArrayList<>();
+        List<Booking> released = new ArrayList<>();
+        Set<UUID> batchIds = bookings.stream()
+                .map(Booking::getBatchId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (!batchIds.isEmpty()) {
+            bookingRepository.findAllByBatchIdIn(batchIds).stream()
+                    .collect(Collectors.groupingBy(Booking::getBatchId))
+                    .forEach((batchId, batch) -> confirmWholeBatch(batchId, batch, confirmed, cancelled, released));
+        }
+        List<Booking> remaining = assignRooms(bookings.stream()
+                .filter(booking -> booking.getBatchId() == null)
+                .toList(), cancelled);
+        while (!remaining.isEmpty()) {
+            Map<String, RoomReservationResultDto> results = confirmBatch(remaining);
+            List<Booking> retry = new ArrayList<>();
+            List<Booking> duplicates = new ArrayList<>();
+            for (Booking booking : remaining) {
+                RoomReservationResultDto result = results.get(booking.getRequestId().toString());
+                if (result != null && Boolean.TRUE.equals(result.getConfirmed())) {
+                    confirmed.add(booking);
+                } else if (result != null && BATCH_REJECTED.equals(result.getMessage())) {
+                    retry.add(booking);
+                } else if (result != null && DUPLICATE_REQUEST_ID.equals(result.getMessage())) {
+                    duplicates.add(booking);
+                } else {
+                    cancelled.add(booking);
+                }
+            }
+            retry.addAll(settleByHotelState(duplicates, confirmed, cancelled));
+            if (!retry.isEmpty() && retry.size() == remaining.size()) {
+                // пакет отклонён без указания виновных, подтверждаем по одному
+                retry.forEach(booking -> (confirmSingle(booking) ? confirmed : cancelled).add(booking));
+                retry.clear();
+            }
+            remaining = retry;
+        }
+
+        saveStatuses(confirmed, cancelled, released);
+        log.info("Pending bookings processed: {} confirmed, {} cancelled", confirmed.size(), cancelled.size());
+    }
+
+    /**
+     * Подтверждает пакет из POST /booking/batch целиком. Если какое-то бронирование пакета уже не в PENDING
+     * (например, отменено пользователем) или hotel-service подтвердил не все, отменяются все, а их номера
+     * освобождаются событием RELEASE.
+     */
+    private void confirmWholeBatch(UUID batchId, List<Booking> batch, List<Booking> confirmed,
+                                   List<Booking> cancelled, List<Booking> released) {
+        List<Booking> pending = batch.stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.PENDING)
+                .toList();
+        if (pending.isEmpty()) {
+            return;
+        }
+        boolean allConfirmed = false;
+        if (pending.size() == batch.size()) {
+            Map<UUID, HotelReservationDto> known =
+                    findHotelReservations(pending.stream().map(Booking::getRequestId).toList());
+            if (known.isEmpty()) {
+                Map<String, RoomReservationResultDto> results = confirmBatch(pending);
+                allConfirmed = pending.stream()
+                        .map(booking -> results.get(booking.getRequestId().toString()))
+                        .allMatch(result -> result != null && Boolean.TRUE.equals(result.getConfirmed()));
+            } else {
+                // повтор после потерянного ответа: hotel-service уже принял решение по пакету
+                allConfirmed = known.size() == pending.size()
+                        && known.values().stream().allMatch(HotelReservationDto::isConfirmed);
+            }
+        }
+        if (allConfirmed) {
+            confirmed.addAll(pending);
+        } else {
+            log.warn("Batch {} cancelled: not all of its {} bookings could be confirmed", batchId, batch.size());
+            cancelled.addAll(pending);
+            released.addAll(pending);
+        }
+    }
+
+    /**
+     * Завершает PENDING-бронирования по состоянию hotel-service: найденные там получают итоговый статус
+     * без повторного подтверждения, остальные подтверждаются через {@link #confirmPending(List)}.
+     */
+    public void reconcilePending(List<UUID> requestIds) {
+        List<Booking> bookings = bookingRepository.findAllByRequestIdInAndStatus(requestIds, BookingStatus.PENDING);
+        if (bookings.isEmpty()) {
+            return;
+        }
+        List<Booking> confirmed = new ArrayList<>();
+        List<Booking> cancelled = new ArrayList<>();
+        List<Booking> unknown = settleByHotelState(bookings, confirmed, cancelled);
+        saveStatuses(confirmed, cancelled);
+        log.info("Reconciled {} pending bookings: {} confirmed, {} cancelled, {} to confirm",
+                bookings.size(), confirmed.size(), cancelled.size(), unknown.size());
+        if (!unknown.isEmpty()) {
+            confirmPending(unknown.stream().map(Booking::getRequestId).toList());
+        }
+    }
+
+    /**
+     * Освобождает в hotel-service номера отменённых бронирований, которые там всё ещё подтверждены.
+     * Возвращает число освобождённых номеров.
+     */
+    public int releaseCancelled(List<UUID> requestIds) {
+        int released = 0;
+        for (HotelReservationDto reservation : findHotelReservations(requestIds).values()) {
+            if (reservation.isConfirmed()) {
+                releaseRoom(reservation.getRoomId(), reservation.getRequestId());
+                released++;
+            }
+        }
+        if (released > 0) {
+            log.info("Released {} rooms of cancelled bookings", released);
+        }
+        return released;
+    }
+
+    /**
+     * Состояние бронирований в hotel-service по requestId. Неизвестные hotel-service requestId в результат
+     * не попадают.
+     */
+    public Map<UUID, HotelReservationDto> findHotelReservations(List<UUID> requestIds) {
+        Map<UUID, HotelReservationDto> reservations = new HashMap<>();
+        for (int from = 0; from < requestIds.size(); from += MAX_BATCH_SIZE) {
+            HotelReservationDto[] chunk = restTemplate.postForObject(
+                    "http://hotel-service/rooms/reservations/status",
+                    requestIds.subList(from, Math.min(from + MAX_BATCH_SIZE, requestIds.size())),
+                    HotelReservationDto[].class
+            );
+            if (chunk != null) {
+                Arrays.stream(chunk).forEach(reservation -> reservations.put(reservation.getRequestId(), reservation));
+            }
+        }
+        return reservations;
+    }
+
+    private List<Booking> settleByHotelState(List<Booking> bookings, List<Booking> confirmed, List<Booking> cancelled) {
+        if (bookings.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, HotelReservationDto> reservations =
+                findHotelReservations(bookings.stream().map(Booking::getRequestId).toList());
+        List<Booking> unknown = new ArrayList<>();
+        for (Booking booking : bookings) {
+            HotelReservationDto reservation = reservations.get(booking.getRequestId());
+            if (reservation == null) {
+                unknown.add(booking);
+            } else if (reservation.isConfirmed()) {
+                confirmed.add(booking);
+            } else {
+                cancelled.add(booking);
+            }
+        }
+        return unknown;
+    }
+
+    /**
+     * Фиксирует итог подтверждения только для бронирований, которые всё ещё в PENDING. Если пользователь отменил
+     * бронирование, пока hotel-service его подтверждал, отмена остаётся в силе, а подтверждённый номер
+     * освобождается событием RELEASE в outbox.
+     */
+    private void saveStatuses(List<Booking> confirmed, List<Booking> cancelled) {
+        saveStatuses(confirmed, cancelled, List.of());
+    }
 
-        UUID roomId = retrieveRoomId(payload);
+    private void saveStatuses(List<Booking> confirmed, List<Booking> cancelled, List<Booking> released) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!confirmed.isEmpty()) {
+                List<UUID> requestIds = confirmed.stream().map(Booking::getRequestId).toList();
+                int updated = bookingRepository.updateStatusByRequestIds(requestIds, BookingStatus.PENDING,
+                        BookingStatus.CONFIRMED);
+                if (updated < requestIds.size()) {
+                    List<Booking> cancelledMeanwhile =
+                            bookingRepository.findAllByRequestIdInAndStatus(requestIds, BookingStatus.CANCELLED);
+                    if (!cancelledMeanwhile.isEmpty()) {
+                        log.warn("{} bookings were cancelled during confirmation, releasing their rooms",
+                                cancelledMeanwhile.size());
+                        outbox.recordAll(OutboxEventType.RELEASE, cancelledMeanwhile);
+                    }
+                }
+            }
+            if (!cancelled.isEmpty()) {
+                bookingRepository.updateStatusByRequestIds(cancelled.stream().map(Booking::getRequestId).toList(),
+                        BookingStatus.PENDING, BookingStatus.CANCELLED);
+            }
+            if (!released.isEmpty()) {
+                outbox.recordAll(OutboxEventType.RELEASE, released);
+            }
+            outbox.complete(OutboxEventType.CONFIRM, Stream.concat(confirmed.stream(), cancelled.stream())
+                    .map(Booking::getRequestId)
+                    .toList());
+        });
+    }
+
+    private void releaseRoom(UUID roomId, UUID requestId) {
+        restTemplate.postForObject(
+                "http://hotel-service/rooms/{id}/release/{requestId}",
+                null,
+                Void.class,
+                roomId,
+                requestId
+        );
+    }
+
+    private List<Booking> assignRooms(List<Booking> bookings, List<Booking> cancelled) {
+        Set<UUID> selectedRoomIds = bookings.stream()
+                .map(Booking::getRoomId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(HashSet::new));
+        Iterator<UUID> freeRoomIds = selectFreeRooms(bookings.stream()
+                .filter(booking -> booking.getRoomId() == null)
+                .map(booking -> new Stay(booking.getStartDate(), booking.getEndDate()))
+                .toList(), selectedRoomIds).iterator();
+        List<Booking> withRoom = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            if (booking.getRoomId() == null) {
+                UUID roomId = freeRoomIds.next();
+                if (roomId == null) {
+                    log.warn("No rooms available for pending booking {}", booking.getRequestId());
+                    cancelled.add(booking);
+                    continue;
+                }
+                // меняется только roomId и только пока бронирование в PENDING, чтобы не затереть отмену
+                if (bookingRepository.updateRoomIdByRequestId(booking.getRequestId(), roomId,
+                        BookingStatus.PENDING) == 0) {
+                    log.info("Pending booking {} was cancelled before confirmation", booking.getRequestId());
+                    continue;
+                }
+                booking.setRoomId(roomId);
+            }
+            withRoom.add(booking);
+        }
+        return withRoom;
+    }
+
+    /**
+     * Подбирает номера для autoSelect одним запросом /rooms/search на каждую пару дат. Номера из excludedRoomIds
+     * не выбираются, выбранные добавляются туда же. Возвращает номер для каждого периода в исходном порядке
+     * или null, если свободного номера не нашлось.
+     */
+    private List<UUID> selectFreeRooms(List<Stay> stays, Set<UUID> excludedRoomIds) {
+        Map<Stay, List<Integer>> positions = new LinkedHashMap<>();
+        for (int i = 0; i < stays.size(); i++) {
+            positions.computeIfAbsent(stays.get(i), stay -> new ArrayList<>()).add(i);
+        }
+        List<UUID> selected = new ArrayList<>(Collections.nCopies(stays.size(), null));
+        positions.forEach((stay, indexes) -> {
+            Iterator<UUID> candidates = searchFreeRooms(stay.startDate(), stay.endDate(),
+                    indexes.size() + excludedRoomIds.size()).stream()
+                    .map(RoomDto::getId)
+                    .filter(id -> !excludedRoomIds.contains(id))
+                    .toList()
+                    .iterator();
+            for (int index : indexes) {
+                if (!candidates.hasNext()) {
+                    break;
+                }
+                UUID roomId = candidates.next();
+                excludedRoomIds.add(roomId);
+                selected.set(index, roomId);
+            }
+        });
+        return selected;
+    }
+
+    private Map<String, RoomReservationResultDto> confirmBatch(List<Booking> bookings) {
+        RoomReservationResultDto[] results = restTemplate.postForObject(
+                "http://hotel-service/rooms/confirm-availability",
+                bookings.stream().map(bookingMapper::toRoomReservationDto).toList(),
+                RoomReservationResultDto[].class
+        );
+        return results == null ? Map.of() : Arrays.stream(results)
+                .collect(Collectors.toMap(RoomReservationResultDto::getRequestId, Function.identity()));
+    }
+
+    private boolean confirmSingle(Booking booking) {
+        return Boolean.TRUE.equals(restTemplate.postForObject(
+                "http://hotel-service/rooms/{id}/confirm-availability",
+                bookingMapper.toRoomReservationDto(booking),
+                Boolean.class,
+                booking.getRoomId()
+        ));
+    }
+
+    private Booking createBooking(BookingPayload payload) {
+        User user = currentUser();
 
         LocalDate startDate = ofNullable(payload.getStartDate())
                 .orElseThrow(() -> new IllegalArgumentException("StartDate is required"));
         LocalDate endDate = ofNullable(payload.getEndDate())
                 .orElseThrow(() -> new IllegalArgumentException("EndDate is required"));
 
-        UUID requestId = UUID.randomUUID();
+        UUID roomId = retrieveRoomId(payload, startDate, endDate);
+
+        Booking savedBooking = saveWithConfirmEvent(newBooking(user, roomId, startDate, endDate));
+        requestIdBloomFilter.add(savedBooking.getRequestId());
+        log.info("Booking created in PENDING status: {}", savedBooking.getRequestId());
+        return savedBooking;
+    }
 
+    private Booking saveWithConfirmEvent(Booking booking) {
+        return transactionTemplate.execute(status -> {
+            Booking saved = bookingRepository.save(booking);
+            outbox.record(OutboxEventType.CONFIRM, saved);
+            return saved;
+        });
+    }
+
+    private Optional<Booking> findBooking(UUID requestId) {
+        boolean mightContain = requestIdBloomFilter.mightContain(requestId);
+        // фильтр знает только бронирования этого экземпляра, поэтому отрицательный ответ тоже проверяется в БД
+        Optional<Booking> booking = bookingRepository.findByRequestId(requestId);
+        if (booking.isPresent() && !mightContain) {
+            requestIdBloomFilter.add(requestId);
+        } else if (booking.isEmpty() && mightContain) {
+            requestIdBloomFilter.recordFalsePositives(1);
+        }
+        return booking;
+    }
+
+    private User currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication.getPrincipal() instanceof AuthUser authUser) {
+            // пользователь уже загружен фильтром, для бронирования достаточно ссылки по id
+            return userRepository.getReferenceById(authUser.getUser().getId());
+        }
+        String username = authentication.getName();
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> {
+                    log.error("User not found: {}", username);
+                    return new EntityNotFoundException("User not found with username " + username);
+                });
+    }
+
+    private record Stay(LocalDate startDate, LocalDate endDate) {
+    }
+
+    private static Booking newBooking(User user, UUID roomId, LocalDate startDate, LocalDate endDate) {
         Booking booking = new Booking();
-        booking.setRequestId(requestId);
+        booking.setRequestId(UUID.randomUUID());
         booking.setRoomId(roomId);
         booking.setUser(user);
         booking.setStartDate(startDate);
         booking.setEndDate(endDate);
         booking.setStatus(BookingStatus.PENDING);
         booking.setCreatedAt(LocalDateTime.now());
-        
-        Booking savedBooking = bookingRepository.save(booking);
-        log.info("Booking created in PENDING status: {}", requestId);
-        return savedBooking;
+        return booking;
     }
 
-    private UUID retrieveRoomId(BookingPayload payload) {
+    private UUID retrieveRoomId(BookingPayload payload, LocalDate startDate, LocalDate endDate) {
         UUID roomId;
-        if (payload.getAutoSelect()) {
-            log.info("Auto-selecting room");
-            List<RoomDto> offers = getOffers();
-            if (offers.isEmpty()) {
-                log.error("No rooms available for auto-selection");
-                throw new EntityNotFoundException("No rooms available");
-            }
-            roomId = offers.get(0).getId();
+        if (Boolean.TRUE.equals(payload.getAutoSelect())) {
+            log.info("Auto-selecting room free from {} to {}", startDate, endDate);
+            roomId = searchFreeRooms(startDate, endDate, 1).stream()
+                    .map(RoomDto::getId)
+                    .findFirst()
+                    .orElseThrow(() -> {
+                        log.error("No rooms available for auto-selection");
+                        return new EntityNotFoundException("No rooms available");
+                    });
             log.info("Auto-selected roomId: {}", roomId);
         } else {
             roomId = ofNullable(payload.getRoomId())
@@ -178,15 +715,24 @@ public class BookingService {
         return roomId;
     }
 
-    public List<RoomDto> getOffers() {
-        log.info("Fetching room recommendations from hotel-service");
-        RoomDto[] rooms = restTemplate.getForObject("http://hotel-service/rooms/recommend", RoomDto[].class);
+    private List<RoomDto> searchFreeRooms(LocalDate startDate, LocalDate endDate, int limit) {
+        RoomDto[] rooms = restTemplate.getForObject(
+                "http://hotel-service/rooms/search?start={start}&end={end}&limit={limit}",
+                RoomDto[].class,
+                startDate,
+                endDate,
+                limit
+        );
         return rooms != null ? Arrays.asList(rooms) : List.of();
     }
 
+    public List<RoomDto> getOffers() {
+        return offersCache.get();
+    }
+
     public BookingDto findByRequestId(UUID requestId) {
         log.info("Finding booking by requestId: {}", requestId);
-        return bookingRepository.findByRequestId(requestId)
+        return findBooking(requestId)
                 .map(bookingMapper::toDto)
                 .orElseThrow(() -> {
                     log.error("Booking not found with requestId: {}", requestId);
@@ -10,6 +10,9 @@ import ru.klimov.entity.Role;
 import ru.klimov.entity.User;
 import ru.klimov.mapper.UserMapper;
 import ru.klimov.repository.UserRepository;
+import ru.klimov.security.PrincipalCache;
+import ru.klimov.security.RefreshTokenStore;
+import ru.klimov.security.TokenRevocations;
 
 import java.util.Optional;
 
@@ -22,6 +25,9 @@ public class UserService {
     private final UserMapper userMapper;
     private final AuthService authService;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
+    private final RefreshTokenStore refreshTokenStore;
+    private final TokenRevocations tokenRevocations;
 
     public UserResponseDto register(UserPayload payload) {
         log.info("Registering user via UserService: {}", payload.getUsername());
@@ -30,7 +36,12 @@ public class UserService {
 
     public void deleteUser(java.util.UUID id) {
         log.info("Deleting user with id: {}", id);
+        Optional<User> user = userRepository.findById(id);
         userRepository.deleteById(id);
+        principalCache.evict(id);
+        refreshTokenStore.revokeAll(id);
+        // выданные токены удалённого пользователя отклоняются по списку отзыва, а не запросом в БД
+        user.ifPresent(deleted -> tokenRevocations.revokeSubject(deleted.getUsername()));
         log.info("User with id {} successfully deleted", id);
     }
 
@@ -38,7 +49,8 @@ public class UserService {
         log.info("Updating user: {}", payload.getUsername());
         return userRepository.findByUsername(payload.getUsername())
                 .map(user -> {
-                    if (payload.getPassword() != null) {
+                    boolean passwordChanged = payload.getPassword() != null;
+                    if (passwordChanged) {
                         log.debug("Updating password for user {}", payload.getUsername());
                         String encodedPassword = passwordEncoder.encode(payload.getPassword());
                         user.setPassword(encodedPassword);
@@ -48,6 +60,15 @@ public class UserService {
                         user.setRole(Role.valueOf(payload.getRole().toUpperCase()));
                     }
                     User savedUser = userRepository.save(user);
+                    principalCache.evict(savedUser.getUsername());
+                    // отзыв только после сохранения: неудачное обновление не должно разлогинивать пользователя
+                    if (passwordChanged) {
+                        refreshTokenStore.revokeAll(savedUser.getId());
+                    }
+                    if (passwordChanged || payload.getRole() != null) {
+                        // роль зашита в токен, hotel-service проверяет её без обращения к БД
+                        tokenRevocations.revokeSubject(savedUser.getUsername());
+                    }
                     log.info("User {} successfully updated", payload.getUsername());
                     return userMapper.userToUserResponseDto(savedUser);
                 }).orElseThrow(() -> {
@@ -0,0 +1,130 @@
+package ru.klimov.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import ru.klimov.dto.RoomDto;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OffersCacheTest {
+
+    private static final String URL = "http://hotel-service/rooms/recommend";
+
+    private final AtomicLong ticker = new AtomicLong();
+    private final Queue<Runnable> refreshes = new ArrayDeque<>();
+    private RestTemplate restTemplate;
+    private OffersCache offersCache;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = mock(RestTemplate.class);
+        // время и запуск фоновых обновлений управляются тестом
+        offersCache = new OffersCache(restTemplate, new SimpleMeterRegistry(), Duration.ofSeconds(60),
+                Duration.ofSeconds(30), ticker::get, refreshes::add);
+    }
+
+    @Test
+    void get_ConcurrentMisses_ShareSingleFetch() throws Exception {
+        // given
+        RoomDto room = room();
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(restTemplate.getForObject(URL, RoomDto[].class)).thenAnswer(inv -> {
+            fetching.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new RoomDto[]{room};
+        });
+
+        // when
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<List<RoomDto>>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(offersCache::get));
+        }
+        assertThat(fetching.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+
+        // then
+        for (Future<List<RoomDto>> future : futures) {
+            assertThat(future.get(5, TimeUnit.SECONDS)).containsExactly(room);
+        }
+        executor.shutdown();
+        verify(restTemplate, times(1)).getForObject(URL, RoomDto[].class);
+    }
+
+    @Test
+    void get_AfterRefreshInterval_RefreshesAheadOfExpiry() {
+        // given
+        RoomDto first = room();
+        RoomDto second = room();
+        when(restTemplate.getForObject(URL, RoomDto[].class))
+                .thenReturn(new RoomDto[]{first})
+                .thenReturn(new RoomDto[]{second});
+        offersCache.get();
+
+        // when
+        ticker.addAndGet(Duration.ofSeconds(31).toNanos());
+        List<RoomDto> duringRefresh = offersCache.get();
+        while (!refreshes.isEmpty()) {
+            refreshes.poll().run();
+        }
+        List<RoomDto> afterRefresh = offersCache.get();
+
+        // then
+        assertThat(duringRefresh).containsExactly(first);
+        assertThat(afterRefresh).containsExactly(second);
+        verify(restTemplate, times(2)).getForObject(URL, RoomDto[].class);
+    }
+
+    @Test
+    void get_HotelServiceUnavailableAfterExpiry_ReturnsLastSnapshot() {
+        // given
+        RoomDto room = room();
+        when(restTemplate.getForObject(URL, RoomDto[].class))
+                .thenReturn(new RoomDto[]{room})
+                .thenThrow(new ResourceAccessException("Circuit breaker for hotel-service is open"));
+        offersCache.get();
+        ticker.addAndGet(Duration.ofSeconds(61).toNanos());
+
+        // when
+        List<RoomDto> result = offersCache.get();
+
+        // then
+        assertThat(result).containsExactly(room);
+    }
+
+    @Test
+    void get_HotelServiceUnavailableWithoutSnapshot_Throws() {
+        // given
+        when(restTemplate.getForObject(URL, RoomDto[].class))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        // when / then
+        assertThatThrownBy(() -> offersCache.get()).isInstanceOf(ResourceAccessException.class);
+    }
+
+    private static RoomDto room() {
+        return RoomDto.builder().id(UUID.randomUUID()).build();
+    }
+}
@@ -0,0 +1,141 @@
+package ru.klimov.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import ru.klimov.resilience.HotelServiceResilienceInterceptor;
+import ru.klimov.security.JwtRestTemplateInterceptor;
+import ru.klimov.security.JwtUtil;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class ClientConfigTest {
+
+    private final ClientConfig clientConfig = new ClientConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private HttpServer server;
+    private CloseableHttpClient httpClient;
+    private RestTemplate restTemplate;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() {
+        server = startServer();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.setMaxPerRoute(2);
+        properties.setReadTimeout(Duration.ofSeconds(5));
+        properties.setEndpointReadTimeouts(Map.of("recommend", Duration.ofMillis(100)));
+        PoolingHttpClientConnectionManager connectionManager =
+                clientConfig.hotelServiceConnectionManager(properties, meterRegistry);
+        httpClient = clientConfig.hotelServiceHttpClient(connectionManager, properties);
+        restTemplate = clientConfig.restTemplate(new JwtRestTemplateInterceptor(mock(JwtUtil.class)),
+                new HotelServiceResilienceInterceptor(new ResilienceProperties(), meterRegistry), httpClient, properties);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void endpointOverride_AppliesOnlyToMatchingPath() {
+        // when & then
+        assertThatThrownBy(() -> restTemplate.getForObject(baseUrl + "/rooms/recommend", String.class))
+                .isInstanceOf(ResourceAccessException.class);
+        assertThat(restTemplate.getForObject(baseUrl + "/rooms/search", String.class)).isEqualTo("ok");
+    }
+
+    @Test
+    void pool_ReusesConnectionsAndPublishesMetrics() {
+        // when
+        for (int i = 0; i < 5; i++) {
+            restTemplate.getForObject(baseUrl + "/rooms/fast", String.class);
+        }
+
+        // then
+        assertThat(meterRegistry.get("http.client.pool.wait").tag("pool", "hotel-service").timer().count()).isEqualTo(5);
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+                .tag("state", "available").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+                .tag("state", "leased").gauge().value()).isZero();
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.pending").gauge().value()).isZero();
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.route.max.default").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void endpointTimeouts_ResolvesBySegment() {
+        // given
+        RequestConfig defaults = RequestConfig.custom().setResponseTimeout(Timeout.ofSeconds(5)).build();
+        EndpointTimeouts timeouts = new EndpointTimeouts(defaults, Map.of(
+                "confirm-availability", Duration.ofSeconds(4),
+                "release", Duration.ofSeconds(3)));
+
+        // when & then
+        assertThat(timeouts.resolve(URI.create("http://h/rooms/1/confirm-availability")).getResponseTimeout())
+                .isEqualTo(Timeout.ofSeconds(4));
+        assertThat(timeouts.resolve(URI.create("http://h/rooms/confirm-availability")).getResponseTimeout())
+                .isEqualTo(Timeout.ofSeconds(4));
+        assertThat(timeouts.resolve(URI.create("http://h/rooms/1/release/2")).getResponseTimeout())
+                .isEqualTo(Timeout.ofSeconds(3));
+        assertThat(timeouts.resolve(URI.create("http://h/rooms/search?start=2026-01-01"))).isNull();
+    }
+
+    private static HttpServer startServer() {
+        try {
+            HttpServer httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            httpServer.createContext("/rooms/recommend", exchange -> {
+                sleep(500);
+                respond(exchange);
+            });
+            httpServer.createContext("/rooms/search", exchange -> {
+                sleep(200);
+                respond(exchange);
+            });
+            httpServer.createContext("/rooms/fast", exchange -> respond(exchange));
+            httpServer.start();
+            return httpServer;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void respond(HttpExchange exchange) throws IOException {
+        byte[] response = "ok".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(response);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
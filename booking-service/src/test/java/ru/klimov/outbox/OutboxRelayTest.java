@@ -0,0 +1,99 @@
+package ru.klimov.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.ResourceAccessException;
+import ru.klimov.entity.OutboxEvent;
+import ru.klimov.entity.OutboxEventType;
+import ru.klimov.repository.OutboxEventRepository;
+import ru.klimov.service.BookingService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private BookingService bookingService;
+
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        outboxRelay = new OutboxRelay(outboxEventRepository, bookingService, new SimpleMeterRegistry(),
+                100, 10, Duration.ofSeconds(5), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void relayBatch_DeliversEventsByTypeAndDeletesThem() {
+        // given
+        OutboxEvent confirm = event(OutboxEventType.CONFIRM, 0);
+        OutboxEvent release = event(OutboxEventType.RELEASE, 0);
+        when(outboxEventRepository.findDue(any(), any())).thenReturn(List.of(confirm, release));
+
+        // when
+        int relayed = outboxRelay.relayBatch(NOW);
+
+        // then
+        assertThat(relayed).isEqualTo(2);
+        verify(bookingService).reconcilePending(List.of(confirm.getRequestId()));
+        verify(bookingService).releaseCancelled(List.of(release.getRequestId()));
+        verify(outboxEventRepository).deleteAllInBatch(List.of(confirm));
+        verify(outboxEventRepository).deleteAllInBatch(List.of(release));
+    }
+
+    @Test
+    void relayBatch_HotelUnavailable_ReschedulesWithBackoff() {
+        // given
+        OutboxEvent event = event(OutboxEventType.CONFIRM, 2);
+        when(outboxEventRepository.findDue(any(), any())).thenReturn(List.of(event));
+        doThrow(new ResourceAccessException("Connection refused")).when(bookingService).reconcilePending(anyList());
+
+        // when
+        outboxRelay.relayBatch(NOW);
+
+        // then
+        assertThat(event.getAttempts()).isEqualTo(3);
+        assertThat(event.getNextAttemptAt()).isEqualTo(NOW.plusSeconds(20));
+        assertThat(event.getLastError()).isEqualTo("Connection refused");
+        verify(outboxEventRepository).saveAll(List.of(event));
+        verify(outboxEventRepository, never()).deleteAllInBatch(anyList());
+    }
+
+    @Test
+    void delay_GrowsExponentiallyUpToMaxBackoff() {
+        assertThat(outboxRelay.delay(1)).isEqualTo(Duration.ofSeconds(5));
+        assertThat(outboxRelay.delay(4)).isEqualTo(Duration.ofSeconds(40));
+        assertThat(outboxRelay.delay(50)).isEqualTo(Duration.ofMinutes(1));
+    }
+
+    private static OutboxEvent event(OutboxEventType type, int attempts) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(UUID.randomUUID());
+        event.setRequestId(UUID.randomUUID());
+        event.setType(type);
+        event.setAttempts(attempts);
+        event.setNextAttemptAt(NOW);
+        return event;
+    }
+}
@@ -0,0 +1,66 @@
+package ru.klimov.reconciliation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.klimov.entity.BookingStatus;
+import ru.klimov.repository.BookingRepository;
+import ru.klimov.service.BookingService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingReconcilerTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BookingService bookingService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BookingReconciler bookingReconciler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bookingReconciler = new BookingReconciler(bookingRepository, bookingService, meterRegistry,
+                2, Duration.ofMinutes(10), Duration.ofDays(2));
+    }
+
+    @Test
+    void reconcile_WalksPagesOfPendingAndCancelledBookings() {
+        // given
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        UUID cancelled = UUID.randomUUID();
+        when(bookingRepository.findUnsyncedRequestIds(eq(BookingStatus.PENDING), any(), any(), any()))
+                .thenReturn(List.of(first, second));
+        when(bookingRepository.findUnsyncedRequestIdsAfter(eq(BookingStatus.PENDING), any(), any(), eq(second), any()))
+                .thenReturn(List.of(third));
+        when(bookingRepository.findUnsyncedRequestIds(eq(BookingStatus.CANCELLED), any(), any(), any()))
+                .thenReturn(List.of(cancelled));
+        when(bookingService.releaseCancelled(List.of(cancelled))).thenReturn(1);
+
+        // when
+        bookingReconciler.reconcile();
+
+        // then
+        verify(bookingService).reconcilePending(List.of(first, second));
+        verify(bookingService).reconcilePending(List.of(third));
+        assertThat(meterRegistry.counter("booking.reconciliation.checked", "status", "PENDING").count()).isEqualTo(3);
+        assertThat(meterRegistry.counter("booking.reconciliation.released").count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,102 @@
+package ru.klimov.resilience;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.klimov.config.ResilienceProperties.CircuitBreakerProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<String> transitions = new ArrayList<>();
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        CircuitBreakerProperties properties = new CircuitBreakerProperties();
+        properties.setSlidingWindowSize(10);
+        properties.setMinimumCalls(4);
+        properties.setFailureRateThreshold(50);
+        properties.setSlowCallRateThreshold(75);
+        properties.setSlowCallDuration(Duration.ofMillis(100));
+        properties.setOpenDuration(Duration.ofSeconds(10));
+        properties.setHalfOpenCalls(2);
+        circuitBreaker = new CircuitBreaker(properties, clock::get, (from, to) -> transitions.add(from + "->" + to));
+    }
+
+    @Test
+    void opensWhenFailureRateReachesThreshold() {
+        // given
+        call(false, 1);
+        call(false, 1);
+        call(true, 1);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        // when
+        call(true, 1);
+
+        // then
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    void opensWhenSlowCallRateReachesThreshold() {
+        // when
+        call(false, 200);
+        call(false, 200);
+        call(false, 1);
+        call(false, 200);
+
+        // then
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void closesAfterSuccessfulProbesInHalfOpenState() {
+        // given
+        for (int i = 0; i < 4; i++) {
+            call(true, 1);
+        }
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // when
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+        circuitBreaker.onResult(1, false);
+        circuitBreaker.onResult(1, false);
+
+        // then
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(transitions).containsExactly("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED");
+    }
+
+    @Test
+    void reopensWhenProbeFails() {
+        // given
+        for (int i = 0; i < 4; i++) {
+            call(true, 1);
+        }
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // when
+        call(true, 1);
+        call(false, 1);
+
+        // then
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(transitions).containsExactly("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->OPEN");
+    }
+
+    private void call(boolean failed, long millis) {
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        circuitBreaker.onResult(Duration.ofMillis(millis).toNanos(), failed);
+    }
+}
@@ -0,0 +1,110 @@
+package ru.klimov.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import ru.klimov.config.ResilienceProperties;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HotelServiceResilienceInterceptorTest {
+
+    private static final Map<String, String> OPERATIONS = Map.of(
+            "/rooms/3f2a8a4e-1d0b-4c8e-9a57-0c6a2f7e5b11/confirm-availability", "confirm-availability",
+            "/rooms/confirm-availability", "confirm-availability",
+            "/rooms/3f2a8a4e-1d0b-4c8e-9a57-0c6a2f7e5b11/release/0b6f0c1e-8f7d-4a34-9c1e-2e9e6a1d7c55", "release",
+            "/rooms/recommend", "recommend",
+            "/rooms/reservations/status", "status");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void operation_ShouldSkipIdentifiers() {
+        OPERATIONS.forEach((path, operation) ->
+                assertThat(HotelServiceResilienceInterceptor.operation(URI.create("http://hotel-service" + path)))
+                        .isEqualTo(operation));
+    }
+
+    @Test
+    void intercept_BulkheadFull_ShouldRejectWithoutCallingHotelService() throws Exception {
+        // given
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.getBulkhead().getOperations().put("release", 1);
+        HotelServiceResilienceInterceptor interceptor = new HotelServiceResilienceInterceptor(properties, meterRegistry);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        ClientHttpRequestExecution blocking = (request, body) -> {
+            entered.countDown();
+            try {
+                proceed.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<ClientHttpResponse> first = executor.submit(() ->
+                interceptor.intercept(releaseRequest(), new byte[0], blocking));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // when / then
+        assertThatThrownBy(() -> interceptor.intercept(releaseRequest(), new byte[0], (request, body) -> {
+            throw new AssertionError("must not be called");
+        })).isInstanceOf(CallNotPermittedException.class);
+        ClientHttpResponse other = interceptor.intercept(request("/rooms/recommend"), new byte[0],
+                (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK));
+
+        proceed.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.OK);
+        executor.shutdown();
+        assertThat(other.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(meterRegistry.counter("hotel.client.calls.rejected", "operation", "release", "reason", "bulkhead")
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    void intercept_ServerErrors_ShouldOpenCircuitAndRejectFurtherCalls() throws Exception {
+        // given
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.getCircuitBreaker().setMinimumCalls(3);
+        HotelServiceResilienceInterceptor interceptor = new HotelServiceResilienceInterceptor(properties, meterRegistry);
+        ClientHttpRequestExecution failing = (request, body) ->
+                new MockClientHttpResponse(new byte[0], HttpStatus.SERVICE_UNAVAILABLE);
+        for (int i = 0; i < 3; i++) {
+            interceptor.intercept(request("/rooms/confirm-availability"), new byte[0], failing);
+        }
+
+        // when / then
+        assertThat(interceptor.getCircuitBreaker().getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> interceptor.intercept(request("/rooms/search"), new byte[0], failing))
+                .isInstanceOf(CallNotPermittedException.class);
+        assertThat(meterRegistry.counter("hotel.client.calls.rejected", "operation", "search",
+                "reason", "circuit-breaker").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("hotel.client.circuit.transitions", "from", "CLOSED", "to", "OPEN")
+                .count()).isEqualTo(1);
+        assertThat(meterRegistry.get("hotel.client.circuit.state").gauge().value()).isEqualTo(1);
+    }
+
+    private static MockClientHttpRequest releaseRequest() {
+        return request("/rooms/" + UUID.randomUUID() + "/release/" + UUID.randomUUID());
+    }
+
+    private static MockClientHttpRequest request(String path) {
+        return new MockClientHttpRequest(HttpMethod.POST, URI.create("http://hotel-service" + path));
+    }
+}
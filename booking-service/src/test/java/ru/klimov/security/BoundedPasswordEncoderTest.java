@@ -0,0 +1,95 @@
+package ru.klimov.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import ru.klimov.exception.PasswordHashingSaturatedException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.stop();
+    }
+
+    @Test
+    void encodeAndMatches_ShouldDelegateAndRecordMetrics() {
+        // given
+        encoder = new BoundedPasswordEncoder(new PlainEncoder(), meterRegistry, 1, 1, Duration.ofSeconds(1));
+
+        // when
+        String encoded = encoder.encode("secret");
+
+        // then
+        assertThat(encoded).isEqualTo("{plain}secret");
+        assertThat(encoder.matches("secret", encoded)).isTrue();
+        assertThat(meterRegistry.timer("auth.password.hash", "operation", "encode").count()).isEqualTo(1);
+        assertThat(meterRegistry.timer("auth.password.hash", "operation", "matches").count()).isEqualTo(1);
+        assertThat(meterRegistry.timer("auth.password.queue.wait").count()).isEqualTo(2);
+    }
+
+    @Test
+    void encode_QueueFull_ShouldRejectImmediately() throws Exception {
+        // given: один поток занят, единственное место в очереди тоже
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(), meterRegistry, 1, 1, Duration.ofSeconds(3));
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        while (meterRegistry.get("auth.password.queue").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // when & then
+        assertThatThrownBy(() -> encoder.encode("third"))
+                .isInstanceOf(PasswordHashingSaturatedException.class)
+                .satisfies(ex -> assertThat(((PasswordHashingSaturatedException) ex).getRetryAfter())
+                        .isEqualTo(Duration.ofSeconds(3)));
+        assertThat(meterRegistry.counter("auth.password.rejected").count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("{plain}first");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("{plain}second");
+    }
+
+    private static class PlainEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return "{plain}" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+
+    private class BlockingEncoder extends PlainEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return super.encode(rawPassword);
+        }
+    }
+}
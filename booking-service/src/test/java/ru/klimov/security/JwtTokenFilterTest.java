@@ -0,0 +1,83 @@
+package ru.klimov.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.DefaultClaims;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JwtTokenFilterTest {
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private TokenRevocations tokenRevocations;
+
+    @InjectMocks
+    private JwtTokenFilter jwtTokenFilter;
+
+    @BeforeEach
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_ServiceToken_ShouldGrantOnlyServiceAuthority() throws Exception {
+        // given
+        Claims claims = new DefaultClaims().setSubject("hotel-service");
+        claims.put("role", JwtUtil.SERVICE_ROLE);
+        when(jwtUtil.verify("service-token")).thenReturn(claims);
+
+        // when
+        jwtTokenFilter.doFilter(request("service-token"), new MockHttpServletResponse(), new MockFilterChain());
+
+        // then
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication.getPrincipal()).isEqualTo("hotel-service");
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly(JwtUtil.SERVICE_ROLE);
+        verifyNoInteractions(principalCache);
+    }
+
+    @Test
+    void doFilter_RevokedToken_ShouldNotAuthenticate() throws Exception {
+        // given
+        Claims claims = new DefaultClaims().setSubject("bob");
+        when(jwtUtil.verify("user-token")).thenReturn(claims);
+        when(tokenRevocations.isRevoked(claims)).thenReturn(true);
+
+        // when
+        jwtTokenFilter.doFilter(request("user-token"), new MockHttpServletResponse(), new MockFilterChain());
+
+        // then
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verifyNoInteractions(principalCache);
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/revocations");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        return request;
+    }
+}
@@ -0,0 +1,87 @@
+package ru.klimov.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.klimov.entity.Role;
+import ru.klimov.entity.User;
+import ru.klimov.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PrincipalCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private PrincipalCache principalCache;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername("testuser");
+        user.setPassword("encoded");
+        user.setRole(Role.USER);
+    }
+
+    @Test
+    void get_LoadsUserOnceAndKeepsOnlyIdUsernameAndRole() {
+        // given
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+
+        // when
+        AuthUser first = principalCache.get("testuser");
+        AuthUser second = principalCache.get("testuser");
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(first.getUser().getId()).isEqualTo(user.getId());
+        assertThat(first.getUsername()).isEqualTo("testuser");
+        assertThat(first.getAuthorities()).extracting(Object::toString).containsExactly("USER");
+        assertThat(first.getPassword()).isNull();
+        verify(userRepository, times(1)).findByUsername("testuser");
+    }
+
+    @Test
+    void get_UnknownUser_ReturnsNullAndIsNotCached() {
+        // given
+        when(userRepository.findByUsername("unknown")).thenReturn(Optional.empty());
+
+        // when
+        AuthUser first = principalCache.get("unknown");
+        AuthUser second = principalCache.get("unknown");
+
+        // then
+        assertThat(first).isNull();
+        assertThat(second).isNull();
+        verify(userRepository, times(2)).findByUsername("unknown");
+    }
+
+    @Test
+    void evict_ByUsernameAndById_ReloadsUser() {
+        // given
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        principalCache.get("testuser");
+
+        // when
+        principalCache.evict("testuser");
+        principalCache.get("testuser");
+        principalCache.evict(user.getId());
+        principalCache.get("testuser");
+
+        // then
+        verify(userRepository, times(3)).findByUsername("testuser");
+    }
+}
@@ -0,0 +1,124 @@
+package ru.klimov.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.klimov.entity.RefreshToken;
+import ru.klimov.exception.InvalidRefreshTokenException;
+import ru.klimov.repository.RefreshTokenRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenStoreTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshTokenStore refreshTokenStore;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenStore = new RefreshTokenStore(refreshTokenRepository, new SimpleMeterRegistry(), Duration.ofDays(1));
+    }
+
+    @Test
+    void consume_IssuedToken_ShouldReturnUserAndRejectReuse() {
+        // given
+        UUID userId = UUID.randomUUID();
+        String token = refreshTokenStore.issue(userId);
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        when(refreshTokenRepository.removeById(saved.getValue().getId())).thenReturn(1);
+
+        // when
+        UUID result = refreshTokenStore.consume(token);
+
+        // then
+        assertThat(result).isEqualTo(userId);
+        assertThat(saved.getValue().getTokenHash()).hasSize(43).isNotEqualTo(token.substring(token.indexOf('.') + 1));
+        verify(refreshTokenRepository).removeById(saved.getValue().getId());
+        assertThatThrownBy(() -> refreshTokenStore.consume(token))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+    }
+
+    @Test
+    void consume_TamperedOrMalformedToken_ShouldThrowException() {
+        // given
+        String token = refreshTokenStore.issue(UUID.randomUUID());
+        String tampered = token.substring(0, token.length() - 1) + (token.endsWith("A") ? "B" : "A");
+        when(refreshTokenRepository.removeById(any())).thenReturn(1);
+
+        // when & then
+        assertThatThrownBy(() -> refreshTokenStore.consume(tampered))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+        assertThatThrownBy(() -> refreshTokenStore.consume("not-a-token"))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+        assertThat(refreshTokenStore.consume(token)).isNotNull();
+    }
+
+    @Test
+    void load_ShouldIndexStoredTokens() {
+        // given
+        RefreshToken stored = storedToken();
+        when(refreshTokenRepository.findAllByExpiresAtAfter(any())).thenReturn(List.of(stored));
+        when(refreshTokenRepository.removeById(stored.getId())).thenReturn(1);
+
+        // when
+        refreshTokenStore.load();
+
+        // then
+        assertThat(refreshTokenStore.consume(stored.getId() + ".secret")).isEqualTo(stored.getUserId());
+    }
+
+    @Test
+    void consume_TokenIssuedByOtherInstance_ShouldBeFoundInDatabase() {
+        // given
+        RefreshToken stored = storedToken();
+        when(refreshTokenRepository.findById(stored.getId())).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.removeById(stored.getId())).thenReturn(1);
+
+        // when
+        UUID result = refreshTokenStore.consume(stored.getId() + ".secret");
+
+        // then
+        assertThat(result).isEqualTo(stored.getUserId());
+    }
+
+    @Test
+    void consume_TokenConsumedOnOtherInstance_ShouldThrowException() {
+        // given
+        RefreshToken stored = storedToken();
+        when(refreshTokenRepository.findAllByExpiresAtAfter(any())).thenReturn(List.of(stored));
+        when(refreshTokenRepository.removeById(stored.getId())).thenReturn(0);
+        refreshTokenStore.load();
+
+        // when & then
+        assertThatThrownBy(() -> refreshTokenStore.consume(stored.getId() + ".secret"))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+    }
+
+    private static RefreshToken storedToken() {
+        RefreshToken stored = new RefreshToken();
+        stored.setId(UUID.randomUUID());
+        stored.setUserId(UUID.randomUUID());
+        // SHA-256 строки "secret"
+        stored.setTokenHash("K7gNU3sdo-OL0wNhqoVWhr3g6s1xYv72ol_pe_Unols");
+        stored.setExpiresAt(LocalDateTime.now().plusDays(1));
+        return stored;
+    }
+}
@@ -0,0 +1,80 @@
+package ru.klimov.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevocationIndexTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+
+    @Test
+    void isRevoked_RevokedJti_ShouldRejectOnlyThatToken() {
+        // given
+        RevocationIndex index = new RevocationIndex();
+        UUID jti = UUID.randomUUID();
+        index.add(jti, NOW, NOW.plusSeconds(900));
+
+        // when & then
+        assertThat(index.isRevoked("bob", jti, NOW.minusSeconds(60))).isTrue();
+        assertThat(index.isRevoked("bob", UUID.randomUUID(), NOW.minusSeconds(60))).isFalse();
+    }
+
+    @Test
+    void isRevoked_RevokedSubject_ShouldRejectTokensIssuedBeforeRevocation() {
+        // given
+        RevocationIndex index = new RevocationIndex();
+        index.add(RevocationIndex.subjectKey("bob"), NOW, NOW.plusSeconds(900));
+
+        // when & then
+        assertThat(index.isRevoked("bob", UUID.randomUUID(), NOW.minusSeconds(60))).isTrue();
+        assertThat(index.isRevoked("bob", UUID.randomUUID(), NOW.minusSeconds(1))).isTrue();
+        assertThat(index.isRevoked("bob", UUID.randomUUID(), NOW.plusSeconds(1))).isFalse();
+        assertThat(index.isRevoked("alice", UUID.randomUUID(), NOW.minusSeconds(60))).isFalse();
+    }
+
+    @Test
+    void isRevoked_LoginInSameSecondAsSubjectRevocation_ShouldAcceptNewToken() {
+        // given
+        RevocationIndex index = new RevocationIndex();
+        // отзыв в миллисекундах, iat нового токена — та же секунда без дробной части
+        index.add(RevocationIndex.subjectKey("bob"), NOW.plusMillis(700), NOW.plusSeconds(900));
+
+        // when & then
+        assertThat(index.isRevoked("bob", UUID.randomUUID(), NOW)).isFalse();
+        assertThat(index.isRevoked("bob", UUID.randomUUID(), NOW.minusSeconds(1))).isTrue();
+    }
+
+    @Test
+    void isRevoked_RevokedJti_ShouldRejectTokenIssuedInSameSecond() {
+        // given
+        RevocationIndex index = new RevocationIndex();
+        UUID jti = UUID.randomUUID();
+        index.add(jti, NOW.plusMillis(300), NOW.plusSeconds(900));
+
+        // when & then
+        assertThat(index.isRevoked("bob", jti, NOW)).isTrue();
+    }
+
+    @Test
+    void purgeExpired_ShouldDropExpiredEntriesOnly() {
+        // given
+        RevocationIndex index = new RevocationIndex();
+        UUID expired = UUID.randomUUID();
+        UUID active = UUID.randomUUID();
+        index.add(expired, NOW.minusSeconds(900), NOW);
+        index.add(active, NOW, NOW.plusSeconds(900));
+
+        // when
+        int removed = index.purgeExpired(NOW);
+
+        // then
+        assertThat(removed).isEqualTo(1);
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.isRevoked("bob", expired, null)).isFalse();
+        assertThat(index.isRevoked("bob", active, null)).isTrue();
+    }
+}
@@ -0,0 +1,140 @@
+package ru.klimov.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.DefaultClaims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.klimov.dto.RevokedTokenDto;
+import ru.klimov.repository.RevokedTokenRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationsTest {
+
+    private static final Instant FIRST_SYNC = Instant.EPOCH.minus(Duration.ofMinutes(1));
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocations tokenRevocations;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocations = new TokenRevocations(revokedTokenRepository, new SimpleMeterRegistry(), 900_000,
+                Duration.ofMinutes(1));
+    }
+
+    @Test
+    void revokeToken_ShouldRejectTokenWithoutDatabaseLookup() {
+        // given
+        Claims claims = claims("bob", Instant.now().minusSeconds(60));
+        tokenRevocations.revokeToken(claims);
+        verify(revokedTokenRepository).save(any());
+
+        // when
+        boolean revoked = tokenRevocations.isRevoked(claims);
+
+        // then
+        assertThat(revoked).isTrue();
+        assertThat(tokenRevocations.isRevoked(claims("bob", Instant.now().minusSeconds(60)))).isFalse();
+    }
+
+    @Test
+    void revokeSubject_ShouldRejectOnlyTokensIssuedBefore() {
+        // given
+        Claims issuedBefore = claims("bob", Instant.now().minusSeconds(60));
+
+        // when
+        tokenRevocations.revokeSubject("bob");
+
+        // then
+        assertThat(tokenRevocations.isRevoked(issuedBefore)).isTrue();
+        assertThat(tokenRevocations.isRevoked(claims("bob", Instant.now().plusSeconds(1)))).isFalse();
+        assertThat(tokenRevocations.isRevoked(claims("alice", Instant.now().minusSeconds(60)))).isFalse();
+    }
+
+    @Test
+    void sync_ShouldLoadRevocationsWrittenByOtherInstances() {
+        // given
+        Claims claims = claims("bob", Instant.now().minusSeconds(60));
+        Instant revokedAt = Instant.now();
+        RevokedTokenDto row = new RevokedTokenDto(7L, UUID.fromString(claims.getId()), revokedAt,
+                revokedAt.plusSeconds(900));
+        when(revokedTokenRepository.findActiveAfter(eq(FIRST_SYNC), eq(0L), any(), any())).thenReturn(List.of(row));
+        when(revokedTokenRepository.findActiveAfter(eq(revokedAt.minusSeconds(60)), eq(0L), any(), any()))
+                .thenReturn(List.of(row));
+
+        // when
+        tokenRevocations.sync();
+        tokenRevocations.sync();
+
+        // then
+        assertThat(tokenRevocations.isRevoked(claims)).isTrue();
+        verify(revokedTokenRepository).findActiveAfter(eq(revokedAt.minusSeconds(60)), eq(0L), any(), any());
+    }
+
+    @Test
+    void sync_ShouldPickUpRowCommittedLateWithinOverlap() {
+        // given
+        Claims first = claims("bob", Instant.now().minusSeconds(60));
+        Claims late = claims("carol", Instant.now().minusSeconds(60));
+        Instant revokedAt = Instant.now();
+        RevokedTokenDto firstRow = new RevokedTokenDto(8L, UUID.fromString(first.getId()), revokedAt,
+                revokedAt.plusSeconds(900));
+        // id 7 получен раньше, но зафиксирован после строки с id 8
+        RevokedTokenDto lateRow = new RevokedTokenDto(7L, UUID.fromString(late.getId()), revokedAt.minusMillis(5),
+                revokedAt.plusSeconds(900));
+        when(revokedTokenRepository.findActiveAfter(eq(FIRST_SYNC), eq(0L), any(), any()))
+                .thenReturn(List.of(firstRow));
+        when(revokedTokenRepository.findActiveAfter(eq(revokedAt.minusSeconds(60)), eq(0L), any(), any()))
+                .thenReturn(List.of(lateRow, firstRow));
+        tokenRevocations.sync();
+        assertThat(tokenRevocations.isRevoked(late)).isFalse();
+
+        // when
+        tokenRevocations.sync();
+
+        // then
+        assertThat(tokenRevocations.isRevoked(first)).isTrue();
+        assertThat(tokenRevocations.isRevoked(late)).isTrue();
+    }
+
+    @Test
+    void revokeToken_WithoutJti_ShouldBeIgnored() {
+        // given
+        Claims claims = new DefaultClaims().setSubject("bob");
+
+        // when
+        tokenRevocations.revokeToken(claims);
+
+        // then
+        verifyNoInteractions(revokedTokenRepository);
+        assertThat(tokenRevocations.isRevoked(claims)).isFalse();
+    }
+
+    private static Claims claims(String subject, Instant issuedAt) {
+        Instant iat = issuedAt.truncatedTo(ChronoUnit.SECONDS);
+        return new DefaultClaims()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(subject)
+                .setIssuedAt(Date.from(iat))
+                .setExpiration(Date.from(iat.plusSeconds(900)));
+    }
+}
@@ -1,5 +1,7 @@
 package ru.klimov.service;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.DefaultClaims;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -7,17 +9,21 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import ru.klimov.controller.payload.RefreshTokenPayload;
 import ru.klimov.controller.payload.UserPayload;
 import ru.klimov.controller.payload.UserShortPayload;
 import ru.klimov.dto.TokenResponseDto;
 import ru.klimov.dto.UserResponseDto;
 import ru.klimov.entity.Role;
 import ru.klimov.entity.User;
+import ru.klimov.exception.InvalidRefreshTokenException;
 import ru.klimov.exception.RegistrationException;
 import ru.klimov.exception.UserNotFoundException;
 import ru.klimov.mapper.UserMapper;
 import ru.klimov.repository.UserRepository;
 import ru.klimov.security.JwtUtil;
+import ru.klimov.security.RefreshTokenStore;
+import ru.klimov.security.TokenRevocations;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -42,6 +48,12 @@ class AuthServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private RefreshTokenStore refreshTokenStore;
+
+    @Mock
+    private TokenRevocations tokenRevocations;
+
     @InjectMocks
     private AuthService authService;
 
@@ -107,12 +119,14 @@ class AuthServiceTest {
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
         when(passwordEncoder.matches("password", user.getPassword())).thenReturn(true);
         when(jwtUtil.generateTokenForUser(user)).thenReturn("mock-token");
+        when(refreshTokenStore.issue(user.getId())).thenReturn("mock-refresh-token");
 
         // when
         TokenResponseDto result = authService.login(loginPayload);
 
         // then
         assertThat(result.getToken()).isEqualTo("mock-token");
+        assertThat(result.getRefreshToken()).isEqualTo("mock-refresh-token");
         verify(userRepository).findByUsername("testuser");
         verify(passwordEncoder).matches("password", user.getPassword());
         verify(jwtUtil).generateTokenForUser(user);
@@ -148,4 +162,64 @@ class AuthServiceTest {
                 .isInstanceOf(UserNotFoundException.class)
                 .hasMessage("The user with the specified data was not found.");
     }
+
+    @Test
+    void refresh_ValidToken_ShouldIssueNewTokensWithoutPasswordCheck() {
+        // given
+        RefreshTokenPayload payload = new RefreshTokenPayload();
+        payload.setRefreshToken("old-refresh-token");
+        when(refreshTokenStore.consume("old-refresh-token")).thenReturn(user.getId());
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(jwtUtil.generateTokenForUser(user)).thenReturn("mock-token");
+        when(refreshTokenStore.issue(user.getId())).thenReturn("new-refresh-token");
+
+        // when
+        TokenResponseDto result = authService.refresh(payload);
+
+        // then
+        assertThat(result.getToken()).isEqualTo("mock-token");
+        assertThat(result.getRefreshToken()).isEqualTo("new-refresh-token");
+        verifyNoInteractions(passwordEncoder);
+    }
+
+    @Test
+    void refresh_DeletedUser_ShouldThrowException() {
+        // given
+        RefreshTokenPayload payload = new RefreshTokenPayload();
+        payload.setRefreshToken("old-refresh-token");
+        when(refreshTokenStore.consume("old-refresh-token")).thenReturn(user.getId());
+        when(userRepository.findById(user.getId())).thenReturn(Optional.empty());
+
+        // when & then
+        assertThatThrownBy(() -> authService.refresh(payload))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+        verify(refreshTokenStore, never()).issue(any());
+    }
+
+    @Test
+    void logout_ShouldRevokeAccessTokenAndConsumeRefreshToken() {
+        // given
+        Claims claims = new DefaultClaims().setSubject("testuser").setId(UUID.randomUUID().toString());
+        RefreshTokenPayload payload = new RefreshTokenPayload();
+        payload.setRefreshToken("refresh-token");
+        when(jwtUtil.verify("access-token")).thenReturn(claims);
+
+        // when
+        authService.logout("access-token", payload);
+
+        // then
+        verify(tokenRevocations).revokeToken(claims);
+        verify(refreshTokenStore).consume("refresh-token");
+    }
+
+    @Test
+    void logout_InvalidAccessToken_ShouldThrowException() {
+        // given
+        when(jwtUtil.verify("access-token")).thenReturn(null);
+
+        // when & then
+        assertThatThrownBy(() -> authService.logout("access-token", null))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+        verifyNoInteractions(tokenRevocations);
+    }
 }
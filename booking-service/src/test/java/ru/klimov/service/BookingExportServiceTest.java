@@ -0,0 +1,114 @@
+package ru.klimov.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.klimov.dto.BookingExportRow;
+import ru.klimov.entity.BookingStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingExportServiceTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TypedQuery<BookingExportRow> query;
+
+    private BookingExportService bookingExportService;
+    private BookingExportRow row;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        bookingExportService = new BookingExportService(entityManager, transactionManager, objectMapper, 2,
+                Duration.ofHours(1));
+        row = BookingExportRow.builder()
+                .id(UUID.fromString("00000000-0000-0000-0000-000000000001"))
+                .requestId(UUID.fromString("00000000-0000-0000-0000-000000000002"))
+                .username("smith, \"john\"")
+                .startDate(LocalDate.of(2026, 1, 1))
+                .endDate(LocalDate.of(2026, 1, 3))
+                .status(BookingStatus.CONFIRMED)
+                .createdAt(LocalDateTime.of(2025, 12, 1, 10, 0))
+                .build();
+    }
+
+    @Test
+    void export_Csv_ShouldWriteHeaderAndEscapedRows() {
+        // given
+        givenRows(row, row, row);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // when
+        bookingExportService.export(BookingExportFormat.CSV, output);
+
+        // then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).isEqualTo("id,requestId,username,roomId,startDate,endDate,status,createdAt");
+        assertThat(lines[1]).isEqualTo("00000000-0000-0000-0000-000000000001,00000000-0000-0000-0000-000000000002,"
+                + "\"smith, \"\"john\"\"\",,2026-01-01,2026-01-03,CONFIRMED,2025-12-01T10:00");
+        verify(query).setHint(HINT_FETCH_SIZE, 2);
+    }
+
+    @Test
+    void export_Ndjson_ShouldWriteOneObjectPerLine() {
+        // given
+        givenRows(row, row);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // when
+        bookingExportService.export(BookingExportFormat.NDJSON, output);
+
+        // then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2)
+                .allSatisfy(line -> assertThat(line)
+                        .startsWith("{\"id\":\"00000000-0000-0000-0000-000000000001\"")
+                        .contains("\"startDate\":\"2026-01-01\"", "\"status\":\"CONFIRMED\""));
+    }
+
+    @Test
+    void of_UnknownFormat_ShouldThrowIllegalArgumentException() {
+        // when & then
+        assertThatThrownBy(() -> BookingExportFormat.of("xml"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void givenRows(BookingExportRow... rows) {
+        when(entityManager.createQuery(anyString(), eq(BookingExportRow.class))).thenReturn(query);
+        when(query.setHint(anyString(), any())).thenReturn(query);
+        when(query.getResultStream()).thenReturn(Stream.of(rows));
+    }
+}
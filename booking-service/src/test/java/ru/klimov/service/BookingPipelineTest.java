@@ -0,0 +1,115 @@
+package ru.klimov.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.klimov.controller.payload.BookingPayload;
+import ru.klimov.dto.BookingResult;
+import ru.klimov.entity.Booking;
+import ru.klimov.exception.BookingPipelineSaturatedException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingPipelineTest {
+
+    @Mock
+    private BookingService bookingService;
+
+    private BookingPipeline bookingPipeline;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        bookingPipeline.stop();
+    }
+
+    @Test
+    void submit_ShouldReturnAcceptedAndConfirmInBackground() {
+        // given
+        bookingPipeline = newPipeline(2);
+        Booking booking = pendingBooking();
+        when(bookingService.createPending(any())).thenReturn(booking);
+        bookingPipeline.start();
+
+        // when
+        BookingResult result = bookingPipeline.submit(new BookingPayload());
+
+        // then
+        assertThat(result.getSuccess()).isTrue();
+        assertThat(result.getRequestId()).isEqualTo(booking.getRequestId());
+        verify(bookingService, timeout(5000)).confirmPending(List.of(booking.getRequestId()));
+    }
+
+    @Test
+    void submit_CapacityExhausted_ShouldRejectWithoutSaving() {
+        // given
+        bookingPipeline = newPipeline(1);
+        when(bookingService.createPending(any())).thenReturn(pendingBooking());
+        bookingPipeline.submit(new BookingPayload());
+
+        // when & then
+        assertThatThrownBy(() -> bookingPipeline.submit(new BookingPayload()))
+                .isInstanceOf(BookingPipelineSaturatedException.class)
+                .satisfies(ex -> assertThat(((BookingPipelineSaturatedException) ex).getRetryAfter())
+                        .isEqualTo(Duration.ofSeconds(2)));
+        verify(bookingService).createPending(any());
+    }
+
+    @Test
+    void worker_FailedBatch_ShouldReleaseCapacity() throws InterruptedException {
+        // given
+        bookingPipeline = newPipeline(1);
+        when(bookingService.createPending(any())).thenAnswer(inv -> pendingBooking());
+        CountDownLatch processed = new CountDownLatch(1);
+        doAnswer(inv -> {
+            processed.countDown();
+            throw new IllegalStateException("hotel-service is unavailable");
+        }).when(bookingService).confirmPending(anyList());
+        bookingPipeline.start();
+        bookingPipeline.submit(new BookingPayload());
+        assertThat(processed.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // when & then
+        verify(bookingService, timeout(5000).times(1)).confirmPending(anyList());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        BookingResult result = null;
+        while (result == null && System.nanoTime() < deadline) {
+            try {
+                result = bookingPipeline.submit(new BookingPayload());
+            } catch (BookingPipelineSaturatedException ex) {
+                Thread.sleep(10);
+            }
+        }
+        assertThat(result).isNotNull();
+    }
+
+    private BookingPipeline newPipeline(int capacity) {
+        return new BookingPipeline(bookingService, new SimpleMeterRegistry(), 1, capacity, 10, Duration.ofSeconds(2));
+    }
+
+    private static Booking pendingBooking() {
+        Booking booking = new Booking();
+        booking.setRequestId(UUID.randomUUID());
+        booking.setRoomId(UUID.randomUUID());
+        booking.setStartDate(LocalDate.now().plusDays(1));
+        booking.setEndDate(LocalDate.now().plusDays(2));
+        return booking;
+    }
+}
@@ -2,34 +2,51 @@ package ru.klimov.service;
 
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import ru.klimov.bloom.RequestIdBloomFilter;
+import ru.klimov.cache.OffersCache;
 import ru.klimov.controller.payload.BookingPayload;
 import ru.klimov.dto.BookingDto;
+import ru.klimov.dto.BookingPageDto;
 import ru.klimov.dto.BookingResult;
+import ru.klimov.dto.HotelReservationDto;
 import ru.klimov.dto.RoomDto;
 import ru.klimov.dto.RoomReservationDto;
+import ru.klimov.dto.RoomReservationResultDto;
 import ru.klimov.entity.Booking;
 import ru.klimov.entity.BookingStatus;
+import ru.klimov.entity.OutboxEventType;
 import ru.klimov.entity.Role;
 import ru.klimov.entity.User;
 import ru.klimov.mapper.BookingMapper;
+import ru.klimov.outbox.Outbox;
 import ru.klimov.repository.BookingRepository;
 import ru.klimov.repository.UserRepository;
+import ru.klimov.security.AuthUser;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -53,6 +70,18 @@ class BookingServiceTest {
     @Mock
     private BookingMapper bookingMapper;
 
+    @Mock
+    private RequestIdBloomFilter requestIdBloomFilter;
+
+    @Mock
+    private Outbox outbox;
+
+    @Mock
+    private OffersCache offersCache;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -87,6 +116,12 @@ class BookingServiceTest {
         booking.setEndDate(LocalDate.now().plusDays(5));
         booking.setStatus(BookingStatus.PENDING);
 
+        // по умолчанию все бронирования к моменту записи итога всё ещё в PENDING
+        lenient().when(bookingRepository.updateStatusByRequestIds(anyCollection(), eq(BookingStatus.PENDING), any()))
+                .thenAnswer(inv -> inv.<Collection<?>>getArgument(0).size());
+        lenient().when(bookingRepository.updateRoomIdByRequestId(any(), any(), eq(BookingStatus.PENDING)))
+                .thenReturn(1);
+
         bookingDto = BookingDto.builder()
                 .id(booking.getId())
                 .roomId(booking.getRoomId())
@@ -95,46 +130,72 @@ class BookingServiceTest {
     }
 
     @Test
-    void findAll_ShouldReturnListOfDtos() {
+    void findAll_FullPage_ShouldReturnNextCursor() {
         // given
-        when(bookingRepository.findAll()).thenReturn(Collections.singletonList(booking));
-        when(bookingMapper.toDto(booking)).thenReturn(bookingDto);
+        LocalDateTime createdAt = LocalDateTime.of(2026, 1, 1, 10, 15, 30);
+        BookingDto first = BookingDto.builder().id(UUID.randomUUID()).createdAt(createdAt.plusMinutes(1)).build();
+        BookingDto last = BookingDto.builder().id(UUID.randomUUID()).createdAt(createdAt).build();
+        when(bookingRepository.findBookingDtos(Limit.of(2))).thenReturn(List.of(first, last));
+
+        // when
+        BookingPageDto result = bookingService.findAll(null, 2);
+
+        // then
+        assertThat(result.getItems()).containsExactly(first, last);
+        assertThat(result.getNextCursor()).isEqualTo("2026-01-01T10:15:30_" + last.getId());
+    }
+
+    @Test
+    void findAll_WithCursor_ShouldContinueBeforeCursor() {
+        // given
+        UUID id = UUID.randomUUID();
+        LocalDateTime createdAt = LocalDateTime.of(2026, 1, 1, 10, 15, 30, 123_000_000);
+        when(bookingRepository.findBookingDtosBefore(createdAt, id, Limit.of(500))).thenReturn(List.of(bookingDto));
 
         // when
-        Iterable<BookingDto> result = bookingService.findAll();
+        BookingPageDto result = bookingService.findAll("2026-01-01T10:15:30.123_" + id, 1000);
 
         // then
-        assertThat(result).containsExactly(bookingDto);
+        assertThat(result.getItems()).containsExactly(bookingDto);
+        assertThat(result.getNextCursor()).isNull();
     }
 
     @Test
-    void findAllByUsername_AsAdmin_ShouldReturnListOfDtos() {
+    void findAll_InvalidCursor_ShouldThrowIllegalArgumentException() {
+        // when & then
+        assertThatThrownBy(() -> bookingService.findAll("not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void findAllByUsername_AsAdmin_ShouldReturnPage() {
         // given
         String username = "otheruser";
         mockSecurityContext("admin", Role.ADMIN);
-        when(bookingRepository.findAllByUserUsername(username)).thenReturn(Collections.singletonList(booking));
-        when(bookingMapper.toDto(booking)).thenReturn(bookingDto);
+        when(bookingRepository.findBookingDtosByUsername(username, Limit.of(50))).thenReturn(List.of(bookingDto));
 
         // when
-        Iterable<BookingDto> result = bookingService.findAllByUsername(username);
+        BookingPageDto result = bookingService.findAllByUsername(username, null, 50);
 
         // then
-        assertThat(result).containsExactly(bookingDto);
+        assertThat(result.getItems()).containsExactly(bookingDto);
     }
 
     @Test
-    void findAllByUsername_AsOwner_ShouldReturnListOfDtos() {
+    void findAllByUsername_AsOwner_ShouldReturnPage() {
         // given
         String username = "testuser";
+        UUID id = UUID.randomUUID();
+        LocalDateTime createdAt = LocalDateTime.of(2026, 1, 1, 10, 15, 30);
         mockSecurityContext(username, Role.USER);
-        when(bookingRepository.findAllByUserUsername(username)).thenReturn(Collections.singletonList(booking));
-        when(bookingMapper.toDto(booking)).thenReturn(bookingDto);
+        when(bookingRepository.findBookingDtosByUsernameBefore(username, createdAt, id, Limit.of(50)))
+                .thenReturn(List.of(bookingDto));
 
         // when
-        Iterable<BookingDto> result = bookingService.findAllByUsername(username);
+        BookingPageDto result = bookingService.findAllByUsername(username, "2026-01-01T10:15:30_" + id, 50);
 
         // then
-        assertThat(result).containsExactly(bookingDto);
+        assertThat(result.getItems()).containsExactly(bookingDto);
     }
 
     @Test
@@ -144,7 +205,7 @@ class BookingServiceTest {
         mockSecurityContext("testuser", Role.USER);
 
         // when & then
-        assertThatThrownBy(() -> bookingService.findAllByUsername(username))
+        assertThatThrownBy(() -> bookingService.findAllByUsername(username, null, 50))
                 .isInstanceOf(AccessDeniedException.class);
     }
 
@@ -153,6 +214,7 @@ class BookingServiceTest {
         // given
         UUID requestId = booking.getRequestId();
         mockSecurityContext("admin", Role.ADMIN);
+        when(requestIdBloomFilter.mightContain(requestId)).thenReturn(true);
         when(bookingRepository.findByRequestId(requestId)).thenReturn(Optional.of(booking));
         when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
         when(bookingMapper.toDto(booking)).thenReturn(bookingDto);
@@ -171,6 +233,7 @@ class BookingServiceTest {
         // given
         UUID requestId = booking.getRequestId();
         mockSecurityContext("testuser", Role.USER);
+        when(requestIdBloomFilter.mightContain(requestId)).thenReturn(true);
         when(bookingRepository.findByRequestId(requestId)).thenReturn(Optional.of(booking));
         when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
         when(bookingMapper.toDto(booking)).thenReturn(bookingDto);
@@ -189,6 +252,7 @@ class BookingServiceTest {
         // given
         UUID requestId = booking.getRequestId();
         mockSecurityContext("otheruser", Role.USER);
+        when(requestIdBloomFilter.mightContain(requestId)).thenReturn(true);
         when(bookingRepository.findByRequestId(requestId)).thenReturn(Optional.of(booking));
 
         // when & then
@@ -200,12 +264,27 @@ class BookingServiceTest {
     void cancelBooking_NotFound_ShouldThrowException() {
         // given
         UUID requestId = UUID.randomUUID();
+
+        // when & then
+        assertThatThrownBy(() -> bookingService.cancelBooking(requestId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Booking not found");
+        verify(bookingRepository).findByRequestId(requestId);
+        verify(requestIdBloomFilter, never()).recordFalsePositives(anyInt());
+    }
+
+    @Test
+    void cancelBooking_BloomFalsePositive_ShouldCheckDatabaseAndThrow() {
+        // given
+        UUID requestId = UUID.randomUUID();
+        when(requestIdBloomFilter.mightContain(requestId)).thenReturn(true);
         when(bookingRepository.findByRequestId(requestId)).thenReturn(Optional.empty());
 
         // when & then
         assertThatThrownBy(() -> bookingService.cancelBooking(requestId))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Booking not found");
+        verify(requestIdBloomFilter).recordFalsePositives(1);
     }
 
     @Test
@@ -233,7 +312,10 @@ class BookingServiceTest {
         // then
         assertThat(result.getSuccess()).isTrue();
         assertThat(booking.getStatus()).isEqualTo(BookingStatus.CONFIRMED);
-        verify(bookingRepository, times(2)).save(any(Booking.class));
+        verify(bookingRepository, times(1)).save(any(Booking.class));
+        verify(bookingRepository).updateStatusByRequestIds(List.of(booking.getRequestId()), BookingStatus.PENDING,
+                BookingStatus.CONFIRMED);
+        verify(requestIdBloomFilter).add(booking.getRequestId());
     }
 
     @Test
@@ -264,7 +346,7 @@ class BookingServiceTest {
     }
 
     @Test
-    void create_WithAutoSelect_ShouldUseRecommendedRoom() {
+    void create_WithAutoSelect_ShouldUseFreeRoomForDates() {
         // given
         mockSecurityContext(user.getUsername(), Role.USER);
         BookingPayload payload = new BookingPayload();
@@ -276,8 +358,9 @@ class BookingServiceTest {
         RoomDto[] roomsArray = new RoomDto[]{recommendedRoom};
 
         when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
-        when(restTemplate.getForObject("http://hotel-service/rooms/recommend", RoomDto[].class)).thenReturn(roomsArray);
-        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+        when(restTemplate.getForObject("http://hotel-service/rooms/search?start={start}&end={end}&limit={limit}",
+                RoomDto[].class, payload.getStartDate(), payload.getEndDate(), 1)).thenReturn(roomsArray);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
         when(restTemplate.postForObject(anyString(), any(), eq(Boolean.class), any(UUID.class))).thenReturn(true);
         when(bookingMapper.toBookingResultDto(any())).thenReturn(BookingResult.builder().success(true).build());
 
@@ -285,7 +368,58 @@ class BookingServiceTest {
         bookingService.create(payload);
 
         // then
-        verify(restTemplate).getForObject("http://hotel-service/rooms/recommend", RoomDto[].class);
+        verify(bookingRepository, atLeastOnce()).save(argThat(saved -> recommendedRoom.getId().equals(saved.getRoomId())));
+        verify(restTemplate, never()).getForObject("http://hotel-service/rooms/recommend", RoomDto[].class);
+    }
+
+    @Test
+    void create_WithAutoSelect_NoFreeRooms_ShouldThrowException() {
+        // given
+        mockSecurityContext(user.getUsername(), Role.USER);
+        BookingPayload payload = new BookingPayload();
+        payload.setStartDate(booking.getStartDate());
+        payload.setEndDate(booking.getEndDate());
+        payload.setAutoSelect(true);
+
+        when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+        when(restTemplate.getForObject(anyString(), eq(RoomDto[].class), any(), any(), any())).thenReturn(new RoomDto[0]);
+
+        // when & then
+        assertThatThrownBy(() -> bookingService.create(payload))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("No rooms available");
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("create берёт пользователя из principal без повторного запроса в БД")
+    void create_WithAuthUserPrincipal_UsesUserReference() {
+        // given
+        mockSecurityContext(user.getUsername(), Role.USER);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        lenient().when(authentication.getPrincipal()).thenReturn(new AuthUser(user));
+        BookingPayload payload = new BookingPayload();
+        payload.setRoomId(booking.getRoomId());
+        payload.setStartDate(booking.getStartDate());
+        payload.setEndDate(booking.getEndDate());
+
+        RoomReservationDto reservationDto = new RoomReservationDto();
+        User reference = new User();
+        reference.setId(user.getId());
+
+        when(userRepository.getReferenceById(user.getId())).thenReturn(reference);
+        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+        when(bookingMapper.toRoomReservationDto(any(Booking.class))).thenReturn(reservationDto);
+        when(restTemplate.postForObject(eq("http://hotel-service/rooms/{id}/confirm-availability"), eq(reservationDto), eq(Boolean.class), eq(booking.getRoomId())))
+                .thenReturn(true);
+        when(bookingMapper.toBookingResultDto(booking)).thenReturn(BookingResult.builder().success(true).build());
+
+        // when
+        bookingService.create(payload);
+
+        // then
+        verify(bookingRepository).save(argThat(saved -> saved.getUser() == reference));
+        verify(userRepository, never()).findByUsername(any());
     }
 
     @Test
@@ -306,11 +440,517 @@ class BookingServiceTest {
     }
 
     @Test
-    void getOffers_ShouldReturnListOfRoomDtos() {
+    void createBatch_AllConfirmed_ShouldConfirmAllBookings() {
+        // given
+        mockSecurityContext(user.getUsername(), Role.USER);
+        List<BookingPayload> payloads = List.of(batchPayload(UUID.randomUUID()), batchPayload(UUID.randomUUID()));
+
+        when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+        when(bookingRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+        when(bookingMapper.toRoomReservationDto(any())).thenAnswer(inv -> reservationOf(inv.getArgument(0)));
+        when(restTemplate.postForObject(eq("http://hotel-service/rooms/confirm-availability"), anyList(),
+                eq(RoomReservationResultDto[].class))).thenAnswer(inv -> resultsOf(inv.getArgument(1), true));
+        when(bookingMapper.toBookingResultDto(any())).thenReturn(BookingResult.builder().success(true).build());
+
+        // when
+        List<BookingResult> results = bookingService.createBatch(payloads);
+
+        // then
+        assertThat(results).hasSize(2).extracting(BookingResult::getSuccess).containsOnly(true);
+        verify(bookingRepository).saveAll(anyList());
+        verify(bookingRepository).updateStatusByRequestIds(argThat(ids -> ids.size() == 2), eq(BookingStatus.PENDING),
+                eq(BookingStatus.CONFIRMED));
+        verify(requestIdBloomFilter, times(2)).add(any(UUID.class));
+        verify(restTemplate, never()).postForObject(anyString(), any(), eq(Boolean.class), any(UUID.class));
+    }
+
+    @Test
+    void createBatch_AutoSelect_ShouldSearchOncePerDateRangeAndSkipExplicitRooms() {
+        // given
+        mockSecurityContext(user.getUsername(), Role.USER);
+        UUID explicitRoomId = UUID.randomUUID();
+        BookingPayload first = batchPayload(null);
+        first.setAutoSelect(true);
+        BookingPayload second = batchPayload(null);
+        second.setAutoSelect(true);
+        List<BookingPayload> payloads = List.of(batchPayload(explicitRoomId), first, second);
+        UUID freeRoomId = UUID.randomUUID();
+
+        when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+        when(restTemplate.getForObject("http://hotel-service/rooms/search?start={start}&end={end}&limit={limit}",
+                RoomDto[].class, booking.getStartDate(), booking.getEndDate(), 3)).thenReturn(new RoomDto[]{
+                RoomDto.builder().id(explicitRoomId).build(), RoomDto.builder().id(freeRoomId).build()});
+
+        // when & then
+        assertThatThrownBy(() -> bookingService.createBatch(payloads))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("No rooms available");
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(RoomDto[].class), any(), any(), any());
+        verify(bookingRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void createBatch_RejectedByHotel_ShouldCancelAllBookings() {
+        // given
+        mockSecurityContext(user.getUsername(), Role.USER);
+        List<BookingPayload> payloads = List.of(batchPayload(UUID.randomUUID()), batchPayload(UUID.randomUUID()));
+
+        when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+        when(bookingRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+        when(bookingMapper.toRoomReservationDto(any())).thenAnswer(inv -> reservationOf(inv.getArgument(0)));
+        when(restTemplate.postForObject(eq("http://hotel-service/rooms/confirm-availability"), anyList(),
+                eq(RoomReservationResultDto[].class))).thenAnswer(inv -> resultsOf(inv.getArgument(1), false));
+
+        // when
+        List<BookingResult> results = bookingService.createBatch(payloads);
+
+        // then
+        assertThat(results).extracting(BookingResult::getSuccess).containsOnly(false);
+        assertThat(results).extracting(BookingResult::getMessage).containsOnly("Batch rejected");
+        verify(bookingRepository).updateStatusByRequestIds(anyCollection(), eq(BookingStatus.PENDING),
+                eq(BookingStatus.CANCELLED));
+    }
+
+    @Test
+    @DisplayName("Недоступность hotel-service оставляет пакет в PENDING до OutboxRelay")
+    void createBatch_HotelUnavailable_ShouldReturnPendingResults() {
+        // given
+        mockSecurityContext(user.getUsername(), Role.USER);
+        List<BookingPayload> payloads = List.of(batchPayload(UUID.randomUUID()), batchPayload(UUID.randomUUID()));
+
+        when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+        when(bookingRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+        when(bookingMapper.toRoomReservationDto(any())).thenAnswer(inv -> reservationOf(inv.getArgument(0)));
+        when(restTemplate.postForObject(eq("http://hotel-service/rooms/confirm-availability"), anyList(),
+                eq(RoomReservationResultDto[].class))).thenThrow(new ResourceAccessException("Read timed out"));
+
+        // when
+        List<BookingResult> results = bookingService.createBatch(payloads);
+
+        // then
+        assertThat(results).hasSize(2).extracting(BookingResult::getSuccess).containsOnly(false);
+        assertThat(results).extracting(BookingResult::getMessage).containsOnly("Booking is pending confirmation");
+        assertThat(results).extracting(BookingResult::getRequestId).doesNotContainNull();
+        verify(outbox).recordAll(eq(OutboxEventType.CONFIRM), argThat(saved -> saved.size() == 2
+                && saved.stream().map(Booking::getBatchId).distinct().count() == 1));
+        verify(bookingRepository, never()).updateStatusByRequestIds(anyCollection(), any(), any());
+        verify(outbox, never()).complete(any(), any());
+    }
+
+    @Test
+    void createBatch_Empty_ShouldThrowException() {
+        assertThatThrownBy(() -> bookingService.createBatch(List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(bookingRepository, restTemplate);
+    }
+
+    @Test
+    void createPending_ShouldSavePendingWithoutCallingHotel() {
+        // given
+        mockSecurityContext(user.getUsername(), Role.USER);
+        BookingPayload payload = batchPayload(UUID.randomUUID());
+        when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // when
+        Booking result = bookingService.createPending(payload);
+
+        // then
+        assertThat(result.getStatus()).isEqualTo(BookingStatus.PENDING);
+        assertThat(result.getRoomId()).isEqualTo(payload.getRoomId());
+        verify(requestIdBloomFilter).add(result.getRequestId());
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void createPending_WithoutRoomId_ShouldThrowException() {
+        // given
+        BookingPayload payload = batchPayload(null);
+
+        // when & then
+        assertThatThrownBy(() -> bookingService.createPending(payload))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("RoomId is required");
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void confirmPending_AllConfirmed_ShouldConfirmInSingleBatch() {
+        // given
+        List<Booking> pending = List.of(pendingBooking(UUID.randomUUID()), pendingBooking(UUID.randomUUID()));
+        List<UUID> requestIds = pending.stream().map(Booking::getRequestId).toList();
+        when(bookingRepository.findAllByRequestIdInAndStatus(requestIds, BookingStatus.PENDING)).thenReturn(pending);
+        when(bookingMapper.toRoomReservationDto(any())).thenAnswer(inv -> reservationOf(inv.getArgument(0)));
+        when(restTemplate.postForObject(eq("http://hotel-service/rooms/confirm-availability"), anyList(),
+                eq(RoomReservationResultDto[].class))).thenAnswer(inv -> resultsOf(inv.getArgument(1), true));
+
+        // when
+        bookingService.confirmPending(requestIds);
+
+        // then
+        verify(bookingRepository).updateStatusByRequestIds(argThat(ids -> ids.containsAll(requestIds)),
+                eq(BookingStatus.PENDING), eq(BookingStatus.CONFIRMED));
+        verify(bookingRepository, never()).updateStatusByRequestIds(anyCollection(), eq(BookingStatus.PENDING),
+                eq(BookingStatus.CANCELLED));
+    }
+
+    @Test
+    @DisplayName("Отклонённое бронирование отменяется, остальные подтверждаются повторным пакетом")
+    void confirmPending_BatchRejected_ShouldRetryWithoutFailedBooking() {
+        // given
+        Booking conflicting = pendingBooking(UUID.randomUUID());
+        Booking other = pendingBooking(UUID.randomUUID());
+        List<UUID> requestIds = List.of(conflicting.getRequestId(), other.getRequestId());
+        when(bookingRepository.findAllByRequestIdInAndStatus(requestIds, BookingStatus.PENDING))
+                .thenReturn(List.of(conflicting, other));
+        when(bookingMapper.toRoomReservationDto(any())).thenAnswer(inv -> reservationOf(inv.getArgument(0)));
+        when(restTemplate.postForObject(eq("http://hotel-service/rooms/confirm-availability"), anyList(),
+                eq(RoomReservationResultDto[].class))).thenAnswer(inv -> {
+            List<RoomReservationDto> reservations = inv.getArgument(1);
+            if (reservations.size() == 1) {
+                return resultsOf(reservations, true);
+            }
+            RoomReservationResultDto[] results = resultsOf(reservations, false);
+            results[0].setMessage("Room is not available");
+            return results;
+        });
+
+        // when
+        bookingService.confirmPending(requestIds);
+
+        // then
+        verify(restTemplate, times(2)).postForObject(eq("http://hotel-service/rooms/confirm-availability"), anyList(),
+                eq(RoomReservationResultDto[].class));
+        verify(bookingRepository).updateStatusByRequestIds(List.of(other.getRequestId()), BookingStatus.PENDING,
+                BookingStatus.CONFIRMED);
+        verify(bookingRepository).updateStatusByRequestIds(List.of(conflicting.getRequestId()), BookingStatus.PENDING,
+                BookingStatus.CANCELLED);
+    }
+
+    @Test
+    @DisplayName("Пакет из POST /booking/batch не делится: частичный отказ отменяет все его бронирования")
+    void confirmPending_BatchPartlyRejected_ShouldCancelWholeBatch() {
+        // given
+        UUID batchId = UUID.randomUUID();
+        Booking conflicting = pendingBooking(UUID.randomUUID());
+        Booking other = pendingBooking(UUID.randomUUID());
+        conflicting.setBatchId(batchId);
+        other.setBatchId(batchId);
+        // на странице OutboxRelay оказалось только одно событие пакета
+        List<UUID> requestIds = List.of(conflicting.getRequestId());
+        when(bookingRepository.findAllByRequestIdInAndStatus(requestIds, BookingStatus.PENDING))
+                .thenReturn(List.of(conflicting));
+        when(bookingRepository.findAllByBatchIdIn(Set.of(batchId))).thenReturn(List.of(conflicting, other));
+        when(restTemplate.postForObject(eq("http://hotel-service/rooms/reservations/status"), anyList(),
+                eq(HotelReservationDto[].class))).thenReturn(new HotelReservationDto[0]);
+        when(bookingMapper.toRoomReservationDto(any())).thenAnswer(inv -> reservationOf(inv.getArgument(0)));
+        when(restTemplate.postForObject(eq("http://hotel-service/rooms/confirm-availability"), anyList(),
+                eq(RoomReservationResultDto[].class))).thenAnswer(inv -> {
+            RoomReservationResultDto[] results = resultsOf(inv.getArgument(1), false);
+            results[0].setMessage("Room is not available");
+            return results;
+        });
+
+        // when
+        bookingService.confirmPending(requestIds);
+
+        // then
+        List<UUID> batchRequestIds = List.of(conflicting.getRequestId(), other.getRequestId());
+        verify(restTemplate, times(1)).postForObject(eq("http://hotel-service/rooms/confirm-availability"),
+                argThat(reservations -> ((List<?>) reservations).size() == 2), eq(RoomReservationResultDto[].class));
+        verify(bookingRepository).updateStatusByRequestIds(batchRequestIds, BookingStatus.PENDING,
+                BookingStatus.CANCELLED);
+        verify(bookingRepository, never()).updateStatusByRequestIds(anyCollection(), eq(BookingStatus.PENDING),
+                eq(BookingStatus.CONFIRMED));
+        verify(outbox).recordAll(OutboxEventType.RELEASE, List.of(conflicting, other));
+        verify(outbox).complete(OutboxEventType.CONFIRM, batchRequestIds);
+    }
+
+    @Test
+    void confirmPending_BatchMemberCancelled_ShouldCancelWholeBatchWithoutCallingHotel() {
+        // given
+        UUID batchId = UUID.randomUUID();
+        Booking pending = pendingBooking(UUID.randomUUID());
+        Booking cancelledByUser = pendingBooking(UUID.randomUUID());
+        pending.setBatchId(batchId);
+        cancelledByUser.setBatchId(batchId);
+        cancelledByUser.setStatus(BookingStatus.CANCELLED);
+        List<UUID> requestIds = List.of(pending.getRequestId());
+        when(bookingRepository.findAllByRequestIdInAndStatus(requestIds, BookingStatus.PENDING))
+                .thenReturn(List.of(pending));
+        when(bookingRepository.findAllByBatchIdIn(Set.of(batchId))).thenReturn(List.of(pending, cancelledByUser));
+
+        // when
+        bookingService.confirmPending(requestIds);
+
+        // then
+        verify(restTemplate, never()).postForObject(eq("http://hotel-service/rooms/confirm-availability"), anyList(),
+                eq(RoomReservationResultDto[].class));
+        verify(bookingRepository).updateStatusByRequestIds(requestIds, BookingStatus.PENDING, BookingStatus.CANCELLED);
+        verify(outbox).recordAll(OutboxEventType.RELEASE, List.of(pending));
+    }
+
+    @Test
+    void confirmPending_AutoSelect_ShouldAssignDistinctRoomsOrCancel() {
+        // given
+        Booking first = pendingBooking(null);
+        Booking second = pendingBooking(null);
+        List<UUID> requestIds = List.of(first.getRequestId(), second.getRequestId());
+        RoomDto freeRoom = RoomDto.builder().id(UUID.randomUUID()).build();
+        when(bookingRepository.findAllByRequestIdInAndStatus(requestIds, BookingStatus.PENDING))
+                .thenReturn(List.of(first, second));
+        when(restTemplate.getForObject("http://hotel-service/rooms/search?start={start}&end={end}&limit={limit}",
+                RoomDto[].class, booking.getStartDate(), booking.getEndDate(), 2)).thenReturn(new RoomDto[]{freeRoom});
+        when(bookingMapper.toRoomReservationDto(any())).thenAnswer(inv -> reservationOf(inv.getArgument(0)));
+        when(restTemplate.postForObject(eq("http://hotel-service/rooms/confirm-availability"), anyList(),
+                eq(RoomReservationResultDto[].class))).thenAnswer(inv -> resultsOf(inv.getArgument(1), true));
+
+        // when
+        bookingService.confirmPending(requestIds);
+
+        // then
+        assertThat(first.getRoomId()).isEqualTo(freeRoom.getId());
+        assertThat(second.getRoomId()).isNull();
+        verify(bookingRepository).updateRoomIdByRequestId(first.getRequestId(), freeRoom.getId(), BookingStatus.PENDING);
+        verify(bookingRepository, never()).saveAll(anyList());
+        verify(bookingRepository).updateStatusByRequestIds(List.of(first.getRequestId()), BookingStatus.PENDING,
+                BookingStatus.CONFIRMED);
+        verify(bookingRepository).updateStatusByRequestIds(List.of(second.getRequestId()), BookingStatus.PENDING,
+                BookingStatus.CANCELLED);
+    }
+
+    @Test
+    void confirmPending_AutoSelect_ShouldSearchOncePerDateRange() {
+        // given
+        Booking first = pendingBooking(null);
+        Booking second = pendingBooking(null);
+        Booking later = pendingBooking(null);
+        later.setStartDate(booking.getStartDate().plusDays(10));
+        later.setEndDate(booking.getEndDate().plusDays(10));
+        List<UUID> requestIds = List.of(first.getRequestId(), second.getRequestId(), later.getRequestId());
+        RoomDto roomA = RoomDto.builder().id(UUID.randomUUID()).build();
+        RoomDto roomB = RoomDto.builder().id(UUID.randomUUID()).build();
+        RoomDto roomC = RoomDto.builder().id(UUID.randomUUID()).build();
+        when(bookingRepository.findAllByRequestIdInAndStatus(requestIds, BookingStatus.PENDING))
+                .thenReturn(List.of(first, second, later));
+        when(restTemplate.getForObject("http://hotel-service/rooms/search?start={start}&end={end}&limit={limit}",
+                RoomDto[].class, booking.getStartDate(), booking.getEndDate(), 2)).thenReturn(new RoomDto[]{roomA, roomB});
+        when(restTemplate.getForObject("http://hotel-service/rooms/search?start={start}&end={end}&limit={limit}",
+                RoomDto[].class, later.getStartDate(), later.getEndDate(), 3)).thenReturn(new RoomDto[]{roomA, roomC});
+        when(bookingMapper.toRoomReservationDto(any())).thenAnswer(inv -> reservationOf(inv.getArgument(0)));
+        when(restTemplate.postForObject(eq("http://hotel-service/rooms/confirm-availability"), anyList(),
+                eq(RoomReservationResultDto[].class))).thenAnswer(inv -> resultsOf(inv.getArgument(1), true));
+
+        // when
+        bookingService.confirmPending(requestIds);
+
+        // then
+        verify(restTemplate, times(2)).getForObject(anyString(), eq(RoomDto[].class), any(), any(), any());
+        assertThat(first.getRoomId()).isEqualTo(roomA.getId());
+        assertThat(second.getRoomId()).isEqualTo(roomB.getId());
+        assertThat(later.getRoomId()).isEqualTo(roomC.getId());
+        verify(bookingRepository).updateStatusByRequestIds(argThat(ids -> ids.size() == 3), eq(BookingStatus.PENDING),
+                eq(BookingStatus.CONFIRMED));
+    }
+
+    @Test
+    @DisplayName("Отмена пользователем во время подтверждения не перезаписывается, номер освобождается через outbox")
+    void confirmPending_CancelledDuringConfirm_ShouldKeepCancellationAndReleaseRoom() {
+        // given
+        Booking pending = pendingBooking(UUID.randomUUID());
+        List<UUID> requestIds = List.of(pending.getRequestId());
+        Booking cancelled = pendingBooking(pending.getRoomId());
+        cancelled.setRequestId(pending.getRequestId());
+        cancelled.setStatus(BookingStatus.CANCELLED);
+        when(bookingRepository.findAllByRequestIdInAndStatus(requestIds, BookingStatus.PENDING))
+                .thenReturn(List.of(pending));
+        when(bookingMapper.toRoomReservationDto(any())).thenAnswer(inv -> reservationOf(inv.getArgument(0)));
+        when(restTemplate.postForObject(eq("http://hotel-service/rooms/confirm-availability"), anyList(),
+                eq(RoomReservationResultDto[].class))).thenAnswer(inv -> resultsOf(inv.getArgument(1), true));
+        // пользователь отменил бронирование, пока hotel-service его подтверждал
+        when(bookingRepository.updateStatusByRequestIds(requestIds, BookingStatus.PENDING, BookingStatus.CONFIRMED))
+                .thenReturn(0);
+        when(bookingRepository.findAllByRequestIdInAndStatus(requestIds, BookingStatus.CANCELLED))
+                .thenReturn(List.of(cancelled));
+
+        // when
+        bookingService.confirmPending(requestIds);
+
+        // then
+        verify(bookingRepository, never()).save(any());
+        verify(bookingRepository, never()).saveAll(anyList());
+        verify(outbox).recordAll(OutboxEventType.RELEASE, List.of(cancelled));
+        verify(outbox).complete(OutboxEventType.CONFIRM, requestIds);
+    }
+
+    @Test
+    void confirmPending_AutoSelectCancelledBeforeAssignment_ShouldNotConfirm() {
+        // given
+        Booking pending = pendingBooking(null);
+        List<UUID> requestIds = List.of(pending.getRequestId());
+        RoomDto freeRoom = RoomDto.builder().id(UUID.randomUUID()).build();
+        when(bookingRepository.findAllByRequestIdInAndStatus(requestIds, BookingStatus.PENDING))
+                .thenReturn(List.of(pending));
+        when(restTemplate.getForObject("http://hotel-service/rooms/search?start={start}&end={end}&limit={limit}",
+                RoomDto[].class, booking.getStartDate(), booking.getEndDate(), 1)).thenReturn(new RoomDto[]{freeRoom});
+        when(bookingRepository.updateRoomIdByRequestId(pending.getRequestId(), freeRoom.getId(), BookingStatus.PENDING))
+                .thenReturn(0);
+
+        // when
+        bookingService.confirmPending(requestIds);
+
+        // then
+        verify(restTemplate, never()).postForObject(eq("http://hotel-service/rooms/confirm-availability"), anyList(),
+                eq(RoomReservationResultDto[].class));
+        verify(bookingRepository, never()).updateStatusByRequestIds(anyCollection(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Недоступность hotel-service оставляет бронирование в PENDING с событием outbox")
+    void create_HotelUnavailable_ShouldLeavePendingWithOutboxEvent() {
+        // given
+        mockSecurityContext(user.getUsername(), Role.USER);
+        BookingPayload payload = batchPayload(UUID.randomUUID());
+        when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(restTemplate.postForObject(anyString(), any(), eq(Boolean.class), any(UUID.class)))
+                .thenThrow(new ResourceAccessException("Read timed out"));
+
+        // when
+        BookingResult result = bookingService.create(payload);
+
+        // then
+        assertThat(result.getSuccess()).isFalse();
+        assertThat(result.getRequestId()).isNotNull();
+        verify(outbox).record(eq(OutboxEventType.CONFIRM), argThat(saved -> saved.getStatus() == BookingStatus.PENDING));
+        verify(outbox, never()).complete(any(), any());
+        verify(bookingRepository, times(1)).save(any(Booking.class));
+    }
+
+    @Test
+    void cancelBooking_ReleaseFails_ShouldCancelAndKeepOutboxEvent() {
+        // given
+        UUID requestId = booking.getRequestId();
+        mockSecurityContext("testuser", Role.USER);
+        when(requestIdBloomFilter.mightContain(requestId)).thenReturn(true);
+        when(bookingRepository.findByRequestId(requestId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+        when(restTemplate.postForObject(anyString(), isNull(), eq(Void.class), any(), any()))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+        when(bookingMapper.toDto(booking)).thenReturn(bookingDto);
+
+        // when
+        bookingService.cancelBooking(requestId);
+
+        // then
+        assertThat(booking.getStatus()).isEqualTo(BookingStatus.CANCELLED);
+        verify(outbox).record(OutboxEventType.RELEASE, booking);
+        verify(outbox, never()).complete(any(), any());
+    }
+
+    @Test
+    void reconcilePending_ShouldSettleKnownAndConfirmUnknown() {
+        // given
+        Booking reserved = pendingBooking(UUID.randomUUID());
+        Booking released = pendingBooking(UUID.randomUUID());
+        Booking unknown = pendingBooking(UUID.randomUUID());
+        List<UUID> requestIds = List.of(reserved.getRequestId(), released.getRequestId(), unknown.getRequestId());
+        when(bookingRepository.findAllByRequestIdInAndStatus(anyCollection(), eq(BookingStatus.PENDING)))
+                .thenReturn(List.of(reserved, released, unknown), List.of(unknown));
+        when(restTemplate.postForObject(eq("http://hotel-service/rooms/reservations/status"), anyList(),
+                eq(HotelReservationDto[].class))).thenReturn(new HotelReservationDto[]{
+                hotelReservation(reserved, "CONFIRMED"), hotelReservation(released, "RELEASED")});
+        when(bookingMapper.toRoomReservationDto(any())).thenAnswer(inv -> reservationOf(inv.getArgument(0)));
+        when(restTemplate.postForObject(eq("http://hotel-service/rooms/confirm-availability"), anyList(),
+                eq(RoomReservationResultDto[].class))).thenAnswer(inv -> resultsOf(inv.getArgument(1), true));
+
+        // when
+        bookingService.reconcilePending(requestIds);
+
+        // then
+        verify(bookingRepository).updateStatusByRequestIds(List.of(reserved.getRequestId()), BookingStatus.PENDING,
+                BookingStatus.CONFIRMED);
+        verify(bookingRepository).updateStatusByRequestIds(List.of(released.getRequestId()), BookingStatus.PENDING,
+                BookingStatus.CANCELLED);
+        verify(bookingRepository).updateStatusByRequestIds(List.of(unknown.getRequestId()), BookingStatus.PENDING,
+                BookingStatus.CONFIRMED);
+        verify(restTemplate).postForObject(eq("http://hotel-service/rooms/confirm-availability"),
+                argThat(reservations -> ((List<?>) reservations).size() == 1), eq(RoomReservationResultDto[].class));
+    }
+
+    @Test
+    void releaseCancelled_ShouldReleaseOnlyConfirmedReservations() {
+        // given
+        Booking confirmedAtHotel = pendingBooking(UUID.randomUUID());
+        Booking releasedAtHotel = pendingBooking(UUID.randomUUID());
+        when(restTemplate.postForObject(eq("http://hotel-service/rooms/reservations/status"), anyList(),
+                eq(HotelReservationDto[].class))).thenReturn(new HotelReservationDto[]{
+                hotelReservation(confirmedAtHotel, "CONFIRMED"), hotelReservation(releasedAtHotel, "RELEASED")});
+
+        // when
+        int released = bookingService.releaseCancelled(
+                List.of(confirmedAtHotel.getRequestId(), releasedAtHotel.getRequestId(), UUID.randomUUID()));
+
+        // then
+        assertThat(released).isEqualTo(1);
+        verify(restTemplate).postForObject("http://hotel-service/rooms/{id}/release/{requestId}", null, Void.class,
+                confirmedAtHotel.getRoomId(), confirmedAtHotel.getRequestId());
+        verify(restTemplate, never()).postForObject(anyString(), isNull(), eq(Void.class),
+                eq(releasedAtHotel.getRoomId()), any());
+    }
+
+    private static HotelReservationDto hotelReservation(Booking booking, String status) {
+        return HotelReservationDto.builder()
+                .requestId(booking.getRequestId())
+                .roomId(booking.getRoomId())
+                .status(status)
+                .build();
+    }
+
+    private Booking pendingBooking(UUID roomId) {
+        Booking pending = new Booking();
+        pending.setRequestId(UUID.randomUUID());
+        pending.setUser(user);
+        pending.setRoomId(roomId);
+        pending.setStartDate(booking.getStartDate());
+        pending.setEndDate(booking.getEndDate());
+        pending.setStatus(BookingStatus.PENDING);
+        return pending;
+    }
+
+    private BookingPayload batchPayload(UUID roomId) {
+        BookingPayload payload = new BookingPayload();
+        payload.setRoomId(roomId);
+        payload.setStartDate(booking.getStartDate());
+        payload.setEndDate(booking.getEndDate());
+        return payload;
+    }
+
+    private static RoomReservationDto reservationOf(Booking booking) {
+        return RoomReservationDto.builder()
+                .roomId(booking.getRoomId())
+                .requestId(booking.getRequestId().toString())
+                .startDate(booking.getStartDate())
+                .endDate(booking.getEndDate())
+                .build();
+    }
+
+    private static RoomReservationResultDto[] resultsOf(List<RoomReservationDto> reservations, boolean confirmed) {
+        return reservations.stream()
+                .map(reservation -> RoomReservationResultDto.builder()
+                        .requestId(reservation.getRequestId())
+                        .roomId(reservation.getRoomId())
+                        .confirmed(confirmed)
+                        .message(confirmed ? null : "Batch rejected")
+                        .build())
+                .toArray(RoomReservationResultDto[]::new);
+    }
+
+    @Test
+    void getOffers_ShouldReturnCachedOffers() {
         // given
         RoomDto room = RoomDto.builder().id(UUID.randomUUID()).build();
-        when(restTemplate.getForObject("http://hotel-service/rooms/recommend", RoomDto[].class))
-                .thenReturn(new RoomDto[]{room});
+        when(offersCache.get()).thenReturn(List.of(room));
 
         // when
         List<RoomDto> result = bookingService.getOffers();
@@ -320,10 +960,27 @@ class BookingServiceTest {
         assertThat(result.get(0).getId()).isEqualTo(room.getId());
     }
 
+    @Test
+    void findByRequestId_CreatedOnOtherInstance_ShouldFallBackToDatabase() {
+        // given
+        UUID requestId = booking.getRequestId();
+        when(requestIdBloomFilter.mightContain(requestId)).thenReturn(false);
+        when(bookingRepository.findByRequestId(requestId)).thenReturn(Optional.of(booking));
+        when(bookingMapper.toDto(booking)).thenReturn(bookingDto);
+
+        // when
+        BookingDto result = bookingService.findByRequestId(requestId);
+
+        // then
+        assertThat(result).isEqualTo(bookingDto);
+        verify(requestIdBloomFilter).add(requestId);
+    }
+
     @Test
     void findByRequestId_ShouldReturnDto() {
         // given
         UUID requestId = UUID.randomUUID();
+        when(requestIdBloomFilter.mightContain(requestId)).thenReturn(true);
         when(bookingRepository.findByRequestId(requestId)).thenReturn(Optional.of(booking));
         when(bookingMapper.toDto(booking)).thenReturn(bookingDto);
 
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import ru.klimov.controller.payload.UserPayload;
 import ru.klimov.dto.UserResponseDto;
@@ -13,6 +14,9 @@ import ru.klimov.entity.Role;
 import ru.klimov.entity.User;
 import ru.klimov.mapper.UserMapper;
 import ru.klimov.repository.UserRepository;
+import ru.klimov.security.PrincipalCache;
+import ru.klimov.security.RefreshTokenStore;
+import ru.klimov.security.TokenRevocations;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -37,6 +41,15 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private RefreshTokenStore refreshTokenStore;
+
+    @Mock
+    private TokenRevocations tokenRevocations;
+
     @InjectMocks
     private UserService userService;
 
@@ -80,13 +93,17 @@ class UserServiceTest {
     @Test
     void deleteUser_ShouldCallUserRepositoryDeleteById() {
         // given
-        UUID userId = UUID.randomUUID();
+        UUID userId = user.getId();
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
 
         // when
         userService.deleteUser(userId);
 
         // then
         verify(userRepository).deleteById(userId);
+        verify(principalCache).evict(userId);
+        verify(refreshTokenStore).revokeAll(userId);
+        verify(tokenRevocations).revokeSubject(user.getUsername());
     }
 
     @Test
@@ -107,6 +124,22 @@ class UserServiceTest {
         verify(userRepository).save(user);
         assertThat(user.getPassword()).isEqualTo("newEncodedPassword");
         assertThat(user.getRole()).isEqualTo(Role.USER);
+        verify(principalCache).evict(user.getUsername());
+        verify(refreshTokenStore).revokeAll(user.getId());
+        verify(tokenRevocations, times(1)).revokeSubject(user.getUsername());
+    }
+
+    @Test
+    void updateUser_SaveFailed_ShouldNotRevokeTokens() {
+        // given
+        when(userRepository.findByUsername(userPayload.getUsername())).thenReturn(Optional.of(user));
+        when(passwordEncoder.encode(userPayload.getPassword())).thenReturn("newEncodedPassword");
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("constraint"));
+
+        // when & then
+        assertThatThrownBy(() -> userService.updateUser(userPayload))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        verifyNoInteractions(refreshTokenStore, tokenRevocations);
     }
 
     @Test
@@ -118,5 +151,6 @@ class UserServiceTest {
         assertThatThrownBy(() -> userService.updateUser(userPayload))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessage("User not found");
+        verifyNoInteractions(principalCache);
     }
 }
@@ -0,0 +1,119 @@
+package ru.klimov.archive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.klimov.dto.ArchiveCandidateDto;
+import ru.klimov.entity.RoomStatus;
+import ru.klimov.index.RoomOccupancyIndex;
+import ru.klimov.index.RoomReservationIndex;
+import ru.klimov.lock.RoomLocks;
+import ru.klimov.repository.RoomReservationRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Переносит освобождённые и прошедшие бронирования в room_reservation_archive, чтобы в горячей таблице
+ * оставались только актуальные. Работает порциями по batchSize с паузой batchDelay между ними и не более
+ * maxBatchesPerRun порций за запуск.
+ */
+@Slf4j
+@Component
+public class ReservationArchiver {
+
+    private final RoomReservationRepository roomReservationRepository;
+    private final RoomReservationIndex roomReservationIndex;
+    private final RoomOccupancyIndex roomOccupancyIndex;
+    private final RoomLocks roomLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration batchDelay;
+    private final int maxBatchesPerRun;
+    private final Counter archived;
+
+    public ReservationArchiver(RoomReservationRepository roomReservationRepository,
+                               RoomReservationIndex roomReservationIndex,
+                               RoomOccupancyIndex roomOccupancyIndex,
+                               RoomLocks roomLocks,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.archive.batch-size:500}") int batchSize,
+                               @Value("${app.archive.batch-delay:200ms}") Duration batchDelay,
+                               @Value("${app.archive.max-batches-per-run:100}") int maxBatchesPerRun) {
+        this.roomReservationRepository = roomReservationRepository;
+        this.roomReservationIndex = roomReservationIndex;
+        this.roomOccupancyIndex = roomOccupancyIndex;
+        this.roomLocks = roomLocks;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.batchDelay = batchDelay;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.archived = meterRegistry.counter("reservation.archive.moved");
+    }
+
+    @Scheduled(fixedDelayString = "${app.archive.interval:10m}", initialDelayString = "${app.archive.initial-delay:1m}")
+    public void archive() {
+        LocalDate today = LocalDate.now();
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int moved = archiveBatch(today);
+            total += moved;
+            if (moved < batchSize) {
+                break;
+            }
+            if (!pause()) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Archived {} reservations", total);
+        }
+    }
+
+    int archiveBatch(LocalDate today) {
+        List<ArchiveCandidateDto> candidates = roomReservationRepository.findArchiveCandidates(
+                RoomStatus.RELEASED, today, Limit.of(batchSize));
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        List<UUID> ids = candidates.stream().map(ArchiveCandidateDto::getId).toList();
+        List<UUID> roomIds = candidates.stream().map(ArchiveCandidateDto::getRoomId).toList();
+        LocalDateTime archivedAt = LocalDateTime.now();
+
+        // блокировки номеров не дают освобождению и архивации одновременно менять индексы
+        return roomLocks.withLocks(roomIds, () -> {
+            Integer moved = transactionTemplate.execute(status -> {
+                roomReservationRepository.copyToArchive(ids, archivedAt);
+                return roomReservationRepository.deleteAllByIds(ids);
+            });
+            candidates.stream()
+                    .filter(candidate -> candidate.getStatus() == RoomStatus.CONFIRMED)
+                    .forEach(candidate -> {
+                        roomReservationIndex.remove(candidate.getRoomId(), candidate.getStartDate(), candidate.getEndDate());
+                        roomOccupancyIndex.release(candidate.getRoomId(), candidate.getStartDate(), candidate.getEndDate());
+                    });
+            int count = moved != null ? moved : 0;
+            archived.increment(count);
+            return count;
+        });
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchDelay.toMillis());
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
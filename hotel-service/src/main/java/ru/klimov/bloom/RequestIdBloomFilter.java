@@ -0,0 +1,93 @@
+package ru.klimov.bloom;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import ru.klimov.repository.RoomReservationArchiveRepository;
+import ru.klimov.repository.RoomReservationRepository;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Фильтр Блума по requestId бронирований номеров. Отрицательный ответ означает, что requestId точно не встречался,
+ * и запрос в БД не нужен; положительный требует проверки в БД.
+ */
+@Slf4j
+@Component
+public class RequestIdBloomFilter {
+
+    private static final int LOAD_PAGE_SIZE = 10_000;
+
+    private final RoomReservationRepository roomReservationRepository;
+    private final RoomReservationArchiveRepository roomReservationArchiveRepository;
+    private final ScalableBloomFilter filter;
+    private final Counter negativeChecks;
+    private final Counter positiveChecks;
+    private final Counter falsePositives;
+
+    public RequestIdBloomFilter(RoomReservationRepository roomReservationRepository,
+                                RoomReservationArchiveRepository roomReservationArchiveRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.request-id-bloom.initial-capacity:100000}") long initialCapacity,
+                                @Value("${app.request-id-bloom.false-positive-rate:0.001}") double falsePositiveRate,
+                                @Value("${app.request-id-bloom.max-memory:64MB}") DataSize maxMemory) {
+        this.roomReservationRepository = roomReservationRepository;
+        this.roomReservationArchiveRepository = roomReservationArchiveRepository;
+        this.filter = new ScalableBloomFilter(initialCapacity, falsePositiveRate, maxMemory.toBytes());
+        this.negativeChecks = meterRegistry.counter("requestid.bloom.checks", "result", "negative");
+        this.positiveChecks = meterRegistry.counter("requestid.bloom.checks", "result", "positive");
+        this.falsePositives = meterRegistry.counter("requestid.bloom.false.positives");
+        Gauge.builder("requestid.bloom.false.positive.rate", filter, ScalableBloomFilter::falsePositiveRate)
+                .tag("kind", "configured")
+                .register(meterRegistry);
+        Gauge.builder("requestid.bloom.false.positive.rate", filter, ScalableBloomFilter::estimatedFalsePositiveRate)
+                .tag("kind", "estimated")
+                .register(meterRegistry);
+        Gauge.builder("requestid.bloom.memory", filter, ScalableBloomFilter::memoryBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("requestid.bloom.size", filter, ScalableBloomFilter::size).register(meterRegistry);
+        Gauge.builder("requestid.bloom.slices", filter, ScalableBloomFilter::sliceCount).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        load(roomReservationRepository::findRequestIds, roomReservationRepository::findRequestIdsAfter);
+        load(roomReservationArchiveRepository::findRequestIds, roomReservationArchiveRepository::findRequestIdsAfter);
+        log.info("Loaded {} requestIds into bloom filter ({} bytes)", filter.size(), filter.memoryBytes());
+    }
+
+    private void load(Function<Limit, List<UUID>> firstPage, BiFunction<UUID, Limit, List<UUID>> nextPage) {
+        List<UUID> page = firstPage.apply(Limit.of(LOAD_PAGE_SIZE));
+        while (!page.isEmpty()) {
+            page.forEach(filter::put);
+            if (page.size() < LOAD_PAGE_SIZE) {
+                break;
+            }
+            page = nextPage.apply(page.get(page.size() - 1), Limit.of(LOAD_PAGE_SIZE));
+        }
+    }
+
+    public boolean mightContain(UUID requestId) {
+        boolean mightContain = filter.mightContain(requestId);
+        (mightContain ? positiveChecks : negativeChecks).increment();
+        return mightContain;
+    }
+
+    public void add(UUID requestId) {
+        filter.put(requestId);
+    }
+
+    public void recordFalsePositives(int count) {
+        falsePositives.increment(count);
+    }
+}
@@ -0,0 +1,64 @@
+package ru.klimov.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through кэш каталога (отели, страницы доступных номеров), ограниченный по размеру и TTL.
+ * Каждая запись помечена версией каталога: invalidate() увеличивает версию, поэтому значение,
+ * загруженное параллельно с записью в каталог, не будет отдано после инвалидации.
+ * Статистика публикуется в метриках cache.* с тегом cache=catalog.
+ */
+@Slf4j
+@Component
+public class CatalogCache {
+
+    private final Cache<String, Versioned> cache;
+    private final AtomicLong version = new AtomicLong();
+
+    public CatalogCache(MeterRegistry meterRegistry,
+                        @Value("${app.catalog-cache.max-size:10000}") long maxSize,
+                        @Value("${app.catalog-cache.ttl:60s}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "catalog");
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        while (true) {
+            long current = version.get();
+            Versioned entry = cache.get(key, k -> new Versioned(current, loader.get()));
+            if (entry.version() == current) {
+                return (T) entry.value();
+            }
+            // запись загружена до последней инвалидации
+            cache.asMap().remove(key, entry);
+        }
+    }
+
+    public void invalidate() {
+        long current = version.incrementAndGet();
+        cache.invalidateAll();
+        log.info("Catalog cache invalidated, version {}", current);
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    private record Versioned(long version, Object value) {
+    }
+}
@@ -0,0 +1,28 @@
+package ru.klimov.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+import ru.klimov.security.ServiceTokenInterceptor;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class ClientConfig {
+
+    @Bean
+    @LoadBalanced
+    public RestTemplate bookingServiceRestTemplate(ServiceTokenInterceptor serviceTokenInterceptor,
+                                                   @Value("${app.revocation.timeout:2s}") Duration timeout) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.setInterceptors(List.of(serviceTokenInterceptor));
+        return restTemplate;
+    }
+}
@@ -2,13 +2,23 @@ package ru.klimov.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import ru.klimov.controller.payload.HotelPayload;
 import ru.klimov.dto.HotelDto;
+import ru.klimov.dto.HotelImportResultDto;
+import ru.klimov.dto.HotelOccupancyDto;
+import ru.klimov.exception.HotelImportException;
+import ru.klimov.service.HotelImportService;
 import ru.klimov.service.HotelService;
 
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/hotels")
@@ -16,6 +26,7 @@ import java.util.List;
 public class HotelController {
 
     private final HotelService hotelService;
+    private final HotelImportService hotelImportService;
 
     @Operation(summary = "Получить список всех отелей")
     @GetMapping
@@ -24,10 +35,32 @@ public class HotelController {
         return hotelService.getAllHotels();
     }
 
+    @Operation(summary = "Получить занятость номеров отеля по дням в виде битовых карт")
+    @GetMapping("/{id}/occupancy")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public HotelOccupancyDto getOccupancy(
+            @PathVariable("id") UUID id,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return hotelService.getOccupancy(id, from, to);
+    }
+
     @Operation(summary = "Создать новый отель")
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public HotelDto createHotel(@RequestBody HotelPayload hotelPayload) {
         return hotelService.createHotel(hotelPayload);
     }
+
+    @Operation(summary = "Импортировать отели и номера из NDJSON-потока")
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", MediaType.TEXT_PLAIN_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public HotelImportResultDto importHotels(InputStream body) {
+        return hotelImportService.importHotels(body);
+    }
+
+    @ExceptionHandler(HotelImportException.class)
+    public ResponseEntity<HotelImportResultDto> handleImportFailure(HotelImportException ex) {
+        return ResponseEntity.badRequest().body(ex.getResult());
+    }
 }
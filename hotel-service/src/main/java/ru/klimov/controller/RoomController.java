@@ -1,15 +1,28 @@
 package ru.klimov.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.klimov.controller.payload.RoomPayload;
 import ru.klimov.controller.payload.RoomReservationPayload;
 import ru.klimov.dto.RoomDto;
+import ru.klimov.dto.RoomPageDto;
+import ru.klimov.dto.RoomReservationDto;
+import ru.klimov.dto.RoomReservationResultDto;
+import ru.klimov.service.ReservationLookupService;
 import ru.klimov.service.RoomReservationService;
 import ru.klimov.service.RoomService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -20,6 +33,8 @@ public class RoomController {
 
     private final RoomService roomService;
     private final RoomReservationService roomReservationService;
+    private final ReservationLookupService reservationLookupService;
+    private final ObjectMapper objectMapper;
 
     @Operation(summary = "Создать новый номер")
     @PostMapping
@@ -31,15 +46,27 @@ public class RoomController {
     @Operation(summary = "Получить рекомендованные номера")
     @GetMapping("/recommend")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-    public List<RoomDto> getRecommendRooms() {
-        return roomService.getRecommendRooms();
+    public List<RoomDto> getRecommendRooms(@RequestParam(value = "limit", required = false) Integer limit) {
+        return roomService.getRecommendRooms(limit);
+    }
+
+    @Operation(summary = "Найти свободные номера на период")
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public List<RoomDto> searchAvailableRooms(
+            @RequestParam("start") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam("end") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam(value = "hotelId", required = false) UUID hotelId,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return roomService.searchAvailableRooms(start, end, hotelId, limit);
     }
 
     @Operation(summary = "Получить все доступные номера")
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-    public List<RoomDto> getAllAvailableRooms() {
-        return roomService.getAllAvailableRooms();
+    public RoomPageDto getAllAvailableRooms(@RequestParam(value = "after", required = false) UUID after,
+                                            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        return roomService.getAllAvailableRooms(after, limit);
     }
 
     @Operation(summary = "Подтвердить доступность номера")
@@ -49,6 +76,46 @@ public class RoomController {
         return roomReservationService.confirmAvailability(id, payload);
     }
 
+    @Operation(summary = "Подтвердить доступность нескольких номеров (всё или ничего)")
+    @PostMapping("/confirm-availability")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public List<RoomReservationResultDto> confirmAvailability(@RequestBody List<RoomReservationPayload> payloads) {
+        return roomReservationService.confirmAvailability(payloads);
+    }
+
+    @Operation(summary = "Найти бронирование номера по идентификатору запроса, включая архивные")
+    @GetMapping("/reservations/{requestId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public RoomReservationDto getReservation(@PathVariable("requestId") UUID requestId) {
+        return roomReservationService.getReservation(requestId);
+    }
+
+    @Operation(summary = "Получить бронирования номеров по списку идентификаторов запросов, включая архивные")
+    @PostMapping("/reservations/status")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<StreamingResponseBody> getReservations(@RequestBody List<UUID> requestIds) {
+        reservationLookupService.validate(requestIds);
+        StreamingResponseBody body = output -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                generator.writeStartArray();
+                reservationLookupService.findReservations(requestIds, chunk -> writeChunk(generator, chunk));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private static void writeChunk(JsonGenerator generator, List<RoomReservationDto> chunk) {
+        try {
+            for (RoomReservationDto reservation : chunk) {
+                generator.writeObject(reservation);
+            }
+            generator.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
     @Operation(summary = "Освободить номер")
     @PostMapping("/{id}/release/{requestId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
@@ -2,11 +2,16 @@ package ru.klimov.controller.payload;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
+
 import java.time.LocalDate;
+import java.util.UUID;
 
 @Data
 public class RoomReservationPayload {
 
+    @Schema(description = "Идентификатор номера, используется в пакетном подтверждении", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID roomId;
+
     @Schema(description = "Дата начала бронирования", example = "2026-01-16")
     private LocalDate startDate;
 
@@ -0,0 +1,22 @@
+package ru.klimov.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.klimov.entity.RoomStatus;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveCandidateDto {
+    private UUID id;
+    private UUID roomId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private RoomStatus status;
+}
@@ -0,0 +1,25 @@
+package ru.klimov.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class HotelImportResultDto {
+
+    private long lines;
+
+    private long hotels;
+
+    private long rooms;
+
+    private Long failedLine;
+
+    private String error;
+}
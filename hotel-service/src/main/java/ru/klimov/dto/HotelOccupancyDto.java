@@ -0,0 +1,27 @@
+package ru.klimov.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class HotelOccupancyDto {
+
+    private UUID hotelId;
+
+    private LocalDate from;
+
+    private LocalDate to;
+
+    private Integer days;
+
+    private List<RoomOccupancyDto> rooms;
+}
@@ -0,0 +1,25 @@
+package ru.klimov.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Занятость номера в виде битовой карты: бит i (младший бит первого байта — день from) установлен,
+ * если день from + i занят. В JSON массив байт передаётся строкой Base64.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomOccupancyDto {
+
+    private UUID roomId;
+
+    private String number;
+
+    private byte[] occupancy;
+}
@@ -0,0 +1,19 @@
+package ru.klimov.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomReservationResultDto {
+    private String requestId;
+    private UUID roomId;
+    private Boolean confirmed;
+    private String message;
+}
@@ -0,0 +1,31 @@
+package ru.klimov.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Data
+@Table(name = "room_reservation_archive")
+public class RoomReservationArchive {
+
+    @Id
+    private UUID id;
+
+    @Column(unique = true)
+    private UUID requestId;
+
+    private UUID roomId;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    @Enumerated(EnumType.STRING)
+    private RoomStatus status;
+
+    private LocalDateTime archivedAt;
+}
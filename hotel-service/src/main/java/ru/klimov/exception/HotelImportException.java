@@ -0,0 +1,18 @@
+package ru.klimov.exception;
+
+import lombok.Getter;
+import ru.klimov.dto.HotelImportResultDto;
+
+/**
+ * Импорт прерван. Результат содержит то, что уже зафиксировано, и строку, на которой произошла ошибка.
+ */
+@Getter
+public class HotelImportException extends RuntimeException {
+
+    private final HotelImportResultDto result;
+
+    public HotelImportException(HotelImportResultDto result, Throwable cause) {
+        super(result.getError(), cause);
+        this.result = result;
+    }
+}
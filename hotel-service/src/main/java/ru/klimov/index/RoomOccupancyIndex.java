@@ -0,0 +1,293 @@
+package ru.klimov.index;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.klimov.dto.ReservationIntervalDto;
+import ru.klimov.entity.RoomStatus;
+import ru.klimov.lock.RoomLocks;
+import ru.klimov.repository.RoomReservationRepository;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Занятость номеров по дням: бит i соответствует дню baseDay + i. Индексируются только дни от baseDay
+ * до lastDay (historyDays назад и futureDays вперёд от текущей даты), окно сдвигается вслед за датой;
+ * запросы, выходящие за его границы, дополнительно проверяются по БД. Для дней, занятых несколькими
+ * бронированиями, хранится их число, чтобы освобождение одного не освобождало день.
+ */
+@Slf4j
+@Component
+public class RoomOccupancyIndex {
+
+    private final RoomReservationRepository roomReservationRepository;
+    private final RoomLocks roomLocks;
+    private final int historyDays;
+    private final int futureDays;
+    private final Counter fallbacks;
+
+    private final Map<UUID, RoomDays> rooms = new ConcurrentHashMap<>();
+    // запись — только при сдвиге окна, остальные операции берут блокировку на чтение
+    private final ReadWriteLock windowLock = new ReentrantReadWriteLock();
+    private long baseDay;
+    private long lastDay;
+
+    public RoomOccupancyIndex(RoomReservationRepository roomReservationRepository,
+                              RoomLocks roomLocks,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.occupancy-index.history-days:366}") int historyDays,
+                              @Value("${app.occupancy-index.future-days:3660}") int futureDays) {
+        this.roomReservationRepository = roomReservationRepository;
+        this.roomLocks = roomLocks;
+        this.historyDays = historyDays;
+        this.futureDays = futureDays;
+        this.fallbacks = meterRegistry.counter("room.occupancy.index.fallbacks");
+        LocalDate today = LocalDate.now();
+        this.baseDay = today.minusDays(historyDays).toEpochDay();
+        this.lastDay = today.plusDays(futureDays).toEpochDay();
+    }
+
+    @PostConstruct
+    public void load() {
+        List<ReservationIntervalDto> intervals = roomReservationRepository.findIntervalsByStatus(RoomStatus.CONFIRMED);
+        intervals.forEach(interval -> occupy(interval.getRoomId(), interval.getStartDate(), interval.getEndDate()));
+        log.info("Loaded {} confirmed reservations into room occupancy index", intervals.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.occupancy-index.advance-interval:1h}",
+            initialDelayString = "${app.occupancy-index.advance-interval:1h}")
+    public void advance() {
+        advance(LocalDate.now());
+    }
+
+    /**
+     * Сдвигает окно так, чтобы оно начиналось за historyDays до today: дни до нового baseDay отбрасываются,
+     * а новые дни в конце окна заполняются из БД.
+     */
+    void advance(LocalDate today) {
+        long newBaseDay = today.minusDays(historyDays).toEpochDay();
+        long newLastDay = today.plusDays(futureDays).toEpochDay();
+        long oldLastDay;
+        windowLock.writeLock().lock();
+        try {
+            if (newBaseDay <= baseDay) {
+                return;
+            }
+            int shift = (int) (newBaseDay - baseDay);
+            rooms.values().forEach(room -> room.shift(shift));
+            rooms.values().removeIf(RoomDays::isEmpty);
+            oldLastDay = lastDay;
+            baseDay = newBaseDay;
+            lastDay = newLastDay;
+        } finally {
+            windowLock.writeLock().unlock();
+        }
+
+        // бронирования, сохранённые до расширения окна, попали в индекс обрезанными по старому lastDay;
+        // новые дни номера перестраиваются из БД под его блокировкой, пока их не меняет occupy/release
+        LocalDate from = LocalDate.ofEpochDay(oldLastDay + 1);
+        LocalDate to = LocalDate.ofEpochDay(newLastDay);
+        List<UUID> roomIds =
+                roomReservationRepository.findRoomIdsWithOverlappingIntervals(RoomStatus.CONFIRMED, from, to);
+        roomIds.forEach(roomId -> roomLocks.withLock(roomId, () -> {
+            rebuild(roomId, from, to);
+            return null;
+        }));
+        log.info("Room occupancy index advanced to {} - {}, {} rooms reloaded", LocalDate.ofEpochDay(newBaseDay), to,
+                roomIds.size());
+    }
+
+    public boolean isFree(UUID roomId, LocalDate startDate, LocalDate endDate) {
+        long start = startDate.toEpochDay();
+        long end = endDate.toEpochDay();
+        windowLock.readLock().lock();
+        try {
+            RoomDays room = rooms.get(roomId);
+            if (room != null && isIndexed(start, end)) {
+                int from = toIndex(start);
+                int to = toIndex(end);
+                synchronized (room) {
+                    int occupied = room.days.nextSetBit(from);
+                    if (occupied >= 0 && occupied <= to) {
+                        return false;
+                    }
+                }
+            }
+            if (isCovered(start, end)) {
+                return true;
+            }
+        } finally {
+            windowLock.readLock().unlock();
+        }
+        return findStored(roomId, startDate, endDate).isEmpty();
+    }
+
+    public void occupy(UUID roomId, LocalDate startDate, LocalDate endDate) {
+        long start = startDate.toEpochDay();
+        long end = endDate.toEpochDay();
+        windowLock.readLock().lock();
+        try {
+            if (!isIndexed(start, end)) {
+                return;
+            }
+            RoomDays room = rooms.computeIfAbsent(roomId, id -> new RoomDays());
+            synchronized (room) {
+                room.occupy(toIndex(start), toIndex(end));
+            }
+        } finally {
+            windowLock.readLock().unlock();
+        }
+    }
+
+    public void release(UUID roomId, LocalDate startDate, LocalDate endDate) {
+        long start = startDate.toEpochDay();
+        long end = endDate.toEpochDay();
+        windowLock.readLock().lock();
+        try {
+            RoomDays room = rooms.get(roomId);
+            if (room != null && isIndexed(start, end)) {
+                synchronized (room) {
+                    room.release(toIndex(start), toIndex(end));
+                }
+            }
+        } finally {
+            windowLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Занятость номера за период [from, to]: бит i соответствует дню from + i.
+     */
+    public BitSet occupancy(UUID roomId, LocalDate from, LocalDate to) {
+        long start = from.toEpochDay();
+        long end = to.toEpochDay();
+        BitSet result = new BitSet();
+        boolean covered;
+        windowLock.readLock().lock();
+        try {
+            RoomDays room = rooms.get(roomId);
+            if (room != null && isIndexed(start, end)) {
+                BitSet slice;
+                synchronized (room) {
+                    slice = room.days.get(toIndex(start), toIndex(end) + 1);
+                }
+                // срез начинается с max(from, baseDay)
+                long offset = Math.max(0, baseDay - start);
+                slice.stream().forEach(day -> result.set((int) (day + offset)));
+            }
+            covered = isCovered(start, end);
+        } finally {
+            windowLock.readLock().unlock();
+        }
+        if (!covered) {
+            findStored(roomId, from, to).forEach(interval -> result.set(
+                    (int) (Math.max(interval.getStartDate().toEpochDay(), start) - start),
+                    (int) (Math.min(interval.getEndDate().toEpochDay(), end) - start) + 1));
+        }
+        return result;
+    }
+
+    private void rebuild(UUID roomId, LocalDate from, LocalDate to) {
+        List<ReservationIntervalDto> intervals =
+                roomReservationRepository.findOverlappingIntervals(roomId, RoomStatus.CONFIRMED, from, to);
+        long start = from.toEpochDay();
+        long end = to.toEpochDay();
+        windowLock.readLock().lock();
+        try {
+            if (!isIndexed(start, end)) {
+                return;
+            }
+            int first = toIndex(start);
+            int last = toIndex(end);
+            RoomDays room = rooms.computeIfAbsent(roomId, id -> new RoomDays());
+            synchronized (room) {
+                room.clear(first, last);
+                intervals.forEach(interval -> room.occupy(
+                        Math.max(toIndex(interval.getStartDate().toEpochDay()), first),
+                        Math.min(toIndex(interval.getEndDate().toEpochDay()), last)));
+            }
+        } finally {
+            windowLock.readLock().unlock();
+        }
+    }
+
+    private List<ReservationIntervalDto> findStored(UUID roomId, LocalDate startDate, LocalDate endDate) {
+        fallbacks.increment();
+        return roomReservationRepository.findOverlappingIntervals(roomId, RoomStatus.CONFIRMED, startDate, endDate);
+    }
+
+    // период хотя бы частично попадает в индекс
+    private boolean isIndexed(long start, long end) {
+        return end >= baseDay && start <= lastDay;
+    }
+
+    // период целиком попадает в индекс
+    private boolean isCovered(long start, long end) {
+        return start >= baseDay && end <= lastDay;
+    }
+
+    // дни вне индекса прижимаются к его границам
+    private int toIndex(long epochDay) {
+        return (int) (Math.min(Math.max(epochDay, baseDay), lastDay) - baseDay);
+    }
+
+    private static final class RoomDays {
+
+        private BitSet days = new BitSet();
+        // сверх первого бронирования: только дни, на которые пересекаются несколько бронирований
+        private Map<Integer, Integer> overlaps = new HashMap<>();
+
+        void occupy(int from, int to) {
+            for (int day = days.nextSetBit(from); day >= 0 && day <= to; day = days.nextSetBit(day + 1)) {
+                overlaps.merge(day, 1, Integer::sum);
+            }
+            days.set(from, to + 1);
+        }
+
+        void release(int from, int to) {
+            for (int day = days.nextSetBit(from); day >= 0 && day <= to; day = days.nextSetBit(day + 1)) {
+                Integer extra = overlaps.get(day);
+                if (extra == null) {
+                    days.clear(day);
+                } else if (extra == 1) {
+                    overlaps.remove(day);
+                } else {
+                    overlaps.put(day, extra - 1);
+                }
+            }
+        }
+
+        void clear(int from, int to) {
+            days.clear(from, to + 1);
+            overlaps.keySet().removeIf(day -> day >= from && day <= to);
+        }
+
+        // вызывается под блокировкой окна на запись
+        void shift(int offset) {
+            days = days.get(offset, Math.max(offset, days.length()));
+            Map<Integer, Integer> shifted = new HashMap<>();
+            overlaps.forEach((day, count) -> {
+                if (day >= offset) {
+                    shifted.put(day - offset, count);
+                }
+            });
+            overlaps = shifted;
+        }
+
+        boolean isEmpty() {
+            return days.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package ru.klimov.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import ru.klimov.dto.RoomDto;
+import ru.klimov.repository.RoomRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+
+/**
+ * Рейтинг номеров по timeBooked. Элементы skip list неизменяемы: при изменении счётчика
+ * сначала добавляется новый элемент, затем удаляется старый, а чтение пропускает устаревшие записи.
+ * Индекс заполняется после старта приложения; до этого запросы читают рейтинг из БД.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoomRankingIndex {
+
+    private static final Comparator<RankEntry> BY_TIME_BOOKED_DESC = Comparator
+            .comparingInt(RankEntry::timeBooked).reversed()
+            .thenComparing(RankEntry::roomId);
+
+    private final RoomRepository roomRepository;
+
+    private final Map<UUID, RoomDto> rooms = new ConcurrentHashMap<>();
+    private final NavigableSet<RankEntry> ranking = new ConcurrentSkipListSet<>(BY_TIME_BOOKED_DESC);
+    private volatile boolean loaded;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<RoomDto> roomDtos = roomRepository.findAllRoomDtos();
+        roomDtos.forEach(this::put);
+        loaded = true;
+        log.info("Loaded {} rooms into room ranking index", roomDtos.size());
+    }
+
+    public List<RoomDto> top(int limit) {
+        if (!loaded) {
+            return roomRepository.findRankedRoomDtos(Limit.of(limit));
+        }
+        return find(room -> true, limit);
+    }
+
+    public List<RoomDto> find(Predicate<RoomDto> filter, int limit) {
+        if (!loaded) {
+            return roomRepository.findRankedRoomDtos(Limit.unlimited()).stream()
+                    .filter(filter)
+                    .limit(limit)
+                    .toList();
+        }
+        List<RoomDto> result = new ArrayList<>(Math.min(limit, rooms.size()));
+        for (RankEntry entry : ranking) {
+            if (result.size() >= limit) {
+                break;
+            }
+            RoomDto room = rooms.get(entry.roomId());
+            if (room != null && room.getTimeBooked() == entry.timeBooked() && filter.test(room)) {
+                result.add(room);
+            }
+        }
+        return result;
+    }
+
+    public void put(RoomDto room) {
+        rooms.compute(room.getId(), (id, previous) -> {
+            ranking.add(new RankEntry(id, room.getTimeBooked()));
+            if (previous != null && !previous.getTimeBooked().equals(room.getTimeBooked())) {
+                ranking.remove(new RankEntry(id, previous.getTimeBooked()));
+            }
+            return room;
+        });
+    }
+
+    public void incrementTimeBooked(UUID roomId) {
+        rooms.computeIfPresent(roomId, (id, previous) -> {
+            RoomDto updated = copyOf(previous);
+            updated.setTimeBooked(previous.getTimeBooked() + 1);
+            ranking.add(new RankEntry(id, updated.getTimeBooked()));
+            ranking.remove(new RankEntry(id, previous.getTimeBooked()));
+            return updated;
+        });
+    }
+
+    private static RoomDto copyOf(RoomDto room) {
+        return RoomDto.builder()
+                .id(room.getId())
+                .number(room.getNumber())
+                .available(room.getAvailable())
+                .timeBooked(room.getTimeBooked())
+                .hotelId(room.getHotelId())
+                .hotelName(room.getHotelName())
+                .build();
+    }
+
+    private record RankEntry(UUID roomId, int timeBooked) {
+    }
+}
@@ -0,0 +1,106 @@
+package ru.klimov.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.klimov.dto.ReservationIntervalDto;
+import ru.klimov.entity.RoomStatus;
+import ru.klimov.repository.RoomReservationRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Индекс подтверждённых бронирований по номерам. Для каждого номера хранятся все бронирования
+ * [startDate, endDate] в виде epoch day (данные в БД могут пересекаться и повторяться) и их объединение
+ * в непересекающиеся интервалы, упорядоченные по началу, по которому проверяется занятость.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoomReservationIndex {
+
+    private final RoomReservationRepository roomReservationRepository;
+
+    private final Map<UUID, RoomIntervals> rooms = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        List<ReservationIntervalDto> intervals = roomReservationRepository.findIntervalsByStatus(RoomStatus.CONFIRMED);
+        intervals.forEach(interval -> add(interval.getRoomId(), interval.getStartDate(), interval.getEndDate()));
+        log.info("Loaded {} confirmed reservations into room reservation index", intervals.size());
+    }
+
+    public boolean isAvailable(UUID roomId, LocalDate startDate, LocalDate endDate) {
+        RoomIntervals intervals = rooms.get(roomId);
+        return intervals == null || !intervals.overlaps(startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    public void add(UUID roomId, LocalDate startDate, LocalDate endDate) {
+        rooms.computeIfAbsent(roomId, id -> new RoomIntervals())
+                .add(startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    public void remove(UUID roomId, LocalDate startDate, LocalDate endDate) {
+        RoomIntervals intervals = rooms.get(roomId);
+        if (intervals != null) {
+            intervals.remove(startDate.toEpochDay(), endDate.toEpochDay());
+        }
+    }
+
+    private static final class RoomIntervals {
+
+        // начало -> концы всех бронирований с этим началом
+        private final TreeMap<Long, List<Long>> reservations = new TreeMap<>();
+        // объединение reservations: начало -> конец непересекающихся интервалов
+        private final TreeMap<Long, Long> occupied = new TreeMap<>();
+
+        // Интервалы occupied не пересекаются, поэтому достаточно проверить последний интервал, начавшийся не позже end
+        synchronized boolean overlaps(long start, long end) {
+            Map.Entry<Long, Long> floor = occupied.floorEntry(end);
+            return floor != null && floor.getValue() >= start;
+        }
+
+        synchronized void add(long start, long end) {
+            reservations.computeIfAbsent(start, key -> new ArrayList<>()).add(end);
+            occupy(start, end);
+        }
+
+        synchronized void remove(long start, long end) {
+            List<Long> ends = reservations.get(start);
+            if (ends == null || !ends.remove(Long.valueOf(end))) {
+                return;
+            }
+            if (ends.isEmpty()) {
+                reservations.remove(start);
+            }
+            // объединённый интервал, содержавший бронирование, собирается заново из оставшихся
+            Map.Entry<Long, Long> block = occupied.floorEntry(start);
+            occupied.remove(block.getKey());
+            reservations.subMap(block.getKey(), true, block.getValue(), true)
+                    .forEach((blockStart, blockEnds) -> blockEnds.forEach(blockEnd -> occupy(blockStart, blockEnd)));
+        }
+
+        private void occupy(long start, long end) {
+            long mergedStart = start;
+            long mergedEnd = end;
+            Map.Entry<Long, Long> floor = occupied.floorEntry(start);
+            if (floor != null && floor.getValue() >= start) {
+                mergedStart = floor.getKey();
+                mergedEnd = Math.max(mergedEnd, floor.getValue());
+            }
+            Map<Long, Long> covered = occupied.subMap(mergedStart, true, end, true);
+            for (long coveredEnd : covered.values()) {
+                mergedEnd = Math.max(mergedEnd, coveredEnd);
+            }
+            covered.clear();
+            occupied.put(mergedStart, mergedEnd);
+        }
+    }
+}
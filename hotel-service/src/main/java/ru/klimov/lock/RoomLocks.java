@@ -0,0 +1,54 @@
+package ru.klimov.lock;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+@Component
+public class RoomLocks {
+
+    private final Map<UUID, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    public <T> T withLock(UUID roomId, Supplier<T> action) {
+        ReentrantLock lock = lockFor(roomId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Захватывает блокировки всех номеров в порядке возрастания id, чтобы параллельные пакеты не взаимоблокировались.
+     */
+    public <T> T withLocks(Collection<UUID> roomIds, Supplier<T> action) {
+        List<ReentrantLock> acquired = roomIds.stream()
+                .distinct()
+                .sorted()
+                .map(this::lockFor)
+                .toList();
+        int locked = 0;
+        try {
+            for (ReentrantLock lock : acquired) {
+                lock.lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                acquired.get(i).unlock();
+            }
+        }
+    }
+
+    private ReentrantLock lockFor(UUID roomId) {
+        return locks.computeIfAbsent(roomId, id -> new ReentrantLock());
+    }
+}
@@ -1,11 +1,18 @@
 package ru.klimov.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.klimov.entity.Hotel;
 
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface HotelRepository extends JpaRepository<Hotel, UUID> {
+
+    @EntityGraph(attributePaths = "rooms")
+    @Query("select h from Hotel h")
+    List<Hotel> findAllWithRooms();
 }
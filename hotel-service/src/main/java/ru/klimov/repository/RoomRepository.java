@@ -1,7 +1,12 @@
 package ru.klimov.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.klimov.dto.RoomDto;
 import ru.klimov.entity.Room;
 
 import java.util.List;
@@ -10,5 +15,31 @@ import java.util.UUID;
 @Repository
 public interface RoomRepository extends JpaRepository<Room, UUID> {
 
-    List<Room> findAllByOrderByTimeBookedDesc();
+    @Query("select new ru.klimov.dto.RoomDto(r.id, r.number, r.available, r.timeBooked, h.id, h.name) " +
+            "from Room r left join r.hotel h")
+    List<RoomDto> findAllRoomDtos();
+
+    @Query("select new ru.klimov.dto.RoomDto(r.id, r.number, r.available, r.timeBooked, h.id, h.name) " +
+            "from Room r left join r.hotel h order by r.timeBooked desc, r.id")
+    List<RoomDto> findRankedRoomDtos(Limit limit);
+
+    @Query("select new ru.klimov.dto.RoomDto(r.id, r.number, r.available, r.timeBooked, h.id, h.name) " +
+            "from Room r left join r.hotel h where r.available = true order by r.id")
+    List<RoomDto> findAvailableRoomDtos(Limit limit);
+
+    @Query("select new ru.klimov.dto.RoomDto(r.id, r.number, r.available, r.timeBooked, h.id, h.name) " +
+            "from Room r left join r.hotel h where r.available = true and r.id > :after order by r.id")
+    List<RoomDto> findAvailableRoomDtosAfter(@Param("after") UUID after, Limit limit);
+
+    @Query("select new ru.klimov.dto.RoomDto(r.id, r.number, r.available, r.timeBooked, h.id, h.name) " +
+            "from Room r join r.hotel h where h.id = :hotelId order by r.number, r.id")
+    List<RoomDto> findRoomDtosByHotelId(@Param("hotelId") UUID hotelId);
+
+    @Modifying
+    @Query("update Room r set r.timeBooked = r.timeBooked + 1 where r.id = :id")
+    int incrementTimeBooked(@Param("id") UUID id);
+
+    @Modifying
+    @Query("update Room r set r.timeBooked = r.timeBooked + :count where r.id = :id")
+    int incrementTimeBookedBy(@Param("id") UUID id, @Param("count") int count);
 }
@@ -0,0 +1,35 @@
+package ru.klimov.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.klimov.dto.RoomReservationDto;
+import ru.klimov.entity.RoomReservationArchive;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface RoomReservationArchiveRepository extends JpaRepository<RoomReservationArchive, UUID> {
+
+    Optional<RoomReservationArchive> findByRequestId(UUID requestId);
+
+    boolean existsByRequestId(UUID requestId);
+
+    @Query("select a.requestId from RoomReservationArchive a where a.requestId is not null order by a.requestId")
+    List<UUID> findRequestIds(Limit limit);
+
+    @Query("select a.requestId from RoomReservationArchive a where a.requestId > :after order by a.requestId")
+    List<UUID> findRequestIdsAfter(@Param("after") UUID after, Limit limit);
+
+    @Query("select a.requestId from RoomReservationArchive a where a.requestId in :requestIds")
+    List<UUID> findExistingRequestIds(@Param("requestIds") Collection<UUID> requestIds);
+
+    @Query("select new ru.klimov.dto.RoomReservationDto(a.requestId, a.roomId, a.startDate, a.endDate, a.status, true) " +
+            "from RoomReservationArchive a where a.requestId in :requestIds")
+    List<RoomReservationDto> findReservationDtos(@Param("requestIds") Collection<UUID> requestIds);
+}
@@ -1,12 +1,20 @@
 package ru.klimov.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import ru.klimov.entity.Room;
+import ru.klimov.dto.ArchiveCandidateDto;
+import ru.klimov.dto.ReservationIntervalDto;
+import ru.klimov.dto.RoomReservationDto;
 import ru.klimov.entity.RoomReservation;
 import ru.klimov.entity.RoomStatus;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,9 +24,56 @@ public interface RoomReservationRepository extends JpaRepository<RoomReservation
 
     Optional<RoomReservation> findByRequestId(UUID requestId);
 
-    List<RoomReservation> findByRoomAndStatusAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
-            Room room,
-            RoomStatus status,
-            LocalDate startDate,
-            LocalDate endDate);
+    @Query("select r.requestId from RoomReservation r where r.requestId is not null order by r.requestId")
+    List<UUID> findRequestIds(Limit limit);
+
+    @Query("select r.requestId from RoomReservation r where r.requestId > :after order by r.requestId")
+    List<UUID> findRequestIdsAfter(@Param("after") UUID after, Limit limit);
+
+    @Query("select r.requestId from RoomReservation r where r.requestId in :requestIds")
+    List<UUID> findExistingRequestIds(@Param("requestIds") Collection<UUID> requestIds);
+
+    @Query("select new ru.klimov.dto.RoomReservationDto(r.requestId, r.room.id, r.startDate, r.endDate, r.status, false) " +
+            "from RoomReservation r where r.requestId in :requestIds")
+    List<RoomReservationDto> findReservationDtos(@Param("requestIds") Collection<UUID> requestIds);
+
+    @Query("select new ru.klimov.dto.ReservationIntervalDto(r.room.id, r.startDate, r.endDate) " +
+            "from RoomReservation r where r.status = :status")
+    List<ReservationIntervalDto> findIntervalsByStatus(@Param("status") RoomStatus status);
+
+    @Query("select new ru.klimov.dto.ReservationIntervalDto(r.room.id, r.startDate, r.endDate) " +
+            "from RoomReservation r where r.room.id = :roomId and r.status = :status " +
+            "and r.startDate <= :endDate and r.endDate >= :startDate")
+    List<ReservationIntervalDto> findOverlappingIntervals(@Param("roomId") UUID roomId,
+                                                         @Param("status") RoomStatus status,
+                                                         @Param("startDate") LocalDate startDate,
+                                                         @Param("endDate") LocalDate endDate);
+
+    @Query("select distinct r.room.id from RoomReservation r where r.status = :status " +
+            "and r.startDate <= :endDate and r.endDate >= :startDate")
+    List<UUID> findRoomIdsWithOverlappingIntervals(@Param("status") RoomStatus status,
+                                                   @Param("startDate") LocalDate startDate,
+                                                   @Param("endDate") LocalDate endDate);
+
+    @Modifying
+    @Query("update RoomReservation r set r.status = :newStatus where r.requestId = :requestId and r.status = :oldStatus")
+    int updateStatus(@Param("requestId") UUID requestId,
+                     @Param("oldStatus") RoomStatus oldStatus,
+                     @Param("newStatus") RoomStatus newStatus);
+
+    @Query("select new ru.klimov.dto.ArchiveCandidateDto(r.id, r.room.id, r.startDate, r.endDate, r.status) " +
+            "from RoomReservation r where r.status = :status or r.endDate < :before order by r.id")
+    List<ArchiveCandidateDto> findArchiveCandidates(@Param("status") RoomStatus status,
+                                                    @Param("before") LocalDate before,
+                                                    Limit limit);
+
+    @Modifying
+    @Query("insert into RoomReservationArchive (id, requestId, roomId, startDate, endDate, status, archivedAt) " +
+            "select r.id, r.requestId, r.room.id, r.startDate, r.endDate, r.status, :archivedAt " +
+            "from RoomReservation r where r.id in :ids")
+    int copyToArchive(@Param("ids") Collection<UUID> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Modifying
+    @Query("delete from RoomReservation r where r.id in :ids")
+    int deleteAllByIds(@Param("ids") Collection<UUID> ids);
 }
@@ -1,37 +1,109 @@
 package ru.klimov.security;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.beans.factory.annotation.Value;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
 
 @Component
 @Slf4j
 public class JwtUtil {
 
+    private static final String SERVICE_SUBJECT = "hotel-service";
+    private static final String SERVICE_ROLE = "SERVICE";
+
     @Value("${app.jwt.secret}")
     private String secret;
 
+    @Value("${app.jwt.expiration}")
+    private Long tokenExpirationMills;
+
+    private Key signingKey;
+
+    private volatile String serviceToken;
+    private volatile long serviceTokenRefreshAt;
+
+    @PostConstruct
+    public void init() {
+        // ключ строится один раз так же, как jjwt строит его из строки секрета
+        signingKey = new SecretKeySpec(TextCodec.BASE64.decode(secret), SignatureAlgorithm.HS512.getJcaName());
+    }
+
+    /**
+     * Токен самого hotel-service для вызовов booking-service из фоновых задач. Роль SERVICE не даёт доступа
+     * к пользовательским эндпоинтам. Перевыпускается, когда прошла половина срока его действия.
+     */
+    public String serviceToken() {
+        long now = System.currentTimeMillis();
+        String token = serviceToken;
+        if (token == null || now >= serviceTokenRefreshAt) {
+            token = Jwts.builder()
+                    .setId(UUID.randomUUID().toString())
+                    .setSubject(SERVICE_SUBJECT)
+                    .claim("role", SERVICE_ROLE)
+                    .setIssuedAt(new Date(now))
+                    .setExpiration(new Date(now + tokenExpirationMills))
+                    .signWith(SignatureAlgorithm.HS512, signingKey)
+                    .compact();
+            serviceToken = token;
+            serviceTokenRefreshAt = now + tokenExpirationMills / 2;
+        }
+        return token;
+    }
+
     public String getUserLogin(String token) {
-        return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody().getSubject();
+        return parseClaims(token).getSubject();
     }
 
     public boolean isValidToken(String token) {
+        return verify(token) != null;
+    }
+
+    public String getRole(String token) {
+        return (String) parseClaims(token).get("role");
+    }
+
+    /**
+     * Проверяет подпись и срок действия токена за один разбор. Возвращает null для невалидного токена.
+     */
+    public VerifiedToken verify(String token) {
         try {
-            Jwts.parser().setSigningKey(secret).parseClaimsJws(token);
-            return true;
+            Claims claims = parseClaims(token);
+            return new VerifiedToken(claims.getSubject(), (String) claims.get("role"),
+                    toInstant(claims.getExpiration()), parseId(claims.getId()), toInstant(claims.getIssuedAt()));
         } catch (Exception ex) {
             log.error("JWT validation error: {}", ex.getMessage());
         }
-        return false;
+        return null;
     }
 
-    public String getRole(String token) {
-        return (String) Jwts.parser()
-                .setSigningKey(secret)
-                .parseClaimsJws(token)
-                .getBody()
-                .get("role");
+    private Claims parseClaims(String token) {
+        return Jwts.parser().setSigningKey(signingKey).parseClaimsJws(token).getBody();
+    }
+
+    private static Instant toInstant(Date date) {
+        return date == null ? null : date.toInstant();
+    }
+
+    private static UUID parseId(String id) {
+        if (id == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
     }
 }
@@ -0,0 +1,28 @@
+package ru.klimov.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Подписывает запросы hotel-service к booking-service сервисным токеном: все они выполняются фоновыми задачами.
+ */
+@Component
+@RequiredArgsConstructor
+public class ServiceTokenInterceptor implements ClientHttpRequestInterceptor {
+
+    private final JwtUtil jwtUtil;
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        request.getHeaders().add(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.serviceToken());
+        return execution.execute(request, body);
+    }
+}
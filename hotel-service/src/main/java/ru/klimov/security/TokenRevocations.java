@@ -0,0 +1,88 @@
+package ru.klimov.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import ru.klimov.dto.RevokedTokenDto;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Список отзыва JWT, который ведёт booking-service. Проверка выполняется только по {@link RevocationIndex}
+ * в памяти; новые записи забираются из {@code GET /auth/revocations} по (revokedAt, id) раз в sync-interval,
+ * каждый раз с запасом sync-overlap назад, чтобы не пропустить строки, зафиксированные с опозданием.
+ * Пока booking-service недоступен, действует последний загруженный список.
+ */
+@Slf4j
+@Component
+public class TokenRevocations {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final RestTemplate bookingServiceRestTemplate;
+    private final String revocationsUrl;
+    private final RevocationIndex index = new RevocationIndex();
+    private final Duration syncOverlap;
+    private final Counter denied;
+    private volatile Instant syncedUntil = Instant.EPOCH;
+
+    public TokenRevocations(RestTemplate bookingServiceRestTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.revocation.source:http://booking-service}") String source,
+                            @Value("${app.revocation.sync-overlap:1m}") Duration syncOverlap) {
+        this.bookingServiceRestTemplate = bookingServiceRestTemplate;
+        this.revocationsUrl = source + "/auth/revocations?since={since}&afterId={afterId}&limit={limit}";
+        this.syncOverlap = syncOverlap;
+        this.denied = meterRegistry.counter("auth.revocations.denied");
+        Gauge.builder("auth.revocations", index, RevocationIndex::size).register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.revocation.sync-interval:10s}")
+    public synchronized void sync() {
+        Instant revokedAt = syncedUntil.minus(syncOverlap);
+        long id = 0;
+        try {
+            RevokedTokenDto[] page;
+            do {
+                page = bookingServiceRestTemplate.getForObject(revocationsUrl, RevokedTokenDto[].class,
+                        revokedAt, id, PAGE_SIZE);
+                if (page == null) {
+                    break;
+                }
+                for (RevokedTokenDto revoked : page) {
+                    index.add(revoked.getTokenKey(), revoked.getRevokedAt(), revoked.getExpiresAt());
+                    revokedAt = revoked.getRevokedAt();
+                    id = revoked.getId();
+                }
+            } while (page.length == PAGE_SIZE);
+        } catch (RestClientException ex) {
+            log.warn("Failed to sync token revocations from booking-service: {}", ex.getMessage());
+        }
+        // загруженные до ошибки страницы тоже учитываются, следующий раз чтение продолжится с них
+        if (revokedAt.isAfter(syncedUntil)) {
+            syncedUntil = revokedAt;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.revocation.purge-interval:10m}",
+            initialDelayString = "${app.revocation.purge-interval:10m}")
+    public void purgeExpired() {
+        int removed = index.purgeExpired(Instant.now());
+        log.info("Purged {} expired token revocations", removed);
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        boolean revoked = index.isRevoked(token.login(), token.id(), token.issuedAt());
+        if (revoked) {
+            denied.increment();
+        }
+        return revoked;
+    }
+}
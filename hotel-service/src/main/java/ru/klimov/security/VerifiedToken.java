@@ -0,0 +1,11 @@
+package ru.klimov.security;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Проверенные данные JWT: логин, роль, момент истечения (null, если в токене нет exp),
+ * jti и момент выпуска (null, если их нет в токене).
+ */
+public record VerifiedToken(String login, String role, Instant expiresAt, UUID id, Instant issuedAt) {
+}
@@ -0,0 +1,255 @@
+package ru.klimov.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.klimov.cache.CatalogCache;
+import ru.klimov.controller.payload.RoomPayload;
+import ru.klimov.dto.HotelImportResultDto;
+import ru.klimov.dto.RoomDto;
+import ru.klimov.entity.Hotel;
+import ru.klimov.entity.Room;
+import ru.klimov.exception.HotelImportException;
+import ru.klimov.index.RoomRankingIndex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Потоковый импорт отелей из NDJSON. Каждая строка — {@code {"hotel":{...}}} или {@code {"room":{...}}};
+ * номер без hotelId относится к последнему отелю выше по потоку. Поток разбирается по токенам, в том числе
+ * массив rooms внутри отеля, поэтому он должен идти после name и address. Отели и номера пишутся порциями
+ * по chunkSize, каждая порция — в своей транзакции JDBC-батчами с flush/clear контекста, так что память
+ * не зависит ни от размера загрузки, ни от числа номеров в одной строке. При ошибке уже зафиксированные
+ * порции остаются, а {@link HotelImportException} сообщает, сколько их и на какой строке импорт прерван.
+ */
+@Slf4j
+@Service
+public class HotelImportService {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final RoomRankingIndex roomRankingIndex;
+    private final CatalogCache catalogCache;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader roomReader;
+    private final int batchSize;
+    private final int chunkSize;
+
+    public HotelImportService(EntityManager entityManager,
+                              TransactionTemplate transactionTemplate,
+                              RoomRankingIndex roomRankingIndex,
+                              CatalogCache catalogCache,
+                              ObjectMapper objectMapper,
+                              @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+                              @Value("${app.import.chunk-size:1000}") int chunkSize) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.roomRankingIndex = roomRankingIndex;
+        this.catalogCache = catalogCache;
+        this.objectMapper = objectMapper;
+        this.roomReader = objectMapper.readerFor(RoomPayload.class);
+        this.batchSize = batchSize;
+        this.chunkSize = chunkSize;
+    }
+
+    public HotelImportResultDto importHotels(InputStream input) {
+        log.info("Starting NDJSON hotel import");
+        ImportState state = new ImportState();
+        try (JsonParser parser = objectMapper.createParser(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            while (parser.nextToken() != null) {
+                readLine(parser, state);
+            }
+            persistChunk(state);
+        } catch (JsonProcessingException ex) {
+            long line = ex.getLocation() != null ? ex.getLocation().getLineNr() : state.line;
+            log.error("Hotel import failed: malformed line {}", line);
+            throw failure(state, line, "Malformed JSON at line " + line, ex);
+        } catch (IOException ex) {
+            log.error("Hotel import failed after {} lines", state.line, ex);
+            throw failure(state, state.line, "Failed to read import stream", ex);
+        } catch (RuntimeException ex) {
+            log.error("Hotel import failed at line {}: {}", state.line, ex.getMessage());
+            throw failure(state, state.line, ex.getMessage(), ex);
+        }
+        log.info("Hotel import finished: {} lines, {} hotels, {} rooms", state.line, state.hotels, state.rooms);
+        return HotelImportResultDto.builder()
+                .lines(state.line)
+                .hotels(state.hotels)
+                .rooms(state.rooms)
+                .build();
+    }
+
+    private void readLine(JsonParser parser, ImportState state) throws IOException {
+        state.line = parser.currentLocation().getLineNr();
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Line " + state.line + " must be a JSON object");
+        }
+        int entries = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("hotel".equals(field)) {
+                readHotel(parser, state);
+                entries++;
+            } else if ("room".equals(field)) {
+                add(new ImportItem(state.line, null, roomReader.readValue(parser)), state);
+                entries++;
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (entries != 1) {
+            throw new IllegalArgumentException("Line " + state.line + " must contain either hotel or room");
+        }
+    }
+
+    private void readHotel(JsonParser parser, ImportState state) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Line " + state.line + ": hotel must be a JSON object");
+        }
+        Hotel hotel = new Hotel();
+        boolean added = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (("name".equals(field) || "address".equals(field)) && added) {
+                throw new IllegalArgumentException("Line " + state.line + ": hotel rooms must follow name and address");
+            }
+            if ("name".equals(field)) {
+                hotel.setName(parser.getValueAsString());
+            } else if ("address".equals(field)) {
+                hotel.setAddress(parser.getValueAsString());
+            } else if ("rooms".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                add(new ImportItem(state.line, hotel, null), state);
+                added = true;
+                // номера читаются по одному и уходят в порции, массив целиком в памяти не держится
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    add(new ImportItem(parser.currentLocation().getLineNr(), null, roomReader.readValue(parser)), state);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (!added) {
+            add(new ImportItem(state.line, hotel, null), state);
+        }
+    }
+
+    private void add(ImportItem item, ImportState state) {
+        state.chunk.add(item);
+        if (state.chunk.size() >= chunkSize) {
+            persistChunk(state);
+        }
+    }
+
+    private void persistChunk(ImportState state) {
+        List<ImportItem> chunk = state.chunk;
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<RoomDto> importedRooms = new ArrayList<>();
+        long parsedLine = state.line;
+        transactionTemplate.executeWithoutResult(status -> {
+            int pending = 0;
+            for (ImportItem item : chunk) {
+                state.line = item.line();
+                if (item.hotel() != null) {
+                    persistHotel(item.hotel(), state);
+                } else {
+                    persistRoom(item.room(), state, importedRooms);
+                }
+                if (++pending >= batchSize) {
+                    flushAndClear();
+                    pending = 0;
+                }
+            }
+            flushAndClear();
+        });
+        state.line = parsedLine;
+        state.committedLines = chunk.get(chunk.size() - 1).line();
+        state.hotels += chunk.stream().filter(item -> item.hotel() != null).count();
+        state.rooms += importedRooms.size();
+        importedRooms.forEach(roomRankingIndex::put);
+        catalogCache.invalidate();
+        chunk.clear();
+        log.info("Hotel import progress: {} lines, {} hotels, {} rooms", state.committedLines, state.hotels, state.rooms);
+    }
+
+    private void persistHotel(Hotel hotel, ImportState state) {
+        entityManager.persist(hotel);
+        state.currentHotelId = hotel.getId();
+        state.currentHotelName = hotel.getName();
+    }
+
+    private void persistRoom(RoomPayload payload, ImportState state, List<RoomDto> importedRooms) {
+        if (payload.getHotelId() != null && !payload.getHotelId().equals(state.currentHotelId)) {
+            Hotel hotel = entityManager.find(Hotel.class, payload.getHotelId());
+            if (hotel == null) {
+                log.error("Hotel import failed: hotel {} not found", payload.getHotelId());
+                throw new IllegalArgumentException("Hotel not found: " + payload.getHotelId());
+            }
+            state.currentHotelId = hotel.getId();
+            state.currentHotelName = hotel.getName();
+        }
+        if (state.currentHotelId == null) {
+            throw new IllegalArgumentException("Room " + payload.getNumber() + " has no hotel");
+        }
+
+        Room room = new Room();
+        room.setNumber(payload.getNumber());
+        room.setAvailable(payload.getAvailable());
+        room.setTimeBooked(0);
+        room.setHotel(entityManager.getReference(Hotel.class, state.currentHotelId));
+        entityManager.persist(room);
+        importedRooms.add(RoomDto.builder()
+                .id(room.getId())
+                .number(room.getNumber())
+                .available(room.getAvailable())
+                .timeBooked(0)
+                .hotelId(state.currentHotelId)
+                .hotelName(state.currentHotelName)
+                .build());
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static HotelImportException failure(ImportState state, long line, String error, Exception cause) {
+        return new HotelImportException(HotelImportResultDto.builder()
+                .lines(state.committedLines)
+                .hotels(state.hotels)
+                .rooms(state.rooms)
+                .failedLine(line)
+                .error(error)
+                .build(), cause);
+    }
+
+    // отель или номер с номером строки, из которой он прочитан; у номера из массива rooms — строка самого номера
+    private record ImportItem(long line, Hotel hotel, RoomPayload room) {
+    }
+
+    private static class ImportState {
+        private final List<ImportItem> chunk = new ArrayList<>();
+        private long line;
+        private long committedLines;
+        private long hotels;
+        private long rooms;
+        private UUID currentHotelId;
+        private String currentHotelName;
+    }
+}
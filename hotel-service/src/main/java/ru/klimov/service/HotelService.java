@@ -3,13 +3,24 @@ package ru.klimov.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ru.klimov.cache.CatalogCache;
 import ru.klimov.controller.payload.HotelPayload;
 import ru.klimov.dto.HotelDto;
+import ru.klimov.dto.HotelOccupancyDto;
+import ru.klimov.dto.RoomDto;
+import ru.klimov.dto.RoomOccupancyDto;
 import ru.klimov.entity.Hotel;
 import ru.klimov.entity.Room;
+import ru.klimov.index.RoomOccupancyIndex;
+import ru.klimov.index.RoomRankingIndex;
 import ru.klimov.mapper.HotelMapper;
+import ru.klimov.mapper.RoomMapper;
 import ru.klimov.repository.HotelRepository;
+import ru.klimov.repository.RoomRepository;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
@@ -21,14 +32,22 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class HotelService {
 
+    private static final String HOTELS_KEY = "hotels";
+    private static final int MAX_OCCUPANCY_DAYS = 366;
+
     private final HotelRepository hotelRepository;
     private final HotelMapper mapper;
+    private final RoomMapper roomMapper;
+    private final RoomRankingIndex roomRankingIndex;
+    private final RoomOccupancyIndex roomOccupancyIndex;
+    private final RoomRepository roomRepository;
+    private final CatalogCache catalogCache;
 
     public List<HotelDto> getAllHotels() {
         log.info("Fetching all hotels");
-        return hotelRepository.findAll().stream()
+        return catalogCache.get(HOTELS_KEY, () -> hotelRepository.findAllWithRooms().stream()
                 .map(mapper::toDto)
-                .toList();
+                .toList());
     }
 
     public HotelDto createHotel(HotelPayload hotelPayload) {
@@ -49,7 +68,41 @@ public class HotelService {
             hotel.setRooms(rooms);
         }
         Hotel savedHotel = hotelRepository.save(hotel);
+        catalogCache.invalidate();
+        if (savedHotel.getRooms() != null) {
+            savedHotel.getRooms().forEach(room -> roomRankingIndex.put(roomMapper.toDto(room)));
+        }
         log.info("Hotel {} successfully created with id {}", savedHotel.getName(), savedHotel.getId());
         return mapper.toDto(savedHotel);
     }
+
+    public HotelOccupancyDto getOccupancy(UUID hotelId, LocalDate from, LocalDate to) {
+        log.info("Fetching occupancy of hotel {} from {} to {}", hotelId, from, to);
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("From must be before To");
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > MAX_OCCUPANCY_DAYS) {
+            throw new IllegalArgumentException("Occupancy range must not exceed " + MAX_OCCUPANCY_DAYS + " days");
+        }
+        List<RoomDto> rooms = roomRepository.findRoomDtosByHotelId(hotelId);
+        if (rooms.isEmpty() && !hotelRepository.existsById(hotelId)) {
+            throw new IllegalArgumentException("Hotel not found");
+        }
+        int bytes = (int) ((days + 7) / 8);
+        List<RoomOccupancyDto> occupancy = rooms.stream()
+                .map(room -> RoomOccupancyDto.builder()
+                        .roomId(room.getId())
+                        .number(room.getNumber())
+                        .occupancy(Arrays.copyOf(roomOccupancyIndex.occupancy(room.getId(), from, to).toByteArray(), bytes))
+                        .build())
+                .toList();
+        return HotelOccupancyDto.builder()
+                .hotelId(hotelId)
+                .from(from)
+                .to(to)
+                .days((int) days)
+                .rooms(occupancy)
+                .build();
+    }
 }
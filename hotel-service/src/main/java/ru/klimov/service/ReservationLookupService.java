@@ -0,0 +1,88 @@
+package ru.klimov.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.klimov.bloom.RequestIdBloomFilter;
+import ru.klimov.dto.RoomReservationDto;
+import ru.klimov.repository.RoomReservationArchiveRepository;
+import ru.klimov.repository.RoomReservationRepository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Пакетный поиск бронирований по requestId. Список обрабатывается порциями по chunkSize: requestId, которых нет
+ * в фильтре Блума, отбрасываются без запроса, остальные ищутся одним IN-запросом к основной таблице и, для
+ * ненайденных, к архиву. Результаты отдаются потребителю по порциям и в памяти целиком не собираются.
+ */
+@Slf4j
+@Service
+public class ReservationLookupService {
+
+    private final RoomReservationRepository roomReservationRepository;
+    private final RoomReservationArchiveRepository roomReservationArchiveRepository;
+    private final RequestIdBloomFilter requestIdBloomFilter;
+    private final int maxSize;
+    private final int chunkSize;
+
+    public ReservationLookupService(RoomReservationRepository roomReservationRepository,
+                                    RoomReservationArchiveRepository roomReservationArchiveRepository,
+                                    RequestIdBloomFilter requestIdBloomFilter,
+                                    @Value("${app.reservation-lookup.max-size:100000}") int maxSize,
+                                    @Value("${app.reservation-lookup.chunk-size:1000}") int chunkSize) {
+        this.roomReservationRepository = roomReservationRepository;
+        this.roomReservationArchiveRepository = roomReservationArchiveRepository;
+        this.requestIdBloomFilter = requestIdBloomFilter;
+        this.maxSize = maxSize;
+        this.chunkSize = chunkSize;
+    }
+
+    public void validate(List<UUID> requestIds) {
+        if (requestIds == null || requestIds.isEmpty() || requestIds.size() > maxSize) {
+            log.error("Invalid reservation lookup size: {}", requestIds == null ? 0 : requestIds.size());
+            throw new IllegalArgumentException("Lookup must contain from 1 to " + maxSize + " requestIds");
+        }
+    }
+
+    /**
+     * Передаёт найденные бронирования потребителю порциями. Неизвестные requestId в результат не попадают.
+     */
+    public void findReservations(List<UUID> requestIds, Consumer<List<RoomReservationDto>> consumer) {
+        validate(requestIds);
+        log.info("Looking up {} reservations by requestId", requestIds.size());
+        int found = 0;
+        for (int from = 0; from < requestIds.size(); from += chunkSize) {
+            List<RoomReservationDto> chunk = findChunk(requestIds.subList(from, Math.min(from + chunkSize, requestIds.size())));
+            if (!chunk.isEmpty()) {
+                found += chunk.size();
+                consumer.accept(chunk);
+            }
+        }
+        log.info("Reservation lookup finished: {} of {} found", found, requestIds.size());
+    }
+
+    private List<RoomReservationDto> findChunk(List<UUID> requestIds) {
+        Set<UUID> candidates = new LinkedHashSet<>();
+        for (UUID requestId : requestIds) {
+            if (requestId != null && requestIdBloomFilter.mightContain(requestId)) {
+                candidates.add(requestId);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        List<RoomReservationDto> reservations = new ArrayList<>(roomReservationRepository.findReservationDtos(candidates));
+        if (reservations.size() < candidates.size()) {
+            reservations.forEach(reservation -> candidates.remove(reservation.getRequestId()));
+            List<RoomReservationDto> archived = roomReservationArchiveRepository.findReservationDtos(candidates);
+            reservations.addAll(archived);
+            requestIdBloomFilter.recordFalsePositives(candidates.size() - archived.size());
+        }
+        return reservations;
+    }
+}
@@ -2,26 +2,53 @@ package ru.klimov.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.klimov.bloom.RequestIdBloomFilter;
 import ru.klimov.controller.payload.RoomReservationPayload;
+import ru.klimov.dto.RoomReservationDto;
+import ru.klimov.dto.RoomReservationResultDto;
 import ru.klimov.entity.Room;
 import ru.klimov.entity.RoomReservation;
 import ru.klimov.entity.RoomStatus;
+import ru.klimov.index.RoomOccupancyIndex;
+import ru.klimov.index.RoomRankingIndex;
+import ru.klimov.index.RoomReservationIndex;
+import ru.klimov.lock.RoomLocks;
 import ru.klimov.repository.RoomRepository;
+import ru.klimov.repository.RoomReservationArchiveRepository;
 import ru.klimov.repository.RoomReservationRepository;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RoomReservationService {
 
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final RoomService roomService;
     private final RoomReservationRepository roomReservationRepository;
+    private final RoomReservationArchiveRepository roomReservationArchiveRepository;
     private final RoomRepository roomRepository;
+    private final RoomReservationIndex roomReservationIndex;
+    private final RoomRankingIndex roomRankingIndex;
+    private final RoomOccupancyIndex roomOccupancyIndex;
+    private final RequestIdBloomFilter requestIdBloomFilter;
+    private final RoomLocks roomLocks;
+    private final TransactionTemplate transactionTemplate;
 
     public boolean confirmAvailability(UUID roomId, RoomReservationPayload reservationPayload) {
         log.info("Checking availability for roomId: {} and requestId: {}", roomId, reservationPayload.getRequestId());
@@ -32,49 +59,257 @@ public class RoomReservationService {
         });
 
         UUID requestId = UUID.fromString(reservationPayload.getRequestId());
-        Optional<RoomReservation> optionalRoomReservation = roomReservationRepository.findByRequestId(requestId);
-        if (optionalRoomReservation.isPresent()) {
+        if (isKnownRequestId(requestId)) {
             log.warn("Reservation with requestId {} already exists", requestId);
             return false;
         }
 
-        List<RoomReservation> roomReservations = roomReservationRepository.findByRoomAndStatusAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
-                room,
-                RoomStatus.CONFIRMED,
-                reservationPayload.getStartDate(),
-                reservationPayload.getEndDate()
-        );
+        LocalDate startDate = reservationPayload.getStartDate();
+        LocalDate endDate = reservationPayload.getEndDate();
+        validateDates(startDate, endDate);
+
+        return roomLocks.withLock(roomId, () -> reserve(room, roomId, requestId, startDate, endDate));
+    }
 
-        if (!roomReservations.isEmpty()) {
+    private boolean reserve(Room room, UUID roomId, UUID requestId, LocalDate startDate, LocalDate endDate) {
+        if (!roomReservationIndex.isAvailable(roomId, startDate, endDate)) {
             log.warn("Room {} is already booked for the specified dates", roomId);
             return false;
         }
 
-        RoomReservation roomReservation = new RoomReservation();
-        roomReservation.setRequestId(requestId);
-        roomReservation.setRoom(room);
-        roomReservation.setStartDate(reservationPayload.getStartDate());
-        roomReservation.setEndDate(reservationPayload.getEndDate());
-        roomReservation.setStatus(RoomStatus.CONFIRMED);
-        roomReservationRepository.save(roomReservation);
-        
-        room.setTimeBooked(room.getTimeBooked() + 1);
-        roomRepository.save(room);
-        
+        RoomReservation roomReservation = newReservation(room, requestId, startDate, endDate);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                roomReservationRepository.save(roomReservation);
+                roomRepository.incrementTimeBooked(roomId);
+            });
+        } catch (DataIntegrityViolationException ex) {
+            log.warn("Reservation with requestId {} already exists", requestId);
+            requestIdBloomFilter.add(requestId);
+            return false;
+        }
+        requestIdBloomFilter.add(requestId);
+        roomReservationIndex.add(roomId, startDate, endDate);
+        roomOccupancyIndex.occupy(roomId, startDate, endDate);
+        roomRankingIndex.incrementTimeBooked(roomId);
+
         log.info("Room {} successfully reserved for requestId {}", roomId, requestId);
         return true;
     }
 
+    public List<RoomReservationResultDto> confirmAvailability(List<RoomReservationPayload> payloads) {
+        if (payloads == null || payloads.isEmpty() || payloads.size() > MAX_BATCH_SIZE) {
+            log.error("Invalid reservation batch size: {}", payloads == null ? 0 : payloads.size());
+            throw new IllegalArgumentException("Batch must contain from 1 to " + MAX_BATCH_SIZE + " reservations");
+        }
+        log.info("Checking availability for batch of {} reservations", payloads.size());
+
+        Set<UUID> roomIds = payloads.stream()
+                .map(RoomReservationPayload::getRoomId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<UUID, Room> rooms = roomRepository.findAllById(roomIds).stream()
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+        Set<UUID> existingRequestIds = findExistingRequestIds(payloads.stream()
+                .map(payload -> parseRequestId(payload.getRequestId()))
+                .filter(Objects::nonNull)
+                .toList());
+
+        return roomLocks.withLocks(rooms.keySet(), () -> reserveAll(payloads, rooms, existingRequestIds));
+    }
+
+    private List<RoomReservationResultDto> reserveAll(List<RoomReservationPayload> payloads,
+                                                      Map<UUID, Room> rooms,
+                                                      Set<UUID> existingRequestIds) {
+        List<RoomReservation> reservations = new ArrayList<>(payloads.size());
+        List<String> errors = new ArrayList<>(payloads.size());
+        Set<UUID> batchRequestIds = new HashSet<>();
+        boolean rejected = false;
+        for (RoomReservationPayload payload : payloads) {
+            UUID requestId = parseRequestId(payload.getRequestId());
+            Room room = rooms.get(payload.getRoomId());
+            String error;
+            if (room == null) {
+                error = "Room not found";
+            } else if (requestId == null) {
+                error = "RequestId is required";
+            } else if (existingRequestIds.contains(requestId) || !batchRequestIds.add(requestId)) {
+                error = "Reservation with this requestId already exists";
+            } else if (!isValidDates(payload.getStartDate(), payload.getEndDate())) {
+                error = "StartDate must be before EndDate";
+            } else if (!roomReservationIndex.isAvailable(room.getId(), payload.getStartDate(), payload.getEndDate())
+                    || overlapsBatch(reservations, room.getId(), payload.getStartDate(), payload.getEndDate())) {
+                error = "Room is already booked for the specified dates";
+            } else {
+                error = null;
+                reservations.add(newReservation(room, requestId, payload.getStartDate(), payload.getEndDate()));
+            }
+            rejected |= error != null;
+            errors.add(error);
+        }
+
+        if (rejected) {
+            log.warn("Reservation batch of {} rejected", payloads.size());
+            return toResults(payloads, errors, "Batch rejected");
+        }
+
+        Map<UUID, Integer> bookedPerRoom = reservations.stream()
+                .collect(Collectors.groupingBy(reservation -> reservation.getRoom().getId(), Collectors.summingInt(r -> 1)));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                roomReservationRepository.saveAll(reservations);
+                bookedPerRoom.forEach(roomRepository::incrementTimeBookedBy);
+            });
+        } catch (DataIntegrityViolationException ex) {
+            log.warn("Reservation batch of {} rejected: duplicate requestId", payloads.size());
+            return toResults(payloads, errors, "Reservation with this requestId already exists");
+        }
+        for (RoomReservation reservation : reservations) {
+            UUID roomId = reservation.getRoom().getId();
+            requestIdBloomFilter.add(reservation.getRequestId());
+            roomReservationIndex.add(roomId, reservation.getStartDate(), reservation.getEndDate());
+            roomOccupancyIndex.occupy(roomId, reservation.getStartDate(), reservation.getEndDate());
+            roomRankingIndex.incrementTimeBooked(roomId);
+        }
+
+        log.info("Reservation batch of {} rooms successfully confirmed", reservations.size());
+        return toResults(payloads, errors, null);
+    }
+
+    private boolean isKnownRequestId(UUID requestId) {
+        if (!requestIdBloomFilter.mightContain(requestId)) {
+            return false;
+        }
+        boolean known = roomReservationRepository.findByRequestId(requestId).isPresent()
+                || roomReservationArchiveRepository.existsByRequestId(requestId);
+        if (!known) {
+            requestIdBloomFilter.recordFalsePositives(1);
+        }
+        return known;
+    }
+
+    private Set<UUID> findExistingRequestIds(List<UUID> requestIds) {
+        List<UUID> candidates = requestIds.stream()
+                .filter(requestIdBloomFilter::mightContain)
+                .toList();
+        if (candidates.isEmpty()) {
+            return Set.of();
+        }
+        Set<UUID> existing = new HashSet<>(roomReservationRepository.findExistingRequestIds(candidates));
+        if (existing.size() < candidates.size()) {
+            existing.addAll(roomReservationArchiveRepository.findExistingRequestIds(candidates));
+        }
+        requestIdBloomFilter.recordFalsePositives(candidates.size() - existing.size());
+        return existing;
+    }
+
+    private static boolean overlapsBatch(List<RoomReservation> reservations, UUID roomId,
+                                         LocalDate startDate, LocalDate endDate) {
+        return reservations.stream().anyMatch(reservation -> reservation.getRoom().getId().equals(roomId)
+                && !reservation.getStartDate().isAfter(endDate)
+                && !startDate.isAfter(reservation.getEndDate()));
+    }
+
+    private static List<RoomReservationResultDto> toResults(List<RoomReservationPayload> payloads,
+                                                            List<String> errors,
+                                                            String defaultError) {
+        List<RoomReservationResultDto> results = new ArrayList<>(payloads.size());
+        for (int i = 0; i < payloads.size(); i++) {
+            String error = errors.get(i) != null ? errors.get(i) : defaultError;
+            results.add(RoomReservationResultDto.builder()
+                    .requestId(payloads.get(i).getRequestId())
+                    .roomId(payloads.get(i).getRoomId())
+                    .confirmed(error == null)
+                    .message(error)
+                    .build());
+        }
+        return results;
+    }
+
+    private static UUID parseRequestId(String requestId) {
+        try {
+            return requestId != null ? UUID.fromString(requestId) : null;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
     public void releaseRoom(UUID requestId) {
         log.info("Releasing room for requestId: {}", requestId);
-        RoomReservation roomReservation = roomReservationRepository.findByRequestId(requestId)
-                .orElseThrow(() -> {
-                    log.error("Release failed: reservation not found for requestId {}", requestId);
-                    return new IllegalArgumentException("Room reservation not found");
-                });
-
-        roomReservation.setStatus(RoomStatus.RELEASED);
-        roomReservationRepository.save(roomReservation);
+        if (!requestIdBloomFilter.mightContain(requestId)) {
+            throw reservationNotFound(requestId);
+        }
+        Optional<RoomReservation> optionalRoomReservation = roomReservationRepository.findByRequestId(requestId);
+        if (optionalRoomReservation.isEmpty()) {
+            if (roomReservationArchiveRepository.existsByRequestId(requestId)) {
+                log.info("Reservation for requestId {} is already archived", requestId);
+                return;
+            }
+            requestIdBloomFilter.recordFalsePositives(1);
+            throw reservationNotFound(requestId);
+        }
+        RoomReservation roomReservation = optionalRoomReservation.get();
+
+        UUID roomId = roomReservation.getRoom().getId();
+        roomLocks.withLock(roomId, () -> {
+            Integer released = transactionTemplate.execute(status -> roomReservationRepository.updateStatus(
+                    requestId, RoomStatus.CONFIRMED, RoomStatus.RELEASED));
+            if (released != null && released > 0) {
+                roomReservationIndex.remove(roomId, roomReservation.getStartDate(), roomReservation.getEndDate());
+                roomOccupancyIndex.release(roomId, roomReservation.getStartDate(), roomReservation.getEndDate());
+            }
+            return released;
+        });
         log.info("Room for requestId {} successfully released", requestId);
     }
+
+    private static RoomReservation newReservation(Room room, UUID requestId, LocalDate startDate, LocalDate endDate) {
+        RoomReservation roomReservation = new RoomReservation();
+        roomReservation.setRequestId(requestId);
+        roomReservation.setRoom(room);
+        roomReservation.setStartDate(startDate);
+        roomReservation.setEndDate(endDate);
+        roomReservation.setStatus(RoomStatus.CONFIRMED);
+        return roomReservation;
+    }
+
+    private static IllegalArgumentException reservationNotFound(UUID requestId) {
+        log.error("Reservation not found for requestId {}", requestId);
+        return new IllegalArgumentException("Room reservation not found");
+    }
+
+    public RoomReservationDto getReservation(UUID requestId) {
+        log.info("Fetching reservation for requestId: {}", requestId);
+        Optional<RoomReservationDto> live = roomReservationRepository.findByRequestId(requestId)
+                .map(reservation -> RoomReservationDto.builder()
+                        .requestId(reservation.getRequestId())
+                        .roomId(reservation.getRoom().getId())
+                        .startDate(reservation.getStartDate())
+                        .endDate(reservation.getEndDate())
+                        .status(reservation.getStatus())
+                        .archived(false)
+                        .build());
+        return live.or(() -> roomReservationArchiveRepository.findByRequestId(requestId)
+                        .map(reservation -> RoomReservationDto.builder()
+                                .requestId(reservation.getRequestId())
+                                .roomId(reservation.getRoomId())
+                                .startDate(reservation.getStartDate())
+                                .endDate(reservation.getEndDate())
+                                .status(reservation.getStatus())
+                                .archived(true)
+                                .build()))
+                .orElseThrow(() -> reservationNotFound(requestId));
+    }
+
+    private void validateDates(LocalDate startDate, LocalDate endDate) {
+        if (!isValidDates(startDate, endDate)) {
+            log.error("Invalid reservation dates: startDate {}, endDate {}", startDate, endDate);
+            throw new IllegalArgumentException("StartDate must be before EndDate");
+        }
+    }
+
+    private static boolean isValidDates(LocalDate startDate, LocalDate endDate) {
+        return startDate != null && endDate != null && !startDate.isAfter(endDate);
+    }
 }
@@ -2,15 +2,21 @@ package ru.klimov.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import ru.klimov.cache.CatalogCache;
 import ru.klimov.controller.payload.RoomPayload;
 import ru.klimov.dto.RoomDto;
+import ru.klimov.dto.RoomPageDto;
 import ru.klimov.entity.Hotel;
 import ru.klimov.entity.Room;
+import ru.klimov.index.RoomOccupancyIndex;
+import ru.klimov.index.RoomRankingIndex;
 import ru.klimov.mapper.RoomMapper;
 import ru.klimov.repository.HotelRepository;
 import ru.klimov.repository.RoomRepository;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
@@ -21,9 +27,14 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class RoomService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final RoomRepository roomRepository;
     private final HotelRepository hotelRepository;
     private final RoomMapper roomMapper;
+    private final RoomRankingIndex roomRankingIndex;
+    private final RoomOccupancyIndex roomOccupancyIndex;
+    private final CatalogCache catalogCache;
 
     public Optional<Room> getRoomById(UUID id) {
         log.info("Fetching room by id: {}", id);
@@ -46,22 +57,53 @@ public class RoomService {
         room.setHotel(hotel);
 
         Room savedRoom = roomRepository.save(room);
+        catalogCache.invalidate();
         log.info("Room {} successfully created for hotel {}", savedRoom.getNumber(), hotel.getName());
-        return roomMapper.toDto(savedRoom);
+        RoomDto roomDto = roomMapper.toDto(savedRoom);
+        roomRankingIndex.put(roomDto);
+        return roomDto;
+    }
+
+    public List<RoomDto> getRecommendRooms(Integer limit) {
+        log.info("Fetching top {} recommended rooms", limit != null ? limit : "all");
+        if (limit != null && limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        // без limit, как и раньше, возвращаются все номера
+        return roomRankingIndex.top(limit != null ? limit : Integer.MAX_VALUE);
+    }
+
+    public List<RoomDto> searchAvailableRooms(LocalDate startDate, LocalDate endDate, UUID hotelId, int limit) {
+        log.info("Searching rooms free from {} to {} in hotel {}", startDate, endDate, hotelId);
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("StartDate must be before EndDate");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return roomRankingIndex.find(room -> Boolean.TRUE.equals(room.getAvailable())
+                        && (hotelId == null || hotelId.equals(room.getHotelId()))
+                        && roomOccupancyIndex.isFree(room.getId(), startDate, endDate),
+                Math.min(limit, MAX_PAGE_SIZE));
     }
 
-    public List<RoomDto> getRecommendRooms() {
-        log.info("Fetching recommended rooms");
-        return roomRepository.findAllByOrderByTimeBookedDesc().stream()
-                .map(roomMapper::toDto)
-                .toList();
+    public RoomPageDto getAllAvailableRooms(UUID after, int limit) {
+        log.info("Fetching available rooms after {} with limit {}", after, limit);
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        Limit pageLimit = Limit.of(Math.min(limit, MAX_PAGE_SIZE));
+        return catalogCache.get("rooms:" + after + ":" + pageLimit.max(), () -> loadAvailableRooms(after, pageLimit));
     }
 
-    public List<RoomDto> getAllAvailableRooms() {
-        log.info("Fetching all available rooms");
-        return roomRepository.findAll().stream()
-                .filter(Room::getAvailable)
-                .map(roomMapper::toDto)
-                .toList();
+    private RoomPageDto loadAvailableRooms(UUID after, Limit pageLimit) {
+        List<RoomDto> rooms = after == null
+                ? roomRepository.findAvailableRoomDtos(pageLimit)
+                : roomRepository.findAvailableRoomDtosAfter(after, pageLimit);
+        UUID nextCursor = rooms.size() == pageLimit.max() ? rooms.get(rooms.size() - 1).getId() : null;
+        return RoomPageDto.builder()
+                .items(rooms)
+                .nextCursor(nextCursor)
+                .build();
     }
 }
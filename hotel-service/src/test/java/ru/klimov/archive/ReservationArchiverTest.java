@@ -0,0 +1,113 @@
+package ru.klimov.archive;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.klimov.entity.Hotel;
+import ru.klimov.entity.Room;
+import ru.klimov.entity.RoomReservation;
+import ru.klimov.entity.RoomReservationArchive;
+import ru.klimov.entity.RoomStatus;
+import ru.klimov.index.RoomOccupancyIndex;
+import ru.klimov.index.RoomReservationIndex;
+import ru.klimov.lock.RoomLocks;
+import ru.klimov.repository.RoomReservationArchiveRepository;
+import ru.klimov.repository.RoomReservationRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+class ReservationArchiverTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 6, 1);
+
+    @Autowired
+    private RoomReservationRepository roomReservationRepository;
+
+    @Autowired
+    private RoomReservationArchiveRepository roomReservationArchiveRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final RoomReservationIndex roomReservationIndex = mock(RoomReservationIndex.class);
+    private final RoomOccupancyIndex roomOccupancyIndex = mock(RoomOccupancyIndex.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ReservationArchiver archiver;
+    private Room room;
+
+    @BeforeEach
+    void setUp() {
+        archiver = new ReservationArchiver(roomReservationRepository, roomReservationIndex, roomOccupancyIndex,
+                new RoomLocks(), new TransactionTemplate(transactionManager), meterRegistry,
+                2, Duration.ZERO, 10);
+
+        Hotel hotel = new Hotel();
+        hotel.setName("Archive Hotel");
+        entityManager.persist(hotel);
+        room = new Room();
+        room.setNumber("1");
+        room.setAvailable(true);
+        room.setTimeBooked(0);
+        room.setHotel(hotel);
+        entityManager.persist(room);
+    }
+
+    @Test
+    void archive_MovesReleasedAndPastReservations() {
+        // given
+        UUID released = reserve(TODAY.plusDays(5), TODAY.plusDays(6), RoomStatus.RELEASED);
+        UUID past = reserve(TODAY.minusDays(5), TODAY.minusDays(1), RoomStatus.CONFIRMED);
+        UUID pastReleased = reserve(TODAY.minusDays(9), TODAY.minusDays(8), RoomStatus.RELEASED);
+        UUID live = reserve(TODAY.minusDays(1), TODAY.plusDays(1), RoomStatus.CONFIRMED);
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        int first = archiver.archiveBatch(TODAY);
+        int second = archiver.archiveBatch(TODAY);
+        int third = archiver.archiveBatch(TODAY);
+        entityManager.clear();
+
+        // then
+        assertThat(first + second + third).isEqualTo(3);
+        assertThat(third).isZero();
+        assertThat(roomReservationRepository.findAll()).extracting(RoomReservation::getRequestId).containsExactly(live);
+        assertThat(roomReservationArchiveRepository.findAll())
+                .extracting(RoomReservationArchive::getRequestId)
+                .containsExactlyInAnyOrder(released, past, pastReleased);
+        RoomReservationArchive archived = roomReservationArchiveRepository.findByRequestId(past).orElseThrow();
+        assertThat(archived.getRoomId()).isEqualTo(room.getId());
+        assertThat(archived.getStatus()).isEqualTo(RoomStatus.CONFIRMED);
+        assertThat(archived.getArchivedAt()).isNotNull();
+        verify(roomReservationIndex).remove(room.getId(), TODAY.minusDays(5), TODAY.minusDays(1));
+        verify(roomOccupancyIndex).release(room.getId(), TODAY.minusDays(5), TODAY.minusDays(1));
+        verifyNoMoreInteractions(roomReservationIndex);
+        assertThat(meterRegistry.counter("reservation.archive.moved").count()).isEqualTo(3);
+    }
+
+    private UUID reserve(LocalDate start, LocalDate end, RoomStatus status) {
+        RoomReservation reservation = new RoomReservation();
+        reservation.setRequestId(UUID.randomUUID());
+        reservation.setRoom(room);
+        reservation.setStartDate(start);
+        reservation.setEndDate(end);
+        reservation.setStatus(status);
+        entityManager.persist(reservation);
+        return reservation.getRequestId();
+    }
+}
@@ -0,0 +1,74 @@
+package ru.klimov.bloom;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    void mightContain_AddedValues_NoFalseNegatives() {
+        // given
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01, 1 << 20);
+        List<UUID> values = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID value = UUID.randomUUID();
+            values.add(value);
+            filter.put(value);
+        }
+
+        // when & then
+        assertThat(values).allMatch(filter::mightContain);
+        assertThat(filter.size()).isEqualTo(10_000);
+        assertThat(filter.sliceCount()).isGreaterThan(1);
+    }
+
+    @Test
+    void mightContain_UnknownValues_StaysWithinConfiguredRate() {
+        // given
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01, 1 << 20);
+        for (int i = 0; i < 20_000; i++) {
+            filter.put(UUID.randomUUID());
+        }
+
+        // when
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+
+        // then
+        assertThat((double) falsePositives / probes).isLessThan(0.015);
+        assertThat(filter.estimatedFalsePositiveRate()).isLessThan(0.01);
+    }
+
+    @Test
+    void put_MemoryLimitReached_StopsGrowing() {
+        // given
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01, 1_000);
+        long initialMemory = filter.memoryBytes();
+
+        // when
+        for (int i = 0; i < 5_000; i++) {
+            filter.put(UUID.randomUUID());
+        }
+
+        // then
+        assertThat(filter.memoryBytes()).isLessThanOrEqualTo(Math.max(1_000, initialMemory));
+        assertThat(filter.estimatedFalsePositiveRate()).isGreaterThan(0.01);
+    }
+
+    @Test
+    void constructor_InvalidRate_ThrowsException() {
+        assertThatThrownBy(() -> new ScalableBloomFilter(100, 1.5, 1_000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,74 @@
+package ru.klimov.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CatalogCache catalogCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        catalogCache = new CatalogCache(meterRegistry, 2, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void get_SecondCall_ReturnsCachedValue() {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+
+        // when
+        catalogCache.get("hotels", loads::incrementAndGet);
+        Integer result = catalogCache.get("hotels", loads::incrementAndGet);
+
+        // then
+        assertThat(result).isEqualTo(1);
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "catalog").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidate_ReloadsOnNextGet() {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+        catalogCache.get("hotels", loads::incrementAndGet);
+
+        // when
+        catalogCache.invalidate();
+        Integer result = catalogCache.get("hotels", loads::incrementAndGet);
+
+        // then
+        assertThat(result).isEqualTo(2);
+        assertThat(catalogCache.version()).isEqualTo(1);
+    }
+
+    @Test
+    void get_LoadRacingWithInvalidate_DoesNotServeStaleValue() {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+
+        // when: каталог изменился, пока значение загружалось
+        Integer first = catalogCache.get("rooms", () -> {
+            int value = loads.incrementAndGet();
+            if (value == 1) {
+                catalogCache.invalidate();
+            }
+            return value;
+        });
+        Integer second = catalogCache.get("rooms", loads::incrementAndGet);
+
+        // then: запись с устаревшей версией не отдаётся следующим читателям
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isEqualTo(2);
+        assertThat(loads).hasValue(2);
+    }
+}
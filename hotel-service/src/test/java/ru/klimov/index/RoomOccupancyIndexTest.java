@@ -0,0 +1,189 @@
+package ru.klimov.index;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.klimov.dto.ReservationIntervalDto;
+import ru.klimov.entity.RoomStatus;
+import ru.klimov.lock.RoomLocks;
+import ru.klimov.repository.RoomReservationRepository;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RoomOccupancyIndexTest {
+
+    private static final LocalDate START = LocalDate.now().plusDays(10);
+    private static final LocalDate END = START.plusDays(4);
+
+    @Mock
+    private RoomReservationRepository roomReservationRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RoomOccupancyIndex roomOccupancyIndex;
+
+    private UUID roomId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        roomOccupancyIndex = new RoomOccupancyIndex(roomReservationRepository, new RoomLocks(), meterRegistry, 366,
+                3660);
+        roomId = UUID.randomUUID();
+        when(roomReservationRepository.findIntervalsByStatus(RoomStatus.CONFIRMED))
+                .thenReturn(List.of(new ReservationIntervalDto(roomId, START, END)));
+        roomOccupancyIndex.load();
+    }
+
+    @Test
+    void isFree_OverlappingRanges_ReturnsFalse() {
+        assertThat(roomOccupancyIndex.isFree(roomId, START.minusDays(2), START)).isFalse();
+        assertThat(roomOccupancyIndex.isFree(roomId, END, END.plusDays(100))).isFalse();
+        assertThat(roomOccupancyIndex.isFree(roomId, START.plusDays(1), START.plusDays(2))).isFalse();
+    }
+
+    @Test
+    void isFree_DisjointRanges_ReturnsTrue() {
+        assertThat(roomOccupancyIndex.isFree(roomId, START.minusDays(5), START.minusDays(1))).isTrue();
+        assertThat(roomOccupancyIndex.isFree(roomId, END.plusDays(1), END.plusDays(200))).isTrue();
+        assertThat(roomOccupancyIndex.isFree(UUID.randomUUID(), START, END)).isTrue();
+    }
+
+    @Test
+    void release_ClearsDays() {
+        // when
+        roomOccupancyIndex.release(roomId, START, END);
+
+        // then
+        assertThat(roomOccupancyIndex.isFree(roomId, START, END)).isTrue();
+    }
+
+    @Test
+    void release_OverlappingReservation_KeepsSharedDaysOccupied() {
+        // given
+        roomOccupancyIndex.occupy(roomId, END.minusDays(1), END.plusDays(3));
+
+        // when
+        roomOccupancyIndex.release(roomId, START, END);
+
+        // then
+        assertThat(roomOccupancyIndex.isFree(roomId, START, END.minusDays(2))).isTrue();
+        assertThat(roomOccupancyIndex.isFree(roomId, END.minusDays(1), END)).isFalse();
+        assertThat(roomOccupancyIndex.occupancy(roomId, START, END.plusDays(5)).stream().boxed().toList())
+                .containsExactly(3, 4, 5, 6, 7);
+
+        // when
+        roomOccupancyIndex.release(roomId, END.minusDays(1), END.plusDays(3));
+
+        // then
+        assertThat(roomOccupancyIndex.isFree(roomId, START, END.plusDays(3))).isTrue();
+    }
+
+    @Test
+    void occupy_PastDatesOutsideHistory_AreIgnored() {
+        // given
+        UUID otherRoom = UUID.randomUUID();
+        LocalDate longAgo = LocalDate.now().minusYears(5);
+
+        // when
+        roomOccupancyIndex.occupy(otherRoom, longAgo, longAgo.plusDays(3));
+
+        // then
+        assertThat(roomOccupancyIndex.isFree(otherRoom, LocalDate.now().minusDays(300), LocalDate.now())).isTrue();
+    }
+
+    @Test
+    void occupancy_ReturnsBitsRelativeToFrom() {
+        // when
+        BitSet days = roomOccupancyIndex.occupancy(roomId, START.minusDays(3), START.plusDays(30));
+
+        // then
+        assertThat(days.stream().boxed().toList()).containsExactly(3, 4, 5, 6, 7);
+        assertThat(roomOccupancyIndex.occupancy(UUID.randomUUID(), START, END).isEmpty()).isTrue();
+    }
+
+    @Test
+    void occupancy_FromBeforeHistory_ShiftsBits() {
+        // given
+        LocalDate from = LocalDate.now().minusYears(2);
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        roomOccupancyIndex.occupy(roomId, yesterday, yesterday);
+
+        // when
+        BitSet days = roomOccupancyIndex.occupancy(roomId, from, yesterday);
+
+        // then
+        assertThat(days.stream().boxed().toList())
+                .containsExactly((int) (yesterday.toEpochDay() - from.toEpochDay()));
+    }
+
+    @Test
+    void isFree_RangeBeyondHorizon_ShouldCheckDatabase() {
+        // given
+        LocalDate farFuture = LocalDate.now().plusYears(20);
+        when(roomReservationRepository.findOverlappingIntervals(roomId, RoomStatus.CONFIRMED, farFuture, LocalDate.MAX))
+                .thenReturn(List.of(new ReservationIntervalDto(roomId, farFuture, farFuture.plusDays(2))));
+
+        // when
+        roomOccupancyIndex.occupy(roomId, farFuture, LocalDate.MAX);
+
+        // then
+        assertThat(roomOccupancyIndex.isFree(roomId, farFuture, LocalDate.MAX)).isFalse();
+        assertThat(roomOccupancyIndex.isFree(roomId, END.plusDays(1), END.plusDays(200))).isTrue();
+        assertThat(meterRegistry.counter("room.occupancy.index.fallbacks").count()).isEqualTo(1);
+    }
+
+    @Test
+    void isFree_RangeBeforeHistory_ShouldCheckDatabase() {
+        // given
+        LocalDate longAgo = LocalDate.now().minusYears(5);
+        when(roomReservationRepository.findOverlappingIntervals(roomId, RoomStatus.CONFIRMED, longAgo,
+                longAgo.plusDays(3)))
+                .thenReturn(List.of(new ReservationIntervalDto(roomId, longAgo.plusDays(1), longAgo.plusDays(2))));
+
+        // when
+        boolean free = roomOccupancyIndex.isFree(roomId, longAgo, longAgo.plusDays(3));
+        BitSet days = roomOccupancyIndex.occupancy(roomId, longAgo, longAgo.plusDays(3));
+
+        // then
+        assertThat(free).isFalse();
+        assertThat(days.stream().boxed().toList()).containsExactly(1, 2);
+    }
+
+    @Test
+    void advance_ShouldDropPastDaysAndLoadNewDaysFromDatabase() {
+        // given
+        LocalDate today = LocalDate.now();
+        UUID otherRoom = UUID.randomUUID();
+        RoomOccupancyIndex index = new RoomOccupancyIndex(roomReservationRepository, new RoomLocks(), meterRegistry,
+                10, 30);
+        index.occupy(otherRoom, today.minusDays(5), today.minusDays(3));
+        // бронирование за горизонтом попадает в индекс обрезанным по lastDay
+        index.occupy(otherRoom, today.plusDays(25), today.plusDays(40));
+        LocalDate from = today.plusDays(31);
+        LocalDate to = today.plusDays(50);
+        when(roomReservationRepository.findRoomIdsWithOverlappingIntervals(RoomStatus.CONFIRMED, from, to))
+                .thenReturn(List.of(otherRoom));
+        when(roomReservationRepository.findOverlappingIntervals(otherRoom, RoomStatus.CONFIRMED, from, to))
+                .thenReturn(List.of(new ReservationIntervalDto(otherRoom, today.plusDays(25), today.plusDays(40))));
+
+        // when
+        index.advance(today.plusDays(20));
+        index.occupy(otherRoom, today.plusDays(45), today.plusDays(46));
+
+        // then
+        assertThat(index.occupancy(otherRoom, today.plusDays(20), today.plusDays(50)).stream().boxed().toList())
+                .containsExactly(5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 25, 26);
+        assertThat(index.isFree(otherRoom, today.plusDays(41), today.plusDays(44))).isTrue();
+        assertThat(meterRegistry.counter("room.occupancy.index.fallbacks").count()).isZero();
+    }
+}
@@ -0,0 +1,91 @@
+package ru.klimov.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import ru.klimov.dto.RoomDto;
+import ru.klimov.repository.RoomRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RoomRankingIndexTest {
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @InjectMocks
+    private RoomRankingIndex roomRankingIndex;
+
+    private RoomDto popular;
+    private RoomDto regular;
+    private RoomDto fresh;
+
+    @BeforeEach
+    void setUp() {
+        popular = room("101", 6);
+        regular = room("102", 4);
+        fresh = room("103", 0);
+        when(roomRepository.findAllRoomDtos()).thenReturn(List.of(regular, fresh, popular));
+        roomRankingIndex.load();
+    }
+
+    @Test
+    void top_ReturnsRoomsOrderedByTimeBooked() {
+        assertThat(roomRankingIndex.top(10)).extracting(RoomDto::getNumber).containsExactly("101", "102", "103");
+        assertThat(roomRankingIndex.top(2)).extracting(RoomDto::getNumber).containsExactly("101", "102");
+    }
+
+    @Test
+    void incrementTimeBooked_MovesRoomUp() {
+        // when
+        for (int i = 0; i < 5; i++) {
+            roomRankingIndex.incrementTimeBooked(fresh.getId());
+        }
+
+        // then
+        List<RoomDto> top = roomRankingIndex.top(10);
+        assertThat(top).extracting(RoomDto::getNumber).containsExactly("101", "103", "102");
+        assertThat(top.get(1).getTimeBooked()).isEqualTo(5);
+    }
+
+    @Test
+    void put_NewRoom_IsRanked() {
+        // when
+        roomRankingIndex.put(room("104", 10));
+
+        // then
+        assertThat(roomRankingIndex.top(1)).extracting(RoomDto::getNumber).containsExactly("104");
+        assertThat(roomRankingIndex.top(10)).hasSize(4);
+    }
+
+    @Test
+    void top_BeforeLoad_ReadsRankingFromRepository() {
+        // given
+        RoomRankingIndex notLoaded = new RoomRankingIndex(roomRepository);
+        when(roomRepository.findRankedRoomDtos(Limit.of(2))).thenReturn(List.of(popular, regular));
+        when(roomRepository.findRankedRoomDtos(Limit.unlimited())).thenReturn(List.of(popular, regular, fresh));
+
+        // when & then
+        assertThat(notLoaded.top(2)).extracting(RoomDto::getNumber).containsExactly("101", "102");
+        assertThat(notLoaded.find(room -> room.getTimeBooked() < 5, 10))
+                .extracting(RoomDto::getNumber).containsExactly("102", "103");
+    }
+
+    private static RoomDto room(String number, int timeBooked) {
+        return RoomDto.builder()
+                .id(UUID.randomUUID())
+                .number(number)
+                .available(true)
+                .timeBooked(timeBooked)
+                .build();
+    }
+}
@@ -0,0 +1,121 @@
+package ru.klimov.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.klimov.dto.ReservationIntervalDto;
+import ru.klimov.entity.RoomStatus;
+import ru.klimov.repository.RoomReservationRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RoomReservationIndexTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 1, 10);
+    private static final LocalDate END = LocalDate.of(2026, 1, 15);
+
+    @Mock
+    private RoomReservationRepository roomReservationRepository;
+
+    @InjectMocks
+    private RoomReservationIndex roomReservationIndex;
+
+    private UUID roomId;
+
+    @BeforeEach
+    void setUp() {
+        roomId = UUID.randomUUID();
+        when(roomReservationRepository.findIntervalsByStatus(RoomStatus.CONFIRMED))
+                .thenReturn(List.of(new ReservationIntervalDto(roomId, START, END)));
+        roomReservationIndex.load();
+    }
+
+    @Test
+    void isAvailable_PartialOverlaps_ReturnsFalse() {
+        assertThat(roomReservationIndex.isAvailable(roomId, START.minusDays(3), START)).isFalse();
+        assertThat(roomReservationIndex.isAvailable(roomId, END, END.plusDays(3))).isFalse();
+        assertThat(roomReservationIndex.isAvailable(roomId, START.plusDays(1), END.minusDays(1))).isFalse();
+        assertThat(roomReservationIndex.isAvailable(roomId, START.minusDays(1), END.plusDays(1))).isFalse();
+    }
+
+    @Test
+    void isAvailable_DisjointRanges_ReturnsTrue() {
+        assertThat(roomReservationIndex.isAvailable(roomId, START.minusDays(5), START.minusDays(1))).isTrue();
+        assertThat(roomReservationIndex.isAvailable(roomId, END.plusDays(1), END.plusDays(5))).isTrue();
+        assertThat(roomReservationIndex.isAvailable(UUID.randomUUID(), START, END)).isTrue();
+    }
+
+    @Test
+    void isAvailable_BetweenTwoReservations_ChecksNeighbours() {
+        // given
+        LocalDate secondStart = END.plusDays(10);
+        roomReservationIndex.add(roomId, secondStart, secondStart.plusDays(2));
+
+        // when & then
+        assertThat(roomReservationIndex.isAvailable(roomId, END.plusDays(1), secondStart.minusDays(1))).isTrue();
+        assertThat(roomReservationIndex.isAvailable(roomId, END.plusDays(1), secondStart)).isFalse();
+    }
+
+    @Test
+    void remove_ReleasesInterval() {
+        // when
+        roomReservationIndex.remove(roomId, START, END);
+
+        // then
+        assertThat(roomReservationIndex.isAvailable(roomId, START, END)).isTrue();
+    }
+
+    @Test
+    void load_OverlappingStoredReservations_ShouldKeepWholeRangeBusy() {
+        // given
+        UUID overlappedRoomId = UUID.randomUUID();
+        when(roomReservationRepository.findIntervalsByStatus(RoomStatus.CONFIRMED))
+                .thenReturn(List.of(new ReservationIntervalDto(overlappedRoomId, START, START.plusDays(9)),
+                        new ReservationIntervalDto(overlappedRoomId, START.plusDays(2), START.plusDays(3))));
+
+        // when
+        roomReservationIndex.load();
+
+        // then
+        assertThat(roomReservationIndex.isAvailable(overlappedRoomId, START.plusDays(5), START.plusDays(6))).isFalse();
+        assertThat(roomReservationIndex.isAvailable(overlappedRoomId, START.plusDays(10), START.plusDays(11))).isTrue();
+    }
+
+    @Test
+    void remove_ReservationsWithSameStart_ShouldKeepTheOther() {
+        // given
+        roomReservationIndex.add(roomId, START, END.plusDays(5));
+
+        // when
+        roomReservationIndex.remove(roomId, START, END.plusDays(5));
+
+        // then
+        assertThat(roomReservationIndex.isAvailable(roomId, START, END)).isFalse();
+        assertThat(roomReservationIndex.isAvailable(roomId, END.plusDays(1), END.plusDays(5))).isTrue();
+    }
+
+    @Test
+    void remove_OverlappingReservation_ShouldKeepRestOfOccupiedRange() {
+        // given
+        roomReservationIndex.add(roomId, END.minusDays(1), END.plusDays(4));
+        roomReservationIndex.add(roomId, END.plusDays(3), END.plusDays(6));
+
+        // when
+        roomReservationIndex.remove(roomId, END.minusDays(1), END.plusDays(4));
+
+        // then
+        assertThat(roomReservationIndex.isAvailable(roomId, START, END)).isFalse();
+        assertThat(roomReservationIndex.isAvailable(roomId, END.plusDays(1), END.plusDays(2))).isTrue();
+        assertThat(roomReservationIndex.isAvailable(roomId, END.plusDays(3), END.plusDays(3))).isFalse();
+        assertThat(roomReservationIndex.isAvailable(roomId, END.plusDays(6), END.plusDays(8))).isFalse();
+    }
+}
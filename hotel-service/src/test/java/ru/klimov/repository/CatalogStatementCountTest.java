@@ -0,0 +1,147 @@
+package ru.klimov.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import ru.klimov.cache.CatalogCache;
+import ru.klimov.dto.HotelDto;
+import ru.klimov.dto.HotelOccupancyDto;
+import ru.klimov.dto.RoomPageDto;
+import ru.klimov.entity.Hotel;
+import ru.klimov.entity.Room;
+import ru.klimov.index.RoomOccupancyIndex;
+import ru.klimov.index.RoomRankingIndex;
+import ru.klimov.mapper.HotelMapperImpl;
+import ru.klimov.mapper.RoomMapperImpl;
+import ru.klimov.service.HotelService;
+import ru.klimov.service.RoomService;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Списочные эндпоинты каталога должны выполнять фиксированное число SQL-запросов независимо от числа строк.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CatalogStatementCountTest {
+
+    private static final int ROOMS_PER_HOTEL = 5;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private HotelService hotelService;
+    private RoomService roomService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        RoomRankingIndex roomRankingIndex = mock(RoomRankingIndex.class);
+        RoomOccupancyIndex roomOccupancyIndex = mock(RoomOccupancyIndex.class);
+        when(roomOccupancyIndex.occupancy(any(), any(), any())).thenReturn(new BitSet());
+        hotelService = new HotelService(hotelRepository, new HotelMapperImpl(), new RoomMapperImpl(),
+                roomRankingIndex, roomOccupancyIndex, roomRepository, newCache());
+        roomService = new RoomService(roomRepository, hotelRepository, new RoomMapperImpl(),
+                roomRankingIndex, roomOccupancyIndex, newCache());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void getAllHotels_SingleStatementRegardlessOfHotelCount(int hotels) {
+        // given
+        createHotels(hotels, ROOMS_PER_HOTEL);
+
+        // when
+        statistics.clear();
+        List<HotelDto> result = hotelService.getAllHotels();
+
+        // then
+        assertThat(result).hasSizeGreaterThanOrEqualTo(hotels)
+                .allSatisfy(hotel -> assertThat(hotel.getRooms()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void getAllAvailableRooms_SingleStatementRegardlessOfRoomCount(int hotels) {
+        // given
+        createHotels(hotels, ROOMS_PER_HOTEL);
+
+        // when
+        statistics.clear();
+        RoomPageDto result = roomService.getAllAvailableRooms(null, 500);
+
+        // then
+        assertThat(result.getItems()).hasSizeGreaterThanOrEqualTo(hotels * ROOMS_PER_HOTEL)
+                .allSatisfy(room -> assertThat(room.getHotelName()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void getOccupancy_SingleStatementRegardlessOfRoomCount(int rooms) {
+        // given
+        UUID hotelId = createHotels(1, rooms).get(0).getId();
+        LocalDate from = LocalDate.of(2026, 1, 1);
+
+        // when
+        statistics.clear();
+        HotelOccupancyDto result = hotelService.getOccupancy(hotelId, from, from.plusDays(364));
+
+        // then
+        assertThat(result.getRooms()).hasSize(rooms);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private List<Hotel> createHotels(int count, int roomsPerHotel) {
+        List<Hotel> created = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Hotel hotel = new Hotel();
+            hotel.setName("Hotel " + i);
+            hotel.setAddress("Address " + i);
+            entityManager.persist(hotel);
+            created.add(hotel);
+            for (int j = 0; j < roomsPerHotel; j++) {
+                Room room = new Room();
+                room.setNumber(String.valueOf(j));
+                room.setAvailable(true);
+                room.setTimeBooked(0);
+                room.setHotel(hotel);
+                entityManager.persist(room);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return created;
+    }
+
+    private static CatalogCache newCache() {
+        return new CatalogCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+    }
+}
@@ -0,0 +1,89 @@
+package ru.klimov.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость JwtTokenFilter на запрос: legacy — прежние три разбора токена со строковым секретом,
+ * cached — текущий фильтр с кэшем проверенных токенов.
+ * Запуск: mvn -pl hotel-service test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt, затем
+ * java -cp "target/test-classes:target/classes:$(cat target/cp.txt)" ru.klimov.security.JwtTokenFilterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenFilterBenchmark {
+
+    private static final String SECRET = "very-strong-shared-secret-key-123456789";
+
+    private String token;
+    private JwtTokenFilter filter;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        token = Jwts.builder()
+                .setSubject("admin")
+                .claim("role", "ADMIN")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        jwtUtil.init();
+        filter = new JwtTokenFilter(new VerifiedTokenCache(jwtUtil, new SimpleMeterRegistry(), 10_000, Duration.ofHours(1)),
+                new TokenRevocations(new RestTemplate(), new SimpleMeterRegistry(), "http://booking-service",
+                        Duration.ofMinutes(1)));
+        request = new MockHttpServletRequest("GET", "/hotels");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+    }
+
+    @Benchmark
+    public Object legacy() {
+        Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token);
+        String login = Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody().getSubject();
+        String role = (String) Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody().get("role");
+        return login + role;
+    }
+
+    @Benchmark
+    public Object cached() throws Exception {
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtTokenFilterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
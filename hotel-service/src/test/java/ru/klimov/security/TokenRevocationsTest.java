@@ -0,0 +1,113 @@
+package ru.klimov.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import ru.klimov.dto.RevokedTokenDto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationsTest {
+
+    private static final Instant FIRST_SYNC = Instant.EPOCH.minus(Duration.ofMinutes(1));
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private TokenRevocations tokenRevocations;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocations = new TokenRevocations(restTemplate, new SimpleMeterRegistry(), "http://booking-service",
+                Duration.ofMinutes(1));
+    }
+
+    @Test
+    void sync_ShouldRejectRevokedTokensAndContinueFromLastRevocation() {
+        // given
+        Instant now = Instant.now();
+        VerifiedToken revokedToken = token("bob", UUID.randomUUID(), now.minusSeconds(60));
+        RevokedTokenDto byJti = new RevokedTokenDto(3L, revokedToken.id(), now, now.plusSeconds(900));
+        RevokedTokenDto bySubject = new RevokedTokenDto(5L, RevocationIndex.subjectKey("alice"), now,
+                now.plusSeconds(900));
+        when(restTemplate.getForObject(anyString(), eq(RevokedTokenDto[].class), eq(FIRST_SYNC), eq(0L), eq(1000)))
+                .thenReturn(new RevokedTokenDto[]{byJti, bySubject});
+        when(restTemplate.getForObject(anyString(), eq(RevokedTokenDto[].class), eq(now.minusSeconds(60)), eq(0L),
+                eq(1000)))
+                .thenReturn(new RevokedTokenDto[]{byJti, bySubject});
+
+        // when
+        tokenRevocations.sync();
+        tokenRevocations.sync();
+
+        // then
+        assertThat(tokenRevocations.isRevoked(revokedToken)).isTrue();
+        assertThat(tokenRevocations.isRevoked(token("bob", UUID.randomUUID(), now.minusSeconds(60)))).isFalse();
+        assertThat(tokenRevocations.isRevoked(token("alice", UUID.randomUUID(), now.minusSeconds(60)))).isTrue();
+        assertThat(tokenRevocations.isRevoked(token("alice", UUID.randomUUID(), now.plusSeconds(1)))).isFalse();
+        verify(restTemplate).getForObject(anyString(), eq(RevokedTokenDto[].class), eq(now.minusSeconds(60)), eq(0L),
+                eq(1000));
+    }
+
+    @Test
+    void sync_BookingServiceUnavailable_ShouldKeepLoadedRevocations() {
+        // given
+        Instant now = Instant.now();
+        VerifiedToken revokedToken = token("bob", UUID.randomUUID(), now.minusSeconds(60));
+        when(restTemplate.getForObject(anyString(), eq(RevokedTokenDto[].class), eq(FIRST_SYNC), eq(0L), eq(1000)))
+                .thenReturn(new RevokedTokenDto[]{new RevokedTokenDto(1L, revokedToken.id(), now, now.plusSeconds(900))});
+        when(restTemplate.getForObject(anyString(), eq(RevokedTokenDto[].class), eq(now.minusSeconds(60)), eq(0L),
+                eq(1000)))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+        tokenRevocations.sync();
+
+        // when
+        tokenRevocations.sync();
+
+        // then
+        assertThat(tokenRevocations.isRevoked(revokedToken)).isTrue();
+    }
+
+    @Test
+    void sync_ShouldPickUpRevocationCommittedLateWithinOverlap() {
+        // given
+        Instant now = Instant.now();
+        VerifiedToken first = token("bob", UUID.randomUUID(), now.minusSeconds(60));
+        VerifiedToken late = token("carol", UUID.randomUUID(), now.minusSeconds(60));
+        RevokedTokenDto firstRow = new RevokedTokenDto(8L, first.id(), now, now.plusSeconds(900));
+        // id 7 получен раньше, но зафиксирован после строки с id 8
+        RevokedTokenDto lateRow = new RevokedTokenDto(7L, late.id(), now.minusMillis(5), now.plusSeconds(900));
+        when(restTemplate.getForObject(anyString(), eq(RevokedTokenDto[].class), eq(FIRST_SYNC), eq(0L), eq(1000)))
+                .thenReturn(new RevokedTokenDto[]{firstRow});
+        when(restTemplate.getForObject(anyString(), eq(RevokedTokenDto[].class), eq(now.minusSeconds(60)), eq(0L),
+                eq(1000)))
+                .thenReturn(new RevokedTokenDto[]{lateRow, firstRow});
+        tokenRevocations.sync();
+        assertThat(tokenRevocations.isRevoked(late)).isFalse();
+
+        // when
+        tokenRevocations.sync();
+
+        // then
+        assertThat(tokenRevocations.isRevoked(first)).isTrue();
+        assertThat(tokenRevocations.isRevoked(late)).isTrue();
+    }
+
+    private static VerifiedToken token(String login, UUID id, Instant issuedAt) {
+        return new VerifiedToken(login, "USER", issuedAt.plusSeconds(900), id, issuedAt);
+    }
+}
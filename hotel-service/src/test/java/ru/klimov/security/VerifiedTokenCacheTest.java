@@ -0,0 +1,98 @@
+package ru.klimov.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class VerifiedTokenCacheTest {
+
+    private static final String SECRET = "test-secret-key-for-hotel-service-0123456789";
+
+    private final AtomicLong ticker = new AtomicLong();
+    private final Instant now = Instant.now();
+
+    private JwtUtil jwtUtil;
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = spy(new JwtUtil());
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        jwtUtil.init();
+        cache = new VerifiedTokenCache(jwtUtil, new SimpleMeterRegistry(), 100, Duration.ofHours(1),
+                Clock.fixed(now, ZoneOffset.UTC), ticker::get);
+    }
+
+    @Test
+    void verify_SameToken_ParsedOnce() {
+        // given
+        String token = token("user", "USER", now.plusSeconds(600));
+
+        // when
+        VerifiedToken first = cache.verify(token);
+        VerifiedToken second = cache.verify(token);
+
+        // then
+        assertThat(first).isEqualTo(second);
+        assertThat(first.login()).isEqualTo("user");
+        assertThat(first.role()).isEqualTo("USER");
+        verify(jwtUtil, times(1)).verify(token);
+    }
+
+    @Test
+    void verify_InvalidToken_ReturnsNullAndIsNotCached() {
+        // given
+        String token = Jwts.builder().setSubject("user")
+                .signWith(SignatureAlgorithm.HS512, "another-secret-key-0123456789").compact();
+
+        // when
+        VerifiedToken first = cache.verify(token);
+        VerifiedToken second = cache.verify(token);
+
+        // then
+        assertThat(first).isNull();
+        assertThat(second).isNull();
+        assertThat(cache.size()).isZero();
+        verify(jwtUtil, times(2)).verify(anyString());
+    }
+
+    @Test
+    void verify_EntryExpiresAtTokenExp() {
+        // given
+        String token = token("user", "USER", now.plusSeconds(60));
+        cache.verify(token);
+
+        // when
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(59));
+        cache.verify(token);
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(2));
+
+        // then
+        assertThat(cache.size()).isZero();
+        verify(jwtUtil, times(1)).verify(token);
+    }
+
+    private static String token(String login, String role, Instant expiresAt) {
+        return Jwts.builder()
+                .setSubject(login)
+                .claim("role", role)
+                .setExpiration(Date.from(expiresAt))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+    }
+}
@@ -0,0 +1,181 @@
+package ru.klimov.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.klimov.cache.CatalogCache;
+import ru.klimov.dto.HotelImportResultDto;
+import ru.klimov.entity.Hotel;
+import ru.klimov.entity.Room;
+import ru.klimov.exception.HotelImportException;
+import ru.klimov.index.RoomRankingIndex;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HotelImportServiceTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private RoomRankingIndex roomRankingIndex;
+
+    @Mock
+    private CatalogCache catalogCache;
+
+    private final TransactionTemplate transactionTemplate =
+            spy(new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+    private HotelImportService hotelImportService;
+
+    @BeforeEach
+    void setUp() {
+        hotelImportService = new HotelImportService(
+                entityManager, transactionTemplate, roomRankingIndex, catalogCache, new ObjectMapper(), 2, 3);
+        lenient().doAnswer(inv -> {
+            Object entity = inv.getArgument(0);
+            if (entity instanceof Hotel hotel) {
+                hotel.setId(UUID.randomUUID());
+            } else if (entity instanceof Room room) {
+                room.setId(UUID.randomUUID());
+            }
+            return null;
+        }).when(entityManager).persist(any());
+    }
+
+    @Test
+    @DisplayName("импорт пишет строки порциями и сбрасывает контекст после каждого батча")
+    void importHotels_WritesInChunksAndBatches() {
+        // given
+        String ndjson = """
+                {"hotel":{"name":"Grand","address":"ул. Ленина, 1"}}
+                {"room":{"number":"101","available":true}}
+                {"room":{"number":"102","available":true}}
+
+                {"room":{"number":"103","available":false}}
+                {"hotel":{"name":"Plaza","address":"ул. Мира, 2","rooms":[{"number":"1","available":true}]}}
+                """;
+
+        // when
+        HotelImportResultDto result = hotelImportService.importHotels(stream(ndjson));
+
+        // then
+        assertThat(result.getLines()).isEqualTo(6);
+        assertThat(result.getHotels()).isEqualTo(2);
+        assertThat(result.getRooms()).isEqualTo(4);
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+        verify(entityManager, times(6)).persist(any());
+        verify(entityManager, times(4)).flush();
+        verify(entityManager, times(4)).clear();
+        verify(roomRankingIndex, times(4)).put(argThat(room -> room.getHotelId() != null && room.getTimeBooked() == 0));
+        verify(roomRankingIndex).put(argThat(room -> "103".equals(room.getNumber()) && "Grand".equals(room.getHotelName())));
+        verify(catalogCache, times(2)).invalidate();
+    }
+
+    @Test
+    @DisplayName("номер с hotelId привязывается к существующему отелю")
+    void importHotels_RoomWithHotelId_UsesExistingHotel() {
+        // given
+        Hotel hotel = new Hotel();
+        hotel.setId(UUID.randomUUID());
+        hotel.setName("Existing");
+        when(entityManager.find(Hotel.class, hotel.getId())).thenReturn(hotel);
+
+        // when
+        HotelImportResultDto result = hotelImportService.importHotels(
+                stream("{\"room\":{\"number\":\"7\",\"available\":true,\"hotelId\":\"" + hotel.getId() + "\"}}"));
+
+        // then
+        assertThat(result.getRooms()).isEqualTo(1);
+        verify(entityManager).getReference(Hotel.class, hotel.getId());
+        verify(roomRankingIndex).put(argThat(room -> "Existing".equals(room.getHotelName())));
+    }
+
+    @Test
+    void importHotels_RoomWithoutHotel_ThrowsException() {
+        assertThatThrownBy(() -> hotelImportService.importHotels(stream("{\"room\":{\"number\":\"1\"}}")))
+                .isInstanceOf(HotelImportException.class)
+                .hasMessageContaining("has no hotel");
+        verify(roomRankingIndex, never()).put(any());
+    }
+
+    @Test
+    void importHotels_MalformedLine_ThrowsException() {
+        assertThatThrownBy(() -> hotelImportService.importHotels(stream("{\"hotel\":{\"name\":\"A\"}}\n{oops")))
+                .isInstanceOf(HotelImportException.class)
+                .hasMessage("Malformed JSON at line 2");
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    @DisplayName("при ошибке сообщает, сколько строк, отелей и номеров уже зафиксировано")
+    void importHotels_FailureAfterCommittedChunk_ReportsCommittedCounts() {
+        // given
+        String ndjson = """
+                {"hotel":{"name":"Grand","address":"ул. Ленина, 1"}}
+                {"room":{"number":"101","available":true}}
+                {"room":{"number":"102","available":true}}
+                {"room":{"number":"103","available":true}}
+                {oops
+                """;
+
+        // when & then
+        assertThatThrownBy(() -> hotelImportService.importHotels(stream(ndjson)))
+                .isInstanceOfSatisfying(HotelImportException.class, ex -> {
+                    assertThat(ex.getResult().getLines()).isEqualTo(3);
+                    assertThat(ex.getResult().getHotels()).isEqualTo(1);
+                    assertThat(ex.getResult().getRooms()).isEqualTo(2);
+                    assertThat(ex.getResult().getFailedLine()).isEqualTo(5);
+                    assertThat(ex.getResult().getError()).isEqualTo("Malformed JSON at line 5");
+                });
+        verify(transactionTemplate, times(1)).executeWithoutResult(any());
+    }
+
+    @Test
+    @DisplayName("номера из массива rooms отеля пишутся порциями, а не всей строкой")
+    void importHotels_EmbeddedRooms_AreSplitIntoChunks() {
+        // given
+        String ndjson = """
+                {"hotel":{"name":"Grand","address":"ул. Ленина, 1","rooms":[{"number":"1"},{"number":"2"},{"number":"3"},{"number":"4"},{"number":"5"}]}}
+                """;
+
+        // when
+        HotelImportResultDto result = hotelImportService.importHotels(stream(ndjson));
+
+        // then
+        assertThat(result.getHotels()).isEqualTo(1);
+        assertThat(result.getRooms()).isEqualTo(5);
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+        verify(roomRankingIndex, times(5)).put(argThat(room -> "Grand".equals(room.getHotelName())));
+    }
+
+    @Test
+    void importHotels_HotelNameAfterRooms_ThrowsException() {
+        assertThatThrownBy(() -> hotelImportService.importHotels(
+                stream("{\"hotel\":{\"rooms\":[{\"number\":\"1\"}],\"name\":\"A\"}}")))
+                .isInstanceOf(HotelImportException.class)
+                .hasMessage("Line 1: hotel rooms must follow name and address");
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,24 +1,37 @@
 package ru.klimov.service;
 
-import org.junit.jupiter.api.DisplayName;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.klimov.cache.CatalogCache;
 import ru.klimov.controller.payload.HotelPayload;
 import ru.klimov.controller.payload.RoomPayload;
 import ru.klimov.dto.HotelDto;
+import ru.klimov.dto.HotelOccupancyDto;
+import ru.klimov.dto.RoomDto;
+import ru.klimov.dto.RoomOccupancyDto;
 import ru.klimov.entity.Hotel;
+import ru.klimov.index.RoomOccupancyIndex;
+import ru.klimov.index.RoomRankingIndex;
 import ru.klimov.mapper.HotelMapper;
+import ru.klimov.mapper.RoomMapper;
 import ru.klimov.repository.HotelRepository;
+import ru.klimov.repository.RoomRepository;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -31,6 +44,21 @@ class HotelServiceTest {
     @Mock
     private HotelMapper mapper;
 
+    @Mock
+    private RoomMapper roomMapper;
+
+    @Mock
+    private RoomRankingIndex roomRankingIndex;
+
+    @Mock
+    private RoomOccupancyIndex roomOccupancyIndex;
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Spy
+    private CatalogCache catalogCache = new CatalogCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+
     @InjectMocks
     private HotelService hotelService;
 
@@ -44,7 +72,7 @@ class HotelServiceTest {
         HotelDto dto1 = new HotelDto();
         HotelDto dto2 = new HotelDto();
 
-        when(hotelRepository.findAll()).thenReturn(hotels);
+        when(hotelRepository.findAllWithRooms()).thenReturn(hotels);
         when(mapper.toDto(hotel1)).thenReturn(dto1);
         when(mapper.toDto(hotel2)).thenReturn(dto2);
 
@@ -53,7 +81,7 @@ class HotelServiceTest {
 
         // then
         assertThat(result).hasSize(2).containsExactly(dto1, dto2);
-        verify(hotelRepository).findAll();
+        verify(hotelRepository).findAllWithRooms();
         verify(mapper, times(2)).toDto(any(Hotel.class));
     }
 
@@ -114,4 +142,63 @@ class HotelServiceTest {
             hotel.getRooms() == null
         ));
     }
+
+    @Test
+    void getOccupancy_WithBookedDays_ReturnsBitmapPerRoom() {
+        // given
+        UUID hotelId = UUID.randomUUID();
+        LocalDate from = LocalDate.of(2026, 1, 1);
+        LocalDate to = from.plusDays(364);
+        RoomDto busy = RoomDto.builder().id(UUID.randomUUID()).number("101").build();
+        RoomDto free = RoomDto.builder().id(UUID.randomUUID()).number("102").build();
+        BitSet busyDays = new BitSet();
+        busyDays.set(0);
+        busyDays.set(9, 12);
+
+        when(roomRepository.findRoomDtosByHotelId(hotelId)).thenReturn(List.of(busy, free));
+        when(roomOccupancyIndex.occupancy(busy.getId(), from, to)).thenReturn(busyDays);
+        when(roomOccupancyIndex.occupancy(free.getId(), from, to)).thenReturn(new BitSet());
+
+        // when
+        HotelOccupancyDto result = hotelService.getOccupancy(hotelId, from, to);
+
+        // then
+        assertThat(result.getDays()).isEqualTo(365);
+        assertThat(result.getRooms()).extracting(RoomOccupancyDto::getNumber).containsExactly("101", "102");
+        byte[] bitmap = result.getRooms().get(0).getOccupancy();
+        assertThat(bitmap).hasSize(46);
+        assertThat(BitSet.valueOf(bitmap)).isEqualTo(busyDays);
+        assertThat(result.getRooms().get(1).getOccupancy()).hasSize(46).containsOnly(0);
+        verifyNoInteractions(hotelRepository);
+    }
+
+    @Test
+    void getOccupancy_InvalidRange_ThrowsException() {
+        // given
+        UUID hotelId = UUID.randomUUID();
+        LocalDate from = LocalDate.of(2026, 1, 1);
+
+        // when & then
+        assertThatThrownBy(() -> hotelService.getOccupancy(hotelId, from, from.minusDays(1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("From must be before To");
+        assertThatThrownBy(() -> hotelService.getOccupancy(hotelId, from, from.plusDays(366)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Occupancy range must not exceed 366 days");
+        verifyNoInteractions(roomRepository, roomOccupancyIndex);
+    }
+
+    @Test
+    void getOccupancy_UnknownHotel_ThrowsException() {
+        // given
+        UUID hotelId = UUID.randomUUID();
+        LocalDate from = LocalDate.of(2026, 1, 1);
+        when(roomRepository.findRoomDtosByHotelId(hotelId)).thenReturn(List.of());
+        when(hotelRepository.existsById(hotelId)).thenReturn(false);
+
+        // when & then
+        assertThatThrownBy(() -> hotelService.getOccupancy(hotelId, from, from.plusDays(30)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Hotel not found");
+    }
 }
@@ -0,0 +1,109 @@
+package ru.klimov.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.klimov.bloom.RequestIdBloomFilter;
+import ru.klimov.dto.RoomReservationDto;
+import ru.klimov.entity.RoomStatus;
+import ru.klimov.repository.RoomReservationArchiveRepository;
+import ru.klimov.repository.RoomReservationRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationLookupServiceTest {
+
+    @Mock
+    private RoomReservationRepository roomReservationRepository;
+
+    @Mock
+    private RoomReservationArchiveRepository roomReservationArchiveRepository;
+
+    @Mock
+    private RequestIdBloomFilter requestIdBloomFilter;
+
+    private ReservationLookupService reservationLookupService;
+
+    @BeforeEach
+    void setUp() {
+        reservationLookupService = new ReservationLookupService(roomReservationRepository,
+                roomReservationArchiveRepository, requestIdBloomFilter, 10, 3);
+    }
+
+    @Test
+    void findReservations_QueriesOncePerChunkAndStreamsChunks() {
+        // given
+        List<UUID> requestIds = IntStream.range(0, 7).mapToObj(i -> UUID.randomUUID()).toList();
+        when(requestIdBloomFilter.mightContain(any())).thenReturn(true);
+        when(roomReservationRepository.findReservationDtos(anyCollection()))
+                .thenAnswer(inv -> inv.<Collection<UUID>>getArgument(0).stream().map(id -> reservation(id, false)).toList());
+
+        // when
+        List<List<RoomReservationDto>> chunks = new ArrayList<>();
+        reservationLookupService.findReservations(requestIds, chunks::add);
+
+        // then
+        assertThat(chunks).extracting(List::size).containsExactly(3, 3, 1);
+        verify(roomReservationRepository, times(3)).findReservationDtos(anyCollection());
+        verify(roomReservationArchiveRepository, never()).findReservationDtos(anyCollection());
+    }
+
+    @Test
+    void findReservations_SkipsUnknownAndFallsBackToArchive() {
+        // given
+        UUID live = UUID.randomUUID();
+        UUID archived = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+        when(requestIdBloomFilter.mightContain(live)).thenReturn(true);
+        when(requestIdBloomFilter.mightContain(archived)).thenReturn(true);
+        when(roomReservationRepository.findReservationDtos(Set.of(live, archived))).thenReturn(List.of(reservation(live, false)));
+        when(roomReservationArchiveRepository.findReservationDtos(Set.of(archived))).thenReturn(List.of(reservation(archived, true)));
+
+        // when
+        List<RoomReservationDto> result = new ArrayList<>();
+        reservationLookupService.findReservations(List.of(live, archived, unknown), result::addAll);
+
+        // then
+        assertThat(result).extracting(RoomReservationDto::getRequestId).containsExactly(live, archived);
+        verify(requestIdBloomFilter).recordFalsePositives(0);
+    }
+
+    @Test
+    void findReservations_TooManyRequestIds_ThrowsBeforeQuerying() {
+        // given
+        List<UUID> requestIds = IntStream.range(0, 11).mapToObj(i -> UUID.randomUUID()).toList();
+
+        // when & then
+        assertThatThrownBy(() -> reservationLookupService.findReservations(requestIds, chunk -> { }))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("from 1 to 10");
+        verifyNoInteractions(roomReservationRepository, requestIdBloomFilter);
+    }
+
+    private static RoomReservationDto reservation(UUID requestId, boolean archived) {
+        return RoomReservationDto.builder()
+                .requestId(requestId)
+                .roomId(UUID.randomUUID())
+                .status(archived ? RoomStatus.RELEASED : RoomStatus.CONFIRMED)
+                .archived(archived)
+                .build();
+    }
+}
@@ -0,0 +1,164 @@
+package ru.klimov.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.klimov.bloom.RequestIdBloomFilter;
+import ru.klimov.controller.payload.RoomReservationPayload;
+import ru.klimov.entity.Room;
+import ru.klimov.entity.RoomReservation;
+import ru.klimov.index.RoomOccupancyIndex;
+import ru.klimov.index.RoomRankingIndex;
+import ru.klimov.index.RoomReservationIndex;
+import ru.klimov.lock.RoomLocks;
+import ru.klimov.repository.RoomRepository;
+import ru.klimov.repository.RoomReservationArchiveRepository;
+import ru.klimov.repository.RoomReservationRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RoomReservationConcurrencyTest {
+
+    private static final int ROOMS = 16;
+    private static final int REQUESTS = 4000;
+    private static final int THREADS = 64;
+
+    @Mock
+    private RoomService roomService;
+
+    @Mock
+    private RoomReservationRepository roomReservationRepository;
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private RoomReservationArchiveRepository roomReservationArchiveRepository;
+
+    @Mock
+    private RoomRankingIndex roomRankingIndex;
+
+    @Mock
+    private RoomOccupancyIndex roomOccupancyIndex;
+
+    @Mock
+    private RequestIdBloomFilter requestIdBloomFilter;
+
+    @Spy
+    private RoomReservationIndex roomReservationIndex = new RoomReservationIndex(mock(RoomReservationRepository.class));
+
+    @Spy
+    private RoomLocks roomLocks = new RoomLocks();
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @InjectMocks
+    private RoomReservationService roomReservationService;
+
+    @Test
+    void confirmAvailability_ConcurrentRequests_NeverDoubleBooks() throws Exception {
+        // given
+        List<UUID> roomIds = new ArrayList<>();
+        Map<UUID, Room> rooms = new ConcurrentHashMap<>();
+        for (int i = 0; i < ROOMS; i++) {
+            Room room = new Room();
+            room.setId(UUID.randomUUID());
+            room.setTimeBooked(0);
+            roomIds.add(room.getId());
+            rooms.put(room.getId(), room);
+        }
+
+        Queue<RoomReservation> saved = new ConcurrentLinkedQueue<>();
+        Map<UUID, AtomicInteger> timeBooked = new ConcurrentHashMap<>();
+        when(roomService.getRoomById(any())).thenAnswer(inv -> Optional.ofNullable(rooms.get(inv.<UUID>getArgument(0))));
+        when(roomReservationRepository.save(any())).thenAnswer(inv -> {
+            Thread.yield();
+            saved.add(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+        when(roomRepository.incrementTimeBooked(any())).thenAnswer(inv -> {
+            timeBooked.computeIfAbsent(inv.getArgument(0), id -> new AtomicInteger()).incrementAndGet();
+            return 1;
+        });
+
+        Random random = new Random(42);
+        LocalDate base = LocalDate.of(2026, 1, 1);
+        List<UUID> requestRooms = new ArrayList<>();
+        List<RoomReservationPayload> payloads = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            LocalDate start = base.plusDays(random.nextInt(90));
+            RoomReservationPayload payload = new RoomReservationPayload();
+            payload.setRequestId(UUID.randomUUID().toString());
+            payload.setStartDate(start);
+            payload.setEndDate(start.plusDays(random.nextInt(5)));
+            payloads.add(payload);
+            requestRooms.add(roomIds.get(random.nextInt(ROOMS)));
+        }
+
+        // when
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                return roomReservationService.confirmAvailability(requestRooms.get(index), payloads.get(index));
+            }));
+        }
+        startGate.countDown();
+        int confirmed = 0;
+        for (Future<Boolean> future : futures) {
+            if (future.get(30, TimeUnit.SECONDS)) {
+                confirmed++;
+            }
+        }
+        executor.shutdown();
+
+        // then
+        assertThat(confirmed).isPositive().isLessThan(REQUESTS);
+        assertThat(saved).hasSize(confirmed);
+        assertThat(timeBooked.values().stream().mapToInt(AtomicInteger::get).sum()).isEqualTo(confirmed);
+
+        Map<Room, List<RoomReservation>> byRoom = saved.stream()
+                .collect(Collectors.groupingBy(RoomReservation::getRoom));
+        byRoom.forEach((room, reservations) -> {
+            reservations.sort(Comparator.comparing(RoomReservation::getStartDate));
+            for (int i = 1; i < reservations.size(); i++) {
+                assertThat(reservations.get(i).getStartDate())
+                        .as("room %s is double-booked", room.getId())
+                        .isAfter(reservations.get(i - 1).getEndDate());
+            }
+            assertThat(timeBooked.get(room.getId()).get()).isEqualTo(reservations.size());
+        });
+    }
+}
@@ -5,16 +5,29 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.klimov.bloom.RequestIdBloomFilter;
 import ru.klimov.controller.payload.RoomReservationPayload;
+import ru.klimov.dto.RoomReservationDto;
+import ru.klimov.dto.RoomReservationResultDto;
 import ru.klimov.entity.Room;
 import ru.klimov.entity.RoomReservation;
+import ru.klimov.entity.RoomReservationArchive;
 import ru.klimov.entity.RoomStatus;
+import ru.klimov.index.RoomOccupancyIndex;
+import ru.klimov.index.RoomRankingIndex;
+import ru.klimov.index.RoomReservationIndex;
+import ru.klimov.lock.RoomLocks;
 import ru.klimov.repository.RoomRepository;
+import ru.klimov.repository.RoomReservationArchiveRepository;
 import ru.klimov.repository.RoomReservationRepository;
 
 import java.time.LocalDate;
-import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -35,6 +48,27 @@ class RoomReservationServiceTest {
     @Mock
     private RoomRepository roomRepository;
 
+    @Mock
+    private RoomReservationArchiveRepository roomReservationArchiveRepository;
+
+    @Mock
+    private RoomRankingIndex roomRankingIndex;
+
+    @Mock
+    private RoomOccupancyIndex roomOccupancyIndex;
+
+    @Mock
+    private RoomReservationIndex roomReservationIndex;
+
+    @Mock
+    private RequestIdBloomFilter requestIdBloomFilter;
+
+    @Spy
+    private RoomLocks roomLocks = new RoomLocks();
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private RoomReservationService roomReservationService;
 
@@ -62,6 +96,7 @@ class RoomReservationServiceTest {
         payload.setRequestId(requestId.toString());
 
         when(roomService.getRoomById(roomId)).thenReturn(Optional.of(room));
+        when(requestIdBloomFilter.mightContain(requestId)).thenReturn(true);
         when(roomReservationRepository.findByRequestId(requestId)).thenReturn(Optional.of(new RoomReservation()));
 
         // when
@@ -72,6 +107,29 @@ class RoomReservationServiceTest {
         verify(roomReservationRepository, never()).save(any());
     }
 
+    @Test
+    @DisplayName("confirmAvailability возвращает false, если requestId уже перенесён в архив")
+    void confirmAvailability_ArchivedRequestId_ReturnsFalse() {
+        // given
+        UUID roomId = UUID.randomUUID();
+        UUID requestId = UUID.randomUUID();
+        RoomReservationPayload payload = new RoomReservationPayload();
+        payload.setRequestId(requestId.toString());
+
+        when(roomService.getRoomById(roomId)).thenReturn(Optional.of(new Room()));
+        when(requestIdBloomFilter.mightContain(requestId)).thenReturn(true);
+        when(roomReservationRepository.findByRequestId(requestId)).thenReturn(Optional.empty());
+        when(roomReservationArchiveRepository.existsByRequestId(requestId)).thenReturn(true);
+
+        // when
+        boolean result = roomReservationService.confirmAvailability(roomId, payload);
+
+        // then
+        assertThat(result).isFalse();
+        verify(roomReservationRepository, never()).save(any());
+        verify(requestIdBloomFilter, never()).recordFalsePositives(anyInt());
+    }
+
     @Test
     @DisplayName("confirmAvailability возвращает false, если есть пересекающиеся бронирования")
     void confirmAvailability_OverlappingReservations_ReturnsFalse() {
@@ -88,10 +146,7 @@ class RoomReservationServiceTest {
         payload.setEndDate(end);
 
         when(roomService.getRoomById(roomId)).thenReturn(Optional.of(room));
-        when(roomReservationRepository.findByRequestId(requestId)).thenReturn(Optional.empty());
-        when(roomReservationRepository.findByRoomAndStatusAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
-                room, RoomStatus.CONFIRMED, start, end))
-                .thenReturn(Collections.singletonList(new RoomReservation()));
+        when(roomReservationIndex.isAvailable(roomId, start, end)).thenReturn(false);
 
         // when
         boolean result = roomReservationService.confirmAvailability(roomId, payload);
@@ -117,17 +172,13 @@ class RoomReservationServiceTest {
         payload.setEndDate(end);
 
         when(roomService.getRoomById(roomId)).thenReturn(Optional.of(room));
-        when(roomReservationRepository.findByRequestId(requestId)).thenReturn(Optional.empty());
-        when(roomReservationRepository.findByRoomAndStatusAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
-                room, RoomStatus.CONFIRMED, start, end))
-                .thenReturn(Collections.emptyList());
+        when(roomReservationIndex.isAvailable(roomId, start, end)).thenReturn(true);
 
         // when
         boolean result = roomReservationService.confirmAvailability(roomId, payload);
 
         // then
         assertThat(result).isTrue();
-        assertThat(room.getTimeBooked()).isEqualTo(6);
         verify(roomReservationRepository).save(argThat(res -> 
             res.getRequestId().equals(requestId) &&
             res.getRoom().equals(room) &&
@@ -135,30 +186,257 @@ class RoomReservationServiceTest {
             res.getEndDate().equals(end) &&
             res.getStatus() == RoomStatus.CONFIRMED
         ));
-        verify(roomRepository).save(room);
+        verify(roomRepository).incrementTimeBooked(roomId);
+        verify(roomReservationIndex).add(roomId, start, end);
+        verify(roomOccupancyIndex).occupy(roomId, start, end);
+        verify(roomRankingIndex).incrementTimeBooked(roomId);
+        verify(roomReservationRepository, never()).findByRequestId(any());
+        verify(requestIdBloomFilter).add(requestId);
+    }
+
+    @Test
+    @DisplayName("confirmAvailability проверяет БД только при положительном ответе фильтра Блума")
+    void confirmAvailability_BloomFalsePositive_ChecksDatabaseAndReserves() {
+        // given
+        UUID roomId = UUID.randomUUID();
+        Room room = new Room();
+        UUID requestId = UUID.randomUUID();
+        LocalDate start = LocalDate.now();
+
+        RoomReservationPayload payload = new RoomReservationPayload();
+        payload.setRequestId(requestId.toString());
+        payload.setStartDate(start);
+        payload.setEndDate(start);
+
+        when(roomService.getRoomById(roomId)).thenReturn(Optional.of(room));
+        when(requestIdBloomFilter.mightContain(requestId)).thenReturn(true);
+        when(roomReservationRepository.findByRequestId(requestId)).thenReturn(Optional.empty());
+        when(roomReservationIndex.isAvailable(roomId, start, start)).thenReturn(true);
+
+        // when
+        boolean result = roomReservationService.confirmAvailability(roomId, payload);
+
+        // then
+        assertThat(result).isTrue();
+        verify(requestIdBloomFilter).recordFalsePositives(1);
+    }
+
+    @Test
+    @DisplayName("confirmAvailability возвращает false, если requestId занят параллельным запросом")
+    void confirmAvailability_ConcurrentDuplicateRequestId_ReturnsFalse() {
+        // given
+        UUID roomId = UUID.randomUUID();
+        UUID requestId = UUID.randomUUID();
+        LocalDate start = LocalDate.now();
+        LocalDate end = start.plusDays(1);
+
+        RoomReservationPayload payload = new RoomReservationPayload();
+        payload.setRequestId(requestId.toString());
+        payload.setStartDate(start);
+        payload.setEndDate(end);
+
+        when(roomService.getRoomById(roomId)).thenReturn(Optional.of(new Room()));
+        when(roomReservationIndex.isAvailable(roomId, start, end)).thenReturn(true);
+        when(roomReservationRepository.save(any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        // when
+        boolean result = roomReservationService.confirmAvailability(roomId, payload);
+
+        // then
+        assertThat(result).isFalse();
+        verify(roomRepository, never()).incrementTimeBooked(any());
+        verify(roomReservationIndex, never()).add(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("confirmAvailability выбрасывает исключение, если дата начала позже даты окончания")
+    void confirmAvailability_InvalidDates_ThrowsException() {
+        // given
+        UUID roomId = UUID.randomUUID();
+        UUID requestId = UUID.randomUUID();
+        RoomReservationPayload payload = new RoomReservationPayload();
+        payload.setRequestId(requestId.toString());
+        payload.setStartDate(LocalDate.now().plusDays(3));
+        payload.setEndDate(LocalDate.now());
+
+        when(roomService.getRoomById(roomId)).thenReturn(Optional.of(new Room()));
+
+        // when & then
+        assertThatThrownBy(() -> roomReservationService.confirmAvailability(roomId, payload))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(roomReservationRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("пакетное подтверждение сохраняет все бронирования одним saveAll")
+    void confirmAvailabilityBatch_AllAvailable_ReservesAll() {
+        // given
+        Room first = room();
+        Room second = room();
+        LocalDate start = LocalDate.now();
+        List<RoomReservationPayload> payloads = List.of(
+                batchPayload(first.getId(), start, start.plusDays(2)),
+                batchPayload(second.getId(), start, start.plusDays(2)),
+                batchPayload(first.getId(), start.plusDays(3), start.plusDays(4)));
+
+        when(roomRepository.findAllById(any())).thenReturn(List.of(first, second));
+        when(roomReservationIndex.isAvailable(any(), any(), any())).thenReturn(true);
+
+        // when
+        List<RoomReservationResultDto> results = roomReservationService.confirmAvailability(payloads);
+
+        // then
+        assertThat(results).extracting(RoomReservationResultDto::getConfirmed).containsOnly(true);
+        verify(roomReservationRepository).saveAll(argThat(saved -> ((List<RoomReservation>) saved).size() == 3));
+        verify(roomRepository).incrementTimeBookedBy(first.getId(), 2);
+        verify(roomRepository).incrementTimeBookedBy(second.getId(), 1);
+        verify(roomReservationIndex, times(3)).add(any(), any(), any());
+        verify(roomOccupancyIndex, times(3)).occupy(any(), any(), any());
+        verify(roomRankingIndex, times(2)).incrementTimeBooked(first.getId());
+    }
+
+    @Test
+    @DisplayName("пакетное подтверждение ничего не сохраняет, если хотя бы один номер занят")
+    void confirmAvailabilityBatch_OneUnavailable_RejectsAll() {
+        // given
+        Room first = room();
+        Room second = room();
+        LocalDate start = LocalDate.now();
+        List<RoomReservationPayload> payloads = List.of(
+                batchPayload(first.getId(), start, start.plusDays(2)),
+                batchPayload(second.getId(), start, start.plusDays(2)));
+
+        when(roomRepository.findAllById(any())).thenReturn(List.of(first, second));
+        when(roomReservationIndex.isAvailable(first.getId(), start, start.plusDays(2))).thenReturn(true);
+        when(roomReservationIndex.isAvailable(second.getId(), start, start.plusDays(2))).thenReturn(false);
+
+        // when
+        List<RoomReservationResultDto> results = roomReservationService.confirmAvailability(payloads);
+
+        // then
+        assertThat(results).extracting(RoomReservationResultDto::getConfirmed).containsOnly(false);
+        assertThat(results).extracting(RoomReservationResultDto::getMessage)
+                .containsExactly("Batch rejected", "Room is already booked for the specified dates");
+        verify(roomReservationRepository, never()).saveAll(any());
+        verify(roomReservationIndex, never()).add(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("пакетное подтверждение отклоняет пересекающиеся бронирования одного номера внутри пакета")
+    void confirmAvailabilityBatch_OverlapInsideBatch_RejectsAll() {
+        // given
+        Room room = room();
+        LocalDate start = LocalDate.now();
+        List<RoomReservationPayload> payloads = List.of(
+                batchPayload(room.getId(), start, start.plusDays(2)),
+                batchPayload(room.getId(), start.plusDays(2), start.plusDays(4)));
+
+        when(roomRepository.findAllById(any())).thenReturn(List.of(room));
+        when(roomReservationIndex.isAvailable(any(), any(), any())).thenReturn(true);
+
+        // when
+        List<RoomReservationResultDto> results = roomReservationService.confirmAvailability(payloads);
+
+        // then
+        assertThat(results).extracting(RoomReservationResultDto::getConfirmed).containsOnly(false);
+        verify(roomReservationRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("пакетное подтверждение помечает несуществующий номер и повторный requestId")
+    void confirmAvailabilityBatch_UnknownRoomAndDuplicate_ReportsPerItem() {
+        // given
+        Room room = room();
+        LocalDate start = LocalDate.now();
+        RoomReservationPayload duplicate = batchPayload(room.getId(), start, start);
+        List<RoomReservationPayload> payloads = List.of(duplicate, batchPayload(UUID.randomUUID(), start, start));
+
+        when(roomRepository.findAllById(any())).thenReturn(List.of(room));
+        when(requestIdBloomFilter.mightContain(UUID.fromString(duplicate.getRequestId()))).thenReturn(true);
+        when(roomReservationRepository.findExistingRequestIds(any()))
+                .thenReturn(List.of(UUID.fromString(duplicate.getRequestId())));
+
+        // when
+        List<RoomReservationResultDto> results = roomReservationService.confirmAvailability(payloads);
+
+        // then
+        assertThat(results).extracting(RoomReservationResultDto::getMessage)
+                .containsExactly("Reservation with this requestId already exists", "Room not found");
+        verify(roomReservationRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void confirmAvailabilityBatch_Empty_ThrowsException() {
+        assertThatThrownBy(() -> roomReservationService.confirmAvailability(List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Room room() {
+        Room room = new Room();
+        room.setId(UUID.randomUUID());
+        return room;
+    }
+
+    private static RoomReservationPayload batchPayload(UUID roomId, LocalDate start, LocalDate end) {
+        RoomReservationPayload payload = new RoomReservationPayload();
+        payload.setRoomId(roomId);
+        payload.setRequestId(UUID.randomUUID().toString());
+        payload.setStartDate(start);
+        payload.setEndDate(end);
+        return payload;
     }
 
     @Test
     void releaseRoom_Success() {
         // given
         UUID requestId = UUID.randomUUID();
+        Room room = new Room();
+        room.setId(UUID.randomUUID());
         RoomReservation reservation = new RoomReservation();
+        reservation.setRoom(room);
+        reservation.setStartDate(LocalDate.now());
+        reservation.setEndDate(LocalDate.now().plusDays(2));
         reservation.setStatus(RoomStatus.CONFIRMED);
 
+        when(requestIdBloomFilter.mightContain(requestId)).thenReturn(true);
         when(roomReservationRepository.findByRequestId(requestId)).thenReturn(Optional.of(reservation));
+        when(roomReservationRepository.updateStatus(requestId, RoomStatus.CONFIRMED, RoomStatus.RELEASED)).thenReturn(1);
 
         // when
         roomReservationService.releaseRoom(requestId);
 
         // then
-        assertThat(reservation.getStatus()).isEqualTo(RoomStatus.RELEASED);
-        verify(roomReservationRepository).save(reservation);
+        verify(roomReservationRepository).updateStatus(requestId, RoomStatus.CONFIRMED, RoomStatus.RELEASED);
+        verify(roomReservationIndex).remove(room.getId(), reservation.getStartDate(), reservation.getEndDate());
+        verify(roomOccupancyIndex).release(room.getId(), reservation.getStartDate(), reservation.getEndDate());
+    }
+
+    @Test
+    void releaseRoom_AlreadyReleased_KeepsIndexUntouched() {
+        // given
+        UUID requestId = UUID.randomUUID();
+        Room room = new Room();
+        room.setId(UUID.randomUUID());
+        RoomReservation reservation = new RoomReservation();
+        reservation.setRoom(room);
+        reservation.setStatus(RoomStatus.RELEASED);
+
+        when(requestIdBloomFilter.mightContain(requestId)).thenReturn(true);
+        when(roomReservationRepository.findByRequestId(requestId)).thenReturn(Optional.of(reservation));
+        when(roomReservationRepository.updateStatus(requestId, RoomStatus.CONFIRMED, RoomStatus.RELEASED)).thenReturn(0);
+
+        // when
+        roomReservationService.releaseRoom(requestId);
+
+        // then
+        verify(roomReservationIndex, never()).remove(any(), any(), any());
     }
 
     @Test
     void releaseRoom_NotFound_ThrowsException() {
         // given
         UUID requestId = UUID.randomUUID();
+        when(requestIdBloomFilter.mightContain(requestId)).thenReturn(true);
         when(roomReservationRepository.findByRequestId(requestId)).thenReturn(Optional.empty());
 
         // when & then
@@ -166,4 +444,53 @@ class RoomReservationServiceTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Room reservation not found");
     }
+
+    @Test
+    void releaseRoom_Archived_DoesNothing() {
+        // given
+        UUID requestId = UUID.randomUUID();
+        when(requestIdBloomFilter.mightContain(requestId)).thenReturn(true);
+        when(roomReservationRepository.findByRequestId(requestId)).thenReturn(Optional.empty());
+        when(roomReservationArchiveRepository.existsByRequestId(requestId)).thenReturn(true);
+
+        // when
+        roomReservationService.releaseRoom(requestId);
+
+        // then
+        verify(roomReservationRepository, never()).updateStatus(any(), any(), any());
+        verifyNoInteractions(roomReservationIndex, roomOccupancyIndex);
+    }
+
+    @Test
+    void getReservation_Archived_ReturnsArchivedDto() {
+        // given
+        UUID requestId = UUID.randomUUID();
+        RoomReservationArchive archived = new RoomReservationArchive();
+        archived.setRequestId(requestId);
+        archived.setRoomId(UUID.randomUUID());
+        archived.setStatus(RoomStatus.RELEASED);
+        when(roomReservationRepository.findByRequestId(requestId)).thenReturn(Optional.empty());
+        when(roomReservationArchiveRepository.findByRequestId(requestId)).thenReturn(Optional.of(archived));
+
+        // when
+        RoomReservationDto result = roomReservationService.getReservation(requestId);
+
+        // then
+        assertThat(result.getArchived()).isTrue();
+        assertThat(result.getRoomId()).isEqualTo(archived.getRoomId());
+        assertThat(result.getStatus()).isEqualTo(RoomStatus.RELEASED);
+    }
+
+    @Test
+    void getReservation_NotFound_ThrowsException() {
+        // given
+        UUID requestId = UUID.randomUUID();
+        when(roomReservationRepository.findByRequestId(requestId)).thenReturn(Optional.empty());
+        when(roomReservationArchiveRepository.findByRequestId(requestId)).thenReturn(Optional.empty());
+
+        // when & then
+        assertThatThrownBy(() -> roomReservationService.getReservation(requestId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Room reservation not found");
+    }
 }
@@ -1,27 +1,39 @@
 package ru.klimov.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import ru.klimov.cache.CatalogCache;
 import ru.klimov.controller.payload.RoomPayload;
 import ru.klimov.dto.RoomDto;
+import ru.klimov.dto.RoomPageDto;
 import ru.klimov.entity.Hotel;
 import ru.klimov.entity.Room;
+import ru.klimov.index.RoomOccupancyIndex;
+import ru.klimov.index.RoomRankingIndex;
 import ru.klimov.mapper.RoomMapper;
 import ru.klimov.repository.HotelRepository;
 import ru.klimov.repository.RoomRepository;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +48,15 @@ class RoomServiceTest {
     @Mock
     private RoomMapper roomMapper;
 
+    @Mock
+    private RoomRankingIndex roomRankingIndex;
+
+    @Mock
+    private RoomOccupancyIndex roomOccupancyIndex;
+
+    @Spy
+    private CatalogCache catalogCache = new CatalogCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+
     @InjectMocks
     private RoomService roomService;
 
@@ -82,6 +103,8 @@ class RoomServiceTest {
             room.getAvailable() &&
             room.getHotel().equals(hotel)
         ));
+        verify(roomRankingIndex).put(expectedDto);
+        verify(catalogCache).invalidate();
     }
 
     @Test
@@ -102,48 +125,105 @@ class RoomServiceTest {
     }
 
     @Test
-    void getRecommendRooms_ReturnsSortedRooms() {
+    void getRecommendRooms_ReturnsTopRoomsFromRanking() {
         // given
-        Room room1 = new Room();
-        Room room2 = new Room();
-        List<Room> rooms = Arrays.asList(room1, room2);
-        
         RoomDto dto1 = new RoomDto();
         RoomDto dto2 = new RoomDto();
 
-        when(roomRepository.findAllByOrderByTimeBookedDesc()).thenReturn(rooms);
-        when(roomMapper.toDto(room1)).thenReturn(dto1);
-        when(roomMapper.toDto(room2)).thenReturn(dto2);
+        when(roomRankingIndex.top(2)).thenReturn(List.of(dto1, dto2));
 
         // when
-        List<RoomDto> result = roomService.getRecommendRooms();
+        List<RoomDto> result = roomService.getRecommendRooms(2);
 
         // then
         assertThat(result).hasSize(2).containsExactly(dto1, dto2);
-        verify(roomRepository).findAllByOrderByTimeBookedDesc();
+        verifyNoInteractions(roomRepository);
     }
 
     @Test
-    void getAllAvailableRooms_ReturnsOnlyAvailableRooms() {
+    void getRecommendRooms_NonPositiveLimit_ThrowsException() {
+        assertThatThrownBy(() -> roomService.getRecommendRooms(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchAvailableRooms_FiltersByHotelAndOccupancy() {
         // given
-        Room availableRoom = new Room();
-        availableRoom.setAvailable(true);
-        Room unavailableRoom = new Room();
-        unavailableRoom.setAvailable(false);
-        
-        List<Room> allRooms = Arrays.asList(availableRoom, unavailableRoom);
-        RoomDto availableDto = new RoomDto();
+        UUID hotelId = UUID.randomUUID();
+        LocalDate start = LocalDate.now();
+        LocalDate end = start.plusDays(3);
+        RoomDto free = RoomDto.builder().id(UUID.randomUUID()).available(true).hotelId(hotelId).build();
+        RoomDto occupied = RoomDto.builder().id(UUID.randomUUID()).available(true).hotelId(hotelId).build();
+        RoomDto otherHotel = RoomDto.builder().id(UUID.randomUUID()).available(true).hotelId(UUID.randomUUID()).build();
+        RoomDto disabled = RoomDto.builder().id(UUID.randomUUID()).available(false).hotelId(hotelId).build();
+
+        when(roomOccupancyIndex.isFree(free.getId(), start, end)).thenReturn(true);
+        when(roomOccupancyIndex.isFree(occupied.getId(), start, end)).thenReturn(false);
+        when(roomRankingIndex.find(any(Predicate.class), eq(5))).thenAnswer(inv -> {
+            Predicate<RoomDto> filter = inv.getArgument(0);
+            return Stream.of(free, occupied, otherHotel, disabled).filter(filter).toList();
+        });
+
+        // when
+        List<RoomDto> result = roomService.searchAvailableRooms(start, end, hotelId, 5);
+
+        // then
+        assertThat(result).containsExactly(free);
+    }
+
+    @Test
+    void searchAvailableRooms_InvalidDates_ThrowsException() {
+        LocalDate start = LocalDate.now();
+
+        assertThatThrownBy(() -> roomService.searchAvailableRooms(start, start.minusDays(1), null, 5))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void getAllAvailableRooms_FullPage_ReturnsNextCursor() {
+        // given
+        RoomDto first = RoomDto.builder().id(UUID.randomUUID()).build();
+        RoomDto second = RoomDto.builder().id(UUID.randomUUID()).build();
+        when(roomRepository.findAvailableRoomDtos(Limit.of(2))).thenReturn(List.of(first, second));
+
+        // when
+        RoomPageDto result = roomService.getAllAvailableRooms(null, 2);
 
-        when(roomRepository.findAll()).thenReturn(allRooms);
-        when(roomMapper.toDto(availableRoom)).thenReturn(availableDto);
+        // then
+        assertThat(result.getItems()).containsExactly(first, second);
+        assertThat(result.getNextCursor()).isEqualTo(second.getId());
+        verify(roomRepository, never()).findAll();
+        verifyNoInteractions(roomMapper);
+    }
+
+    @Test
+    void getAllAvailableRooms_LastPage_ReturnsNoCursor() {
+        // given
+        UUID after = UUID.randomUUID();
+        RoomDto last = RoomDto.builder().id(UUID.randomUUID()).build();
+        when(roomRepository.findAvailableRoomDtosAfter(after, Limit.of(2))).thenReturn(List.of(last));
+
+        // when
+        RoomPageDto result = roomService.getAllAvailableRooms(after, 2);
+
+        // then
+        assertThat(result.getItems()).containsExactly(last);
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getAllAvailableRooms_RepeatedCall_ServedFromCache() {
+        // given
+        RoomDto room = RoomDto.builder().id(UUID.randomUUID()).build();
+        when(roomRepository.findAvailableRoomDtos(Limit.of(50))).thenReturn(List.of(room));
 
         // when
-        List<RoomDto> result = roomService.getAllAvailableRooms();
+        roomService.getAllAvailableRooms(null, 50);
+        RoomPageDto result = roomService.getAllAvailableRooms(null, 50);
 
         // then
-        assertThat(result).hasSize(1).containsExactly(availableDto);
-        verify(roomRepository).findAll();
-        verify(roomMapper).toDto(availableRoom);
-        verify(roomMapper, never()).toDto(unavailableRoom);
+        assertThat(result.getItems()).containsExactly(room);
+        verify(roomRepository, times(1)).findAvailableRoomDtos(Limit.of(50));
     }
 }